@@ -0,0 +1,62 @@
+package com.test.benchmark;
+
+import com.test.security.CachingAuthenticationProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of authenticating one HTTP Basic request, BCrypt at cost 10 against a warm credential cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthenticationBenchmark {
+
+    private DaoAuthenticationProvider bcrypt;
+    private CachingAuthenticationProvider cached;
+
+    @Setup
+    public void setup() {
+        final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(10);
+        bcrypt = new DaoAuthenticationProvider();
+        bcrypt.setPasswordEncoder(encoder);
+        bcrypt.setUserDetailsService(new InMemoryUserDetailsManager(User.withUsername("admin")
+                .password(encoder.encode("admin")).roles("ADMIN").build()));
+        cached = new CachingAuthenticationProvider(bcrypt, 100, Duration.ofMinutes(5));
+        cached.authenticate(token());
+    }
+
+    @Benchmark
+    public Authentication bcrypt() {
+        return bcrypt.authenticate(token());
+    }
+
+    @Benchmark
+    public Authentication cached() {
+        return cached.authenticate(token());
+    }
+
+    private static UsernamePasswordAuthenticationToken token() {
+        return new UsernamePasswordAuthenticationToken("admin", "admin");
+    }
+}
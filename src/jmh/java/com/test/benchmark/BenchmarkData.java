@@ -0,0 +1,76 @@
+package com.test.benchmark;
+
+import com.test.PersonServiceApplication;
+import com.test.request.PersonRequest;
+import com.test.service.IPersonService;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Boots the application against its own in-memory database and seeds it with deterministic persons.
+ */
+final class BenchmarkData {
+
+    private static final String[] FIRST_NAMES = {"Saurav", "John", "Jane", "Anna", "Ravi", "Maria", "Ahmed", "Chen", "Olga", "Pedro"};
+    private static final String[] LAST_NAMES = {"Singh", "Keynes", "Doe", "Smith", "Kumar", "Garcia", "Khan", "Wang", "Ivanova", "Silva"};
+    private static final String[] COLOURS = {"Black", "Red", "Blue", "Green", "Yellow"};
+    private static final int SEED_CHUNK = 5_000;
+
+    private BenchmarkData() {
+    }
+
+    static ConfigurableApplicationContext start(final String database, final WebApplicationType webApplicationType,
+                                                final String... properties) {
+        final List<String> all = new ArrayList<>(Arrays.asList(
+                "spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1",
+                "person.log.mode=NONE",
+                "logging.level.root=WARN",
+                "person.batch.max-size=" + SEED_CHUNK));
+        all.addAll(Arrays.asList(properties));
+        return new SpringApplicationBuilder(PersonServiceApplication.class)
+                .web(webApplicationType)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .properties(all.toArray(new String[0]))
+                .run();
+    }
+
+    static void seed(final IPersonService personService, final int rows) {
+        final List<PersonRequest> chunk = new ArrayList<>(SEED_CHUNK);
+        for (int i = 0; i < rows; i++) {
+            chunk.add(request(i));
+            if (chunk.size() == SEED_CHUNK || i == rows - 1) {
+                personService.saveAll(chunk);
+                chunk.clear();
+            }
+        }
+    }
+
+    /**
+     * Person number <code>i</code>, names get a base 26 suffix so that most of them are distinct.
+     */
+    static PersonRequest request(final long i) {
+        final String suffix = suffix(i / FIRST_NAMES.length);
+        final PersonRequest personRequest = new PersonRequest();
+        personRequest.setFirstName(FIRST_NAMES[(int) (i % FIRST_NAMES.length)] + suffix);
+        personRequest.setLastName(LAST_NAMES[(int) ((i / 3) % LAST_NAMES.length)] + suffix);
+        personRequest.setAge((int) (i % 100));
+        personRequest.setFavouriteColour(COLOURS[(int) (i % COLOURS.length)]);
+        return personRequest;
+    }
+
+    private static String suffix(long value) {
+        final StringBuilder suffix = new StringBuilder();
+        do {
+            suffix.append((char) ('a' + value % 26));
+            value /= 26;
+        } while (value > 0);
+        return suffix.toString();
+    }
+}
@@ -0,0 +1,75 @@
+package com.test.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.test.entity.Person;
+import com.test.request.PersonRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.BeanUtils;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request and response (de)serialization with the object mapper configuration Spring MVC uses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+
+    private ObjectWriter personWriter;
+    private ObjectWriter pageWriter;
+    private ObjectReader requestReader;
+    private Person person;
+    private List<Person> page;
+    private String request;
+
+    @Setup
+    public void setup() throws IOException {
+        final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        personWriter = objectMapper.writerFor(Person.class);
+        pageWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, Person.class));
+        requestReader = objectMapper.readerFor(PersonRequest.class);
+        page = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            final Person each = new Person();
+            BeanUtils.copyProperties(BenchmarkData.request(i), each);
+            each.setId((long) i + 1);
+            page.add(each);
+        }
+        person = page.get(0);
+        request = objectMapper.writeValueAsString(BenchmarkData.request(42));
+    }
+
+    @Benchmark
+    public byte[] serializePerson() throws IOException {
+        return personWriter.writeValueAsBytes(person);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws IOException {
+        return pageWriter.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public PersonRequest deserializeRequest() throws IOException {
+        return requestReader.readValue(request);
+    }
+}
@@ -0,0 +1,336 @@
+package com.test.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.test.request.PersonRequest;
+import com.test.service.IPersonService;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * <p>
+ * End to end load test of the person API over real HTTP. Boots the application on a random port, seeds it and drives
+ * a weighted mix of operations from a fixed number of workers at a fixed total rate.
+ * </p>
+ * <p>
+ * Every request has an intended start time on the rate schedule and its latency is measured from that time, not
+ * from when it was actually sent. A stall in the server therefore shows up in the latency of every request that
+ * should have been sent during the stall (no coordinated omission).
+ * </p>
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.test.benchmark.LoadHarness \
+ *     -Dbenchmark.args="rows=10000 threads=16 rate=2000 warmup=10 duration=60 mix=save:10,get:60,search:20,update:5,delete:5"
+ * </pre>
+ * Any extra <code>--property=value</code> argument is passed to the application.
+ */
+public final class LoadHarness {
+
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+    private static final long HIGHEST_TRACKABLE = TimeUnit.MINUTES.toNanos(1);
+
+    enum Operation {
+        SAVE, GET, SEARCH, UPDATE, DELETE
+    }
+
+    private final String baseUrl;
+    private final String authorization;
+    private final int rows;
+    private final Operation[] schedule;
+    private final ObjectWriter requestWriter;
+    private final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final Queue<Long> created = new ConcurrentLinkedQueue<>();
+    private final AtomicLong next;
+    private final AtomicLong deletable;
+
+    private LoadHarness(final String baseUrl, final String user, final String password, final int rows,
+                        final Operation[] schedule) {
+        this.baseUrl = baseUrl;
+        this.authorization = "Basic " + Base64.getEncoder()
+                .encodeToString((user + ":" + password).getBytes(StandardCharsets.UTF_8));
+        this.rows = rows;
+        this.schedule = schedule;
+        final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        this.requestWriter = objectMapper.writerFor(PersonRequest.class);
+        this.next = new AtomicLong(rows);
+        // get, search and update use the lower half of the seeded ids, deletes consume the upper half
+        this.deletable = new AtomicLong(rows);
+        reset();
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final Map<String, String> options = new HashMap<>();
+        final StringBuilder properties = new StringBuilder();
+        for (final String arg : args) {
+            if (arg.startsWith("--")) {
+                properties.append(arg.substring(2)).append('\n');
+            } else {
+                final int eq = arg.indexOf('=');
+                options.put(arg.substring(0, eq), arg.substring(eq + 1));
+            }
+        }
+        final int rows = Integer.parseInt(options.getOrDefault("rows", "10000"));
+        final int threads = Integer.parseInt(options.getOrDefault("threads", "16"));
+        final int rate = Integer.parseInt(options.getOrDefault("rate", "1000"));
+        final int warmup = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        final int duration = Integer.parseInt(options.getOrDefault("duration", "30"));
+        final Operation[] schedule = schedule(options.getOrDefault("mix", "save:10,get:60,search:20,update:5,delete:5"));
+        final Path output = Paths.get(options.getOrDefault("output", "target/load"));
+
+        final String[] applicationProperties = properties.length() == 0 ? new String[0]
+                : properties.toString().split("\n");
+        final String[] all = new String[applicationProperties.length + 1];
+        all[0] = "server.port=0";
+        System.arraycopy(applicationProperties, 0, all, 1, applicationProperties.length);
+        final WebApplicationType webApplicationType = properties.indexOf("spring.profiles.active=reactive") >= 0
+                ? WebApplicationType.REACTIVE : WebApplicationType.SERVLET;
+        try (ConfigurableApplicationContext context = BenchmarkData.start("load", webApplicationType, all)) {
+            BenchmarkData.seed(context.getBean(IPersonService.class), rows);
+            final int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            final LoadHarness harness = new LoadHarness("http://localhost:" + port + "/persons",
+                    options.getOrDefault("user", "admin"), options.getOrDefault("password", "admin"), rows, schedule);
+            System.out.printf("Seeded %d persons, %d workers at %d req/s against port %d%n", rows, threads, rate, port);
+            harness.run(threads, rate, TimeUnit.SECONDS.toNanos(warmup));
+            harness.reset();
+            harness.run(threads, rate, TimeUnit.SECONDS.toNanos(duration));
+            harness.report(System.out, duration);
+            harness.write(output);
+        }
+    }
+
+    /**
+     * Expands <code>save:10,get:60</code> into a 100 slot schedule workers walk through.
+     */
+    static Operation[] schedule(final String mix) {
+        final Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        int total = 0;
+        for (final String each : mix.split(",")) {
+            final String[] parts = each.trim().split(":");
+            final int weight = Integer.parseInt(parts[1]);
+            weights.merge(Operation.valueOf(parts[0].toUpperCase()), weight, Integer::sum);
+            total += weight;
+        }
+        final Operation[] schedule = new Operation[total];
+        int slot = 0;
+        for (final Map.Entry<Operation, Integer> entry : weights.entrySet()) {
+            for (int i = 0; i < entry.getValue(); i++) {
+                schedule[slot++] = entry.getKey();
+            }
+        }
+        for (int i = schedule.length - 1; i > 0; i--) {
+            final int j = ThreadLocalRandom.current().nextInt(i + 1);
+            final Operation swap = schedule[i];
+            schedule[i] = schedule[j];
+            schedule[j] = swap;
+        }
+        return schedule;
+    }
+
+    private void reset() {
+        for (final Operation operation : Operation.values()) {
+            histograms.put(operation, new ConcurrentHistogram(HIGHEST_TRACKABLE, 3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    /**
+     * Worker <code>w</code> of <code>n</code> owns every n-th slot of the global rate schedule.
+     */
+    private void run(final int threads, final int rate, final long durationNanos) throws InterruptedException {
+        final long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        final long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        final long end = start + durationNanos;
+        final ExecutorService workers = Executors.newFixedThreadPool(threads);
+        for (int w = 0; w < threads; w++) {
+            final int worker = w;
+            workers.execute(() -> {
+                long slot = worker;
+                long intended = start + slot * interval;
+                while (intended < end) {
+                    final long wait = intended - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    final Operation operation = schedule[(int) (slot % schedule.length)];
+                    final boolean ok = execute(operation);
+                    final long latency = System.nanoTime() - intended;
+                    histograms.get(operation).recordValue(Math.min(latency, HIGHEST_TRACKABLE));
+                    if (!ok) {
+                        errors.get(operation).increment();
+                    }
+                    slot += threads;
+                    intended = start + slot * interval;
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(durationNanos + TimeUnit.MINUTES.toNanos(5), TimeUnit.NANOSECONDS);
+    }
+
+    private boolean execute(final Operation operation) {
+        try {
+            switch (operation) {
+                case SAVE:
+                    return save();
+                case GET:
+                    return send("GET", "/" + liveId(), null) == 200;
+                case SEARCH:
+                    final String lastName = BenchmarkData.request(liveId() - 1).getLastName();
+                    return send("GET", "/search?lastName=" + lastName, null) == 200;
+                case UPDATE:
+                    return send("PUT", "/" + liveId(), BenchmarkData.request(next.getAndIncrement())) == 200;
+                case DELETE:
+                    return delete();
+                default:
+                    throw new IllegalStateException(operation.name());
+            }
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private boolean save() throws IOException {
+        final HttpURLConnection connection = open("POST", "");
+        write(connection, BenchmarkData.request(next.getAndIncrement()));
+        final int status = connection.getResponseCode();
+        final String body = read(connection);
+        final Matcher matcher = ID.matcher(body);
+        if (status == 201 && matcher.find()) {
+            created.add(Long.parseLong(matcher.group(1)));
+        }
+        return status == 201;
+    }
+
+    private boolean delete() throws IOException {
+        Long id = created.poll();
+        if (id == null) {
+            final long seeded = deletable.getAndDecrement();
+            if (seeded <= rows / 2) {
+                return send("GET", "/" + liveId(), null) == 200;
+            }
+            id = seeded;
+        }
+        return send("DELETE", "/" + id, null) == 200;
+    }
+
+    private long liveId() {
+        return 1 + ThreadLocalRandom.current().nextInt(Math.max(1, rows / 2));
+    }
+
+    private int send(final String method, final String path, final PersonRequest body) throws IOException {
+        final HttpURLConnection connection = open(method, path);
+        if (body != null) {
+            write(connection, body);
+        }
+        final int status = connection.getResponseCode();
+        read(connection);
+        return status;
+    }
+
+    private HttpURLConnection open(final String method, final String path) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) URI.create(baseUrl + path).toURL().openConnection();
+        connection.setRequestMethod(method);
+        connection.setRequestProperty("Authorization", authorization);
+        connection.setRequestProperty("Accept", "application/json");
+        return connection;
+    }
+
+    private void write(final HttpURLConnection connection, final PersonRequest body) throws IOException {
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", "application/json");
+        try (OutputStream out = connection.getOutputStream()) {
+            requestWriter.writeValue(out, body);
+        }
+    }
+
+    /**
+     * Drains the body so the keep-alive connection goes back to the pool.
+     */
+    private static String read(final HttpURLConnection connection) throws IOException {
+        final InputStream in = connection.getResponseCode() >= 400 ? connection.getErrorStream() : connection.getInputStream();
+        if (in == null) {
+            return "";
+        }
+        try (InputStream body = in) {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                bytes.write(buffer, 0, read);
+            }
+            return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private void report(final PrintStream out, final int durationSeconds) {
+        out.printf("%-8s %9s %9s %10s %10s %10s %10s %10s %10s%n",
+                "op", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        final Histogram total = new Histogram(HIGHEST_TRACKABLE, 3);
+        long totalErrors = 0;
+        for (final Operation operation : Operation.values()) {
+            final Histogram histogram = histograms.get(operation);
+            total.add(histogram);
+            totalErrors += errors.get(operation).sum();
+            line(out, operation.name().toLowerCase(), histogram, errors.get(operation).sum(), durationSeconds);
+        }
+        line(out, "all", total, totalErrors, durationSeconds);
+    }
+
+    private static void line(final PrintStream out, final String name, final Histogram histogram, final long errors,
+                             final int durationSeconds) {
+        out.printf("%-8s %9d %9d %10.1f %10.3f %10.3f %10.3f %10.3f %10.3f%n", name, histogram.getTotalCount(), errors,
+                (double) histogram.getTotalCount() / durationSeconds,
+                millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()));
+    }
+
+    /**
+     * One HdrHistogram percentile distribution per operation, in milliseconds, for plotting or comparing runs.
+     */
+    private void write(final Path output) throws IOException {
+        Files.createDirectories(output);
+        for (final Operation operation : Operation.values()) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(
+                    output.resolve(operation.name().toLowerCase() + ".hgrm")), false, "UTF-8")) {
+                histograms.get(operation).outputPercentileDistribution(out, 1_000_000.0);
+            }
+        }
+        System.out.println("Histograms written to " + output.toAbsolutePath());
+    }
+
+    private static double millis(final long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,137 @@
+package com.test.benchmark;
+
+import com.test.entity.Person;
+import com.test.repository.PersonRepository;
+import com.test.request.PersonRequest;
+import com.test.response.BatchSaveResponse;
+import com.test.response.CursorPage;
+import com.test.search.NameMatch;
+import com.test.search.PersonCursor;
+import com.test.search.PersonSearchSpecification;
+import com.test.service.impl.PersonService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service hot paths against a pre-seeded in-memory H2 of <code>rows</code> persons.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersonServiceBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int BATCH_SIZE = 500;
+
+    @Param({"1000", "100000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private PersonService personService;
+    private PersonRepository personRepository;
+    private PersonSearchSpecification personSearchSpecification;
+    private final AtomicLong next = new AtomicLong();
+    private String lastName;
+    private PageRequest deepPage;
+    private String deepCursor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkData.start("service" + rows, WebApplicationType.NONE);
+        personService = context.getBean(PersonService.class);
+        personRepository = context.getBean(PersonRepository.class);
+        personSearchSpecification = context.getBean(PersonSearchSpecification.class);
+        BenchmarkData.seed(personService, rows);
+        next.set(rows);
+        lastName = BenchmarkData.request(rows / 2).getLastName();
+        // the middle of the table, reached by offset or by cursor
+        deepPage = PageRequest.of(rows / 2 / PAGE_SIZE, PAGE_SIZE, Sort.by(PersonCursor.ID));
+        final Person middle = new Person();
+        middle.setId((long) rows / 2);
+        deepCursor = PersonCursor.after(PersonCursor.ID, middle).encode();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Person save() {
+        return personService.save(BenchmarkData.request(next.getAndIncrement()));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public BatchSaveResponse saveAll() {
+        final List<PersonRequest> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(BenchmarkData.request(next.getAndIncrement()));
+        }
+        return personService.saveAll(batch);
+    }
+
+    @Benchmark
+    public Person findById() {
+        return personService.findById(randomId());
+    }
+
+    @Benchmark
+    public List<Person> findAllOffset() {
+        return personService.findAll(deepPage);
+    }
+
+    @Benchmark
+    public CursorPage<Person> scrollKeyset() {
+        return personService.scroll(PersonCursor.ID, PAGE_SIZE, deepCursor);
+    }
+
+    @Benchmark
+    public List<Person> findAllByName() {
+        return personService.findAllByName(null, lastName);
+    }
+
+    @Benchmark
+    public List<Person> findAllByNameLike() {
+        return personRepository.findAll(personSearchSpecification.getNameFilter(null, lastName));
+    }
+
+    @Benchmark
+    public List<Person> findAllByNamePrefix() {
+        return personService.findAllByName(null, lastName, NameMatch.PREFIX);
+    }
+
+    @Benchmark
+    public void update() {
+        personService.update(randomId(), BenchmarkData.request(ThreadLocalRandom.current().nextInt(rows)));
+    }
+
+    private long randomId() {
+        return 1 + ThreadLocalRandom.current().nextInt(rows);
+    }
+}
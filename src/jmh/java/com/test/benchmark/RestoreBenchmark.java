@@ -0,0 +1,125 @@
+package com.test.benchmark;
+
+import com.test.PersonServiceApplication;
+import com.test.durable.DurableStore;
+import com.test.request.PersonRequest;
+import com.test.service.IPersonService;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * <p>
+ * Time to ready of a restart in durable mode (<code>person.durable.enabled=true</code>): seeds <code>rows</code>
+ * persons, writes a snapshot, saves <code>changes</code> more persons that only reach the change log, then starts the
+ * application <code>rounds</code> times on an empty database from that directory and prints how long each start took
+ * until it was ready, the change listeners warmed up included.
+ * </p>
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.test.benchmark.RestoreBenchmark \
+ *     -Dbenchmark.args="rows=1000000 changes=100000 rounds=3"
+ * </pre>
+ * The whole table lives in the heap, exec:exec starts the JVM with its default heap of a quarter of the memory; for
+ * millions of rows run the class with <code>java -Xmx...</code> on the test classpath instead.
+ */
+public final class RestoreBenchmark {
+
+    private static final int CHUNK = 5_000;
+
+    private RestoreBenchmark() {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final int rows = Integer.parseInt(option(args, "rows", "1000000"));
+        final int changes = Integer.parseInt(option(args, "changes", "100000"));
+        final int rounds = Integer.parseInt(option(args, "rounds", "3"));
+        final Path directory = Paths.get(option(args, "directory", "target/restore"));
+        delete(directory);
+
+        long start = System.nanoTime();
+        try (ConfigurableApplicationContext context = start("restore-seed", directory)) {
+            final IPersonService personService = context.getBean(IPersonService.class);
+            BenchmarkData.seed(personService, rows);
+            System.out.printf("Seeded %,d persons in %,d ms%n", rows, millis(start));
+            start = System.nanoTime();
+            context.getBean(DurableStore.class).snapshot();
+            System.out.printf("Wrote snapshot of %,d MB in %,d ms%n",
+                    Files.size(directory.resolve("persons.snapshot")) >> 20, millis(start));
+            final List<PersonRequest> chunk = new ArrayList<>(CHUNK);
+            for (int i = 0; i < changes; i++) {
+                chunk.add(BenchmarkData.request(rows + i));
+                if (chunk.size() == CHUNK || i == changes - 1) {
+                    personService.saveAll(chunk);
+                    chunk.clear();
+                }
+            }
+        }
+        System.gc();
+
+        for (int round = 1; round <= rounds; round++) {
+            start = System.nanoTime();
+            try (ConfigurableApplicationContext context = start("restore-" + round, directory)) {
+                final long ready = millis(start);
+                final Long count = context.getBean(JdbcTemplate.class).queryForObject("select count(*) from persons",
+                        Long.class);
+                System.gc();
+                final Runtime runtime = Runtime.getRuntime();
+                System.out.printf("Round %d: ready in %,d ms with %,d persons (%,d in the snapshot, %,d in the log),"
+                                + " %,d MB of heap in use%n", round, ready, count, rows, changes,
+                        (runtime.totalMemory() - runtime.freeMemory()) >> 20);
+            }
+            System.gc();
+        }
+    }
+
+    private static ConfigurableApplicationContext start(final String database, final Path directory) {
+        // command line arguments, properties given to the builder are only defaults under application.properties
+        return new SpringApplicationBuilder(PersonServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .run("--spring.datasource.url=jdbc:h2:mem:" + database,
+                        "--person.durable.enabled=true",
+                        "--person.durable.directory=" + directory,
+                        "--person.log.mode=NONE",
+                        "--person.batch.max-size=" + CHUNK,
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.test.durable=INFO");
+    }
+
+    private static long millis(final long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private static void delete(final Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private static String option(final String[] args, final String name, final String defaultValue) {
+        for (final String arg : args) {
+            if (arg.startsWith(name + "=")) {
+                return arg.substring(name.length() + 1);
+            }
+        }
+        return defaultValue;
+    }
+}
@@ -0,0 +1,58 @@
+package com.test.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>
+ * Runs {@link LoadHarness} with the same arguments on Tomcat's platform thread pool, with
+ * <code>person.threads.virtual=true</code> and, when listed in <code>modes</code>, on the <code>reactive</code> profile
+ * (WebFlux and R2DBC), so throughput and p99 of each mode can be read side by side. Histograms of the last round go to
+ * <code>target/load/&lt;mode&gt;</code>.
+ * </p>
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.test.benchmark.ThreadModeComparison \
+ *     -Dbenchmark.args="rows=10000 threads=1000 rate=5000 warmup=10 duration=60"
+ * </pre>
+ * Use more workers than Tomcat's 200 request threads, otherwise the platform pool never runs out. All runs share one
+ * JVM and the first one also warms up the JIT, so by default every mode runs twice (<code>rounds=2</code>) and only the
+ * last round should be compared; <code>modes=virtual,platform</code> swaps the order,
+ * <code>modes=platform,virtual,reactive</code> adds the reactive stack.
+ */
+public final class ThreadModeComparison {
+
+    private ThreadModeComparison() {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        // one keep-alive connection per worker, the JDK keeps only 5 per host by default
+        System.setProperty("http.maxConnections", option(args, "threads", "16"));
+        final int rounds = Integer.parseInt(option(args, "rounds", "2"));
+        for (int round = 1; round <= rounds; round++) {
+            for (final String mode : option(args, "modes", "platform,virtual").split(",")) {
+                System.out.printf("%n=== round %d of %d, %s threads ===%n", round, rounds, mode);
+                final List<String> all = new ArrayList<>(Arrays.asList(args));
+                all.add("output=target/load/" + mode);
+                final String database = "load-" + mode + "-" + round;
+                all.add("--spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1");
+                if ("reactive".equals(mode)) {
+                    all.add("--spring.profiles.active=reactive");
+                    all.add("--spring.r2dbc.url=r2dbc:h2:mem:///" + database);
+                } else {
+                    all.add("--person.threads.virtual=" + "virtual".equals(mode));
+                }
+                LoadHarness.main(all.toArray(new String[0]));
+            }
+        }
+    }
+
+    private static String option(final String[] args, final String name, final String defaultValue) {
+        for (final String arg : args) {
+            if (arg.startsWith(name + "=")) {
+                return arg.substring(name.length() + 1);
+            }
+        }
+        return defaultValue;
+    }
+}
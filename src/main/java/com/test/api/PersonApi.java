@@ -1,8 +1,26 @@
 package com.test.api;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.test.cache.PersonChangeCounter;
 import com.test.entity.Person;
+import com.test.io.PersonExportWriter;
+import com.test.io.PersonFormat;
+import com.test.request.PersonBulkUpdateRequest;
+import com.test.request.PersonPatchRequest;
 import com.test.request.PersonRequest;
+import com.test.request.PersonSelection;
+import com.test.response.BatchSaveResponse;
+import com.test.response.BulkResponse;
+import com.test.response.CursorPage;
+import com.test.response.PersonLookupResponse;
+import com.test.response.PersonMatch;
+import com.test.response.PersonStatsResponse;
+import com.test.response.SearchPlanResponse;
+import com.test.response.ImportReport;
+import com.test.search.NameMatch;
+import com.test.service.impl.PersonImportService;
 import com.test.service.impl.PersonService;
+import com.test.stats.PersonStats;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -10,34 +28,53 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.io.InputStream;
 import java.util.List;
 
+import static com.test.io.PersonFormat.TEXT_CSV_VALUE;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
 
 @RestController
 @RequestMapping("/persons")
+@Profile("!reactive")
 public class PersonApi {
 
     private final PersonService personService;
+    private final PersonImportService personImportService;
+    private final PersonChangeCounter personChangeCounter;
+    private final PersonStats personStats;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public PersonApi(PersonService personService) {
+    public PersonApi(PersonService personService, PersonImportService personImportService,
+                     PersonChangeCounter personChangeCounter, PersonStats personStats, ObjectMapper objectMapper) {
         this.personService = personService;
+        this.personImportService = personImportService;
+        this.personChangeCounter = personChangeCounter;
+        this.personStats = personStats;
+        this.objectMapper = objectMapper;
     }
 
     @Operation(summary = "Save Person to in-memory database.")
@@ -52,29 +89,183 @@ public class PersonApi {
         return ResponseEntity.status(HttpStatus.CREATED).body(personService.save(personRequest));
     }
 
+    @Operation(summary = "Save a batch of Person to in-memory database in chunks.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Stored all valid persons, invalid ones are listed with their errors.",
+                    content = {@Content(mediaType = APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = BatchSaveResponse.class))}),
+            @ApiResponse(responseCode = "400", description = "Batch is larger than allowed",
+                    content = @Content)})
+    @PostMapping(value = "/batch", consumes = APPLICATION_JSON_VALUE, produces = APPLICATION_JSON_VALUE)
+    public ResponseEntity<BatchSaveResponse> saveAll(@RequestBody List<PersonRequest> personRequests) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(personService.saveAll(personRequests));
+    }
+
+    @Operation(summary = "Import Person records from an NDJSON or CSV upload, committed in chunks.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Imported all valid records, rejected lines are listed with their errors.",
+                    content = {@Content(mediaType = APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ImportReport.class))}),
+            @ApiResponse(responseCode = "400", description = "Upload could not be read",
+                    content = @Content),
+            @ApiResponse(responseCode = "429", description = "Another import is running",
+                    content = @Content)})
+    @PostMapping(value = "/import", consumes = {APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE}, produces = APPLICATION_JSON_VALUE)
+    public ResponseEntity<ImportReport> importAll(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                  InputStream body) {
+        return ResponseEntity.ok(personImportService.importAll(PersonFormat.of(contentType), body));
+    }
+
     @Operation(summary = "Find all Person from in-memory database.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Found the list of all person",
                     content = {@Content(mediaType = APPLICATION_JSON_VALUE,
-                            schema = @Schema(implementation = Person.class))})})
+                            schema = @Schema(implementation = Person.class))}),
+            @ApiResponse(responseCode = "304", description = "No person changed since the If-None-Match ETag",
+                    content = @Content)})
     @GetMapping
     public ResponseEntity<List<Person>> findAllPerson(@RequestParam(defaultValue = "0") Integer pageNo,
                                                       @RequestParam(defaultValue = "10") Integer pageSize,
-                                                      @RequestParam(defaultValue = "id") String sortBy) {
-        return ResponseEntity.ok(personService.findAll(PageRequest.of(pageNo, pageSize, Sort.by(sortBy))));
+                                                      @RequestParam(defaultValue = "id") String sortBy,
+                                                      WebRequest webRequest) {
+        final String etag = personChangeCounter.etag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(personService.findAll(PageRequest.of(pageNo, pageSize, Sort.by(sortBy))));
+    }
+
+    @Operation(summary = "Find many Person by id in one call, missing ids are listed separately.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found persons in request order and missing ids",
+                    content = {@Content(mediaType = APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = PersonLookupResponse.class))}),
+            @ApiResponse(responseCode = "400", description = "Too many ids supplied",
+                    content = @Content)})
+    @GetMapping(params = "ids", produces = APPLICATION_JSON_VALUE)
+    public ResponseEntity<PersonLookupResponse> findAllPersonById(@Parameter(description = "Comma separated ids of persons to be found")
+                                                                  @RequestParam("ids") List<Long> ids) {
+        return ResponseEntity.ok(personService.lookup(ids));
+    }
+
+    @Operation(summary = "Find many Person by id in one call, for id lists too long for a query string.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found persons in request order and missing ids",
+                    content = {@Content(mediaType = APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = PersonLookupResponse.class))}),
+            @ApiResponse(responseCode = "400", description = "Too many ids supplied",
+                    content = @Content)})
+    @PostMapping(value = "/lookup", consumes = APPLICATION_JSON_VALUE, produces = APPLICATION_JSON_VALUE)
+    public ResponseEntity<PersonLookupResponse> lookup(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(personService.lookup(ids));
+    }
+
+    @Operation(summary = "Find a page of Person after a cursor, without offset scan or total count.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found the page of person and the cursor of the next page",
+                    content = {@Content(mediaType = APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = CursorPage.class))}),
+            @ApiResponse(responseCode = "304", description = "No person changed since the If-None-Match ETag",
+                    content = @Content),
+            @ApiResponse(responseCode = "400", description = "Invalid sort key, page size or cursor supplied",
+                    content = @Content)})
+    @GetMapping(value = "/scroll", produces = APPLICATION_JSON_VALUE)
+    public ResponseEntity<CursorPage<Person>> scroll(@Parameter(description = "One of id, firstName, lastName or age")
+                                                     @RequestParam(defaultValue = "id") String sortBy,
+                                                     @RequestParam(defaultValue = "10") Integer pageSize,
+                                                     @Parameter(description = "Cursor returned as next by the previous page")
+                                                     @RequestParam(required = false) String cursor,
+                                                     WebRequest webRequest) {
+        final String etag = personChangeCounter.etag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(personService.scroll(sortBy, pageSize, cursor));
+    }
+
+    @Operation(summary = "Stream every Person from in-memory database as NDJSON or CSV, chosen by Accept header.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Streamed all persons",
+                    content = {@Content(mediaType = APPLICATION_NDJSON_VALUE,
+                            schema = @Schema(implementation = Person.class)),
+                            @Content(mediaType = TEXT_CSV_VALUE)})})
+    @GetMapping(value = "/export", produces = {APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE})
+    public ResponseEntity<StreamingResponseBody> export(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        final PersonFormat format = PersonFormat.of(accept);
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=persons." + format.getExtension())
+                .body(outputStream -> {
+                    try (PersonExportWriter writer = PersonExportWriter.of(format, outputStream, objectMapper)) {
+                        personService.exportAll(writer::write);
+                    }
+                });
+    }
+
+    @Operation(summary = "Counts of Person by favourite colour, age decade and name initials.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Current counts, maintained on every write",
+                    content = {@Content(mediaType = APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = PersonStatsResponse.class))})})
+    @GetMapping(value = "/stats", produces = APPLICATION_JSON_VALUE)
+    public ResponseEntity<PersonStatsResponse> stats() {
+        return ResponseEntity.ok(personStats.snapshot());
     }
 
     @Operation(summary = "Search all Person that matches first or last name from in-memory database.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Found the list of all person based on search criteria.",
                     content = {@Content(mediaType = APPLICATION_JSON_VALUE,
-                            schema = @Schema(implementation = Person.class))})})
+                            schema = @Schema(implementation = Person.class))}),
+            @ApiResponse(responseCode = "304", description = "No person changed since the If-None-Match ETag",
+                    content = @Content)})
     @GetMapping("/search")
     public ResponseEntity<List<Person>> findPerson(@Parameter(description = "FirstName of person to be searched")
                                                    @RequestParam(value = "firstName", required = false) String firstName,
                                                    @Parameter(description = "LastName of person to be searched")
-                                                   @RequestParam(value = "lastName", required = false) String lastName) {
-        return ResponseEntity.ok(personService.findAllByName(firstName, lastName));
+                                                   @RequestParam(value = "lastName", required = false) String lastName,
+                                                   @Parameter(description = "AUTO: PREFIX when every term ends with *, CONTAINS otherwise; or CONTAINS or PREFIX")
+                                                   @RequestParam(value = "match", defaultValue = "AUTO") NameMatch match,
+                                                   WebRequest webRequest) {
+        final String etag = personChangeCounter.etag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(personService.findAllByName(firstName, lastName, match));
+    }
+
+    @Operation(summary = "Show how a search by first or last name is answered, with the database query plan.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Plan of the search",
+                    content = {@Content(mediaType = APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = SearchPlanResponse.class))})})
+    @GetMapping(value = "/search/plan", produces = APPLICATION_JSON_VALUE)
+    public ResponseEntity<SearchPlanResponse> explainSearch(@Parameter(description = "FirstName of person to be searched")
+                                                            @RequestParam(value = "firstName", required = false) String firstName,
+                                                            @Parameter(description = "LastName of person to be searched")
+                                                            @RequestParam(value = "lastName", required = false) String lastName,
+                                                            @Parameter(description = "AUTO: PREFIX when every term ends with *, CONTAINS otherwise; or CONTAINS or PREFIX")
+                                                            @RequestParam(value = "match", defaultValue = "AUTO") NameMatch match) {
+        return ResponseEntity.ok(personService.explainByName(firstName, lastName, match));
+    }
+
+    @Operation(summary = "Search Person by first or last name tolerating typos, best matches first.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Best matches with their score, 1 for an exact match",
+                    content = {@Content(mediaType = APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = PersonMatch.class))}),
+            @ApiResponse(responseCode = "400", description = "No name or an invalid limit supplied",
+                    content = @Content),
+            @ApiResponse(responseCode = "503", description = "Search index is still warming up",
+                    content = @Content)})
+    @GetMapping(value = "/search/fuzzy", produces = APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<PersonMatch>> fuzzySearch(@Parameter(description = "FirstName of person to be searched")
+                                                         @RequestParam(value = "firstName", required = false) String firstName,
+                                                         @Parameter(description = "LastName of person to be searched")
+                                                         @RequestParam(value = "lastName", required = false) String lastName,
+                                                         @Parameter(description = "Maximum number of matches")
+                                                         @RequestParam(defaultValue = "10") Integer limit) {
+        return ResponseEntity.ok(personService.fuzzySearch(firstName, lastName, limit));
     }
 
     @Operation(summary = "Find a Person using id from in-memory database.")
@@ -82,14 +273,22 @@ public class PersonApi {
             @ApiResponse(responseCode = "200", description = "Found the person",
                     content = {@Content(mediaType = APPLICATION_JSON_VALUE,
                             schema = @Schema(implementation = Person.class))}),
+            @ApiResponse(responseCode = "304", description = "Person has the If-None-Match version",
+                    content = @Content),
             @ApiResponse(responseCode = "400", description = "Invalid id supplied",
                     content = @Content),
             @ApiResponse(responseCode = "404", description = "Person not found",
                     content = @Content)})
     @GetMapping("/{id}")
     public ResponseEntity<Person> findPersonById(@Parameter(description = "id of person to be searched")
-                                                 @PathVariable("id") Long id) {
-        return ResponseEntity.ok(personService.findById(id));
+                                                 @PathVariable("id") Long id,
+                                                 WebRequest webRequest) {
+        final Person person = personService.findById(id);
+        final String etag = PersonETag.of(person);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(person);
     }
 
     @ApiResponses(value = {
@@ -124,4 +323,50 @@ public class PersonApi {
         return ResponseEntity.ok().build();
     }
 
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Patched the person, ETag carries the new version",
+                    content = {@Content(mediaType = APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = Person.class))}),
+            @ApiResponse(responseCode = "400", description = "Invalid id, If-Match and/or request supplied",
+                    content = @Content),
+            @ApiResponse(responseCode = "404", description = "Person not found to patch",
+                    content = @Content),
+            @ApiResponse(responseCode = "409", description = "Person has been changed since the If-Match version",
+                    content = @Content),
+            @ApiResponse(responseCode = "412", description = "If-Match is a weak entity tag",
+                    content = @Content)})
+    @Operation(summary = "Change only the supplied fields of a person")
+    @PatchMapping(value = "/{id}", consumes = APPLICATION_JSON_VALUE, produces = APPLICATION_JSON_VALUE)
+    public ResponseEntity<Person> patch(@Parameter(description = "id of person to be patched.") @PathVariable("id") Long id,
+                                        @Parameter(description = "ETag of the person the patch is based on.")
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                        @RequestBody @Valid PersonPatchRequest patch) {
+        final Person person = personService.patch(id, patch, PersonETag.version(ifMatch, "patch"));
+        return ResponseEntity.ok().eTag(PersonETag.of(person)).body(person);
+    }
+
+    @Operation(summary = "Delete every Person listed by id or matching the criteria, in chunks.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Deleted the selected persons",
+                    content = {@Content(mediaType = APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = BulkResponse.class))}),
+            @ApiResponse(responseCode = "400", description = "Neither or both of ids and criteria supplied",
+                    content = @Content)})
+    @PostMapping(value = "/bulk-delete", consumes = APPLICATION_JSON_VALUE, produces = APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkResponse> deleteAll(@RequestBody PersonSelection selection) {
+        return ResponseEntity.ok(personService.deleteAll(selection));
+    }
+
+    @Operation(summary = "Set favourite colour and/or age of every Person listed by id or matching the criteria, in chunks.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Updated the selected persons",
+                    content = {@Content(mediaType = APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = BulkResponse.class))}),
+            @ApiResponse(responseCode = "400", description = "Invalid selection or nothing to update supplied",
+                    content = @Content)})
+    @PostMapping(value = "/bulk-update", consumes = APPLICATION_JSON_VALUE, produces = APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkResponse> updateAll(@RequestBody @Valid PersonBulkUpdateRequest request) {
+        return ResponseEntity.ok(personService.updateAll(request));
+    }
+
 }
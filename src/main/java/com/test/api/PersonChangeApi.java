@@ -0,0 +1,75 @@
+package com.test.api;
+
+import com.test.feed.PersonChangeFeed;
+import com.test.feed.PersonChangeStreams;
+import com.test.response.PersonChange;
+import com.test.response.PersonChangePage;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.TEXT_EVENT_STREAM_VALUE;
+
+@RestController
+@RequestMapping("/persons")
+@Profile("!reactive")
+@ConditionalOnProperty(name = "person.feed.enabled", havingValue = "true", matchIfMissing = true)
+public class PersonChangeApi {
+
+    private final PersonChangeFeed personChangeFeed;
+    private final PersonChangeStreams personChangeStreams;
+
+    @Autowired
+    public PersonChangeApi(PersonChangeFeed personChangeFeed, PersonChangeStreams personChangeStreams) {
+        this.personChangeFeed = personChangeFeed;
+        this.personChangeStreams = personChangeStreams;
+    }
+
+    @Operation(summary = "Changes to Person after a sequence number, to keep a copy in sync without listing all person.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found the page of changes and the sequence number to read on from",
+                    content = {@Content(mediaType = APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = PersonChangePage.class))}),
+            @ApiResponse(responseCode = "400", description = "Invalid sequence number or limit supplied",
+                    content = @Content),
+            @ApiResponse(responseCode = "410", description = "Changes after the sequence number are no longer kept, list all person again",
+                    content = @Content)})
+    @GetMapping(value = "/changes", produces = APPLICATION_JSON_VALUE)
+    public ResponseEntity<PersonChangePage> changes(@Parameter(description = "Sequence number of the last change applied, the latest one when missing")
+                                                    @RequestParam(required = false) Long since,
+                                                    @RequestParam(defaultValue = "100") Integer limit) {
+        return ResponseEntity.ok(personChangeFeed.read(since == null ? personChangeFeed.getLatest() : since, limit));
+    }
+
+    @Operation(summary = "Stream changes to Person after a sequence number as Server-Sent Events, as they happen.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Streaming changes, event id is the sequence number",
+                    content = {@Content(mediaType = TEXT_EVENT_STREAM_VALUE,
+                            schema = @Schema(implementation = PersonChange.class))}),
+            @ApiResponse(responseCode = "410", description = "Changes after the sequence number are no longer kept, list all person again",
+                    content = @Content),
+            @ApiResponse(responseCode = "503", description = "Too many streams open",
+                    content = @Content)})
+    @GetMapping(value = "/changes/stream", produces = TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter changeStream(@Parameter(description = "Sequence number of the last change applied, the latest one when missing")
+                                   @RequestParam(required = false) Long since,
+                                   @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        // a reconnecting EventSource sends the id of the last event it received
+        final Long from = lastEventId != null ? lastEventId : since;
+        return personChangeStreams.open(from == null ? personChangeFeed.getLatest() : from);
+    }
+}
@@ -0,0 +1,53 @@
+package com.test.api;
+
+import com.test.entity.Person;
+import com.test.exception.PersonServiceException;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.PRECONDITION_FAILED;
+
+/**
+ * Entity tags of a person are its version, quoted.
+ */
+final class PersonETag {
+
+    private static final String ANY = "*";
+    private static final String WEAK = "W/";
+
+    private PersonETag() {
+    }
+
+    static String of(final Person person) {
+        return "\"" + person.getVersion() + "\"";
+    }
+
+    /**
+     * <p>
+     * Version required by an If-Match header.
+     * </p>
+     *
+     * @param ifMatch Header value, may be absent.
+     * @param source  Operation for the error.
+     * @return Version, null when the header is absent or matches any version.
+     * @throws PersonServiceException BAD_REQUEST when the header is not a single entity tag of this service,
+     *                                PRECONDITION_FAILED for a weak tag, If-Match only matches strong ones.
+     */
+    static Long version(final String ifMatch, final String source) throws PersonServiceException {
+        if (ifMatch == null || ANY.equals(ifMatch.trim())) {
+            return null;
+        }
+        final String tag = ifMatch.trim();
+        if (tag.startsWith(WEAK)) {
+            throw new PersonServiceException("If-Match " + ifMatch + " is a weak entity tag, it never matches.",
+                    PRECONDITION_FAILED, source);
+        }
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.valueOf(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException e) {
+                // fall through
+            }
+        }
+        throw new PersonServiceException("Invalid If-Match header " + ifMatch, BAD_REQUEST, source);
+    }
+}
@@ -0,0 +1,138 @@
+package com.test.api;
+
+import com.test.entity.Person;
+import com.test.request.PersonRequest;
+import com.test.search.NameMatch;
+import com.test.service.IReactivePersonService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
+
+/**
+ * WebFlux counterpart of {@link PersonApi} for the reactive profile, same paths and status codes. Lists and searches
+ * are streamed, as a JSON array or as NDJSON, at the pace the client reads them.
+ */
+@RestController
+@RequestMapping("/persons")
+@Profile("reactive")
+public class ReactivePersonApi {
+
+    private final IReactivePersonService reactivePersonService;
+
+    @Autowired
+    public ReactivePersonApi(IReactivePersonService reactivePersonService) {
+        this.reactivePersonService = reactivePersonService;
+    }
+
+    @Operation(summary = "Save Person to in-memory database.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Stored the person in database.",
+                    content = {@Content(mediaType = APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = Person.class))}),
+            @ApiResponse(responseCode = "400", description = "Invalid attribute supplied in request",
+                    content = @Content)})
+    @PostMapping(consumes = APPLICATION_JSON_VALUE, produces = APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Person>> save(@RequestBody @Valid PersonRequest personRequest) {
+        return reactivePersonService.save(personRequest)
+                .map(person -> ResponseEntity.status(HttpStatus.CREATED).body(person));
+    }
+
+    @Operation(summary = "Stream all Person in id order from in-memory database.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Streamed the persons",
+                    content = {@Content(mediaType = APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = Person.class)),
+                            @Content(mediaType = APPLICATION_NDJSON_VALUE,
+                                    schema = @Schema(implementation = Person.class))})})
+    @GetMapping(produces = {APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE})
+    public Flux<Person> findAllPerson(@Parameter(description = "Last id already read, to continue after it")
+                                      @RequestParam(value = "after", required = false) Long after,
+                                      @Parameter(description = "Maximum number of persons, all when absent")
+                                      @RequestParam(value = "limit", required = false) Integer limit) {
+        return reactivePersonService.findAll(after, limit);
+    }
+
+    @Operation(summary = "Stream all Person that matches first or last name from in-memory database.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Streamed the persons matching the search criteria.",
+                    content = {@Content(mediaType = APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = Person.class)),
+                            @Content(mediaType = APPLICATION_NDJSON_VALUE,
+                                    schema = @Schema(implementation = Person.class))})})
+    @GetMapping(value = "/search", produces = {APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE})
+    public Flux<Person> findPerson(@Parameter(description = "FirstName of person to be searched")
+                                   @RequestParam(value = "firstName", required = false) String firstName,
+                                   @Parameter(description = "LastName of person to be searched")
+                                   @RequestParam(value = "lastName", required = false) String lastName,
+                                   @Parameter(description = "AUTO: PREFIX when every term ends with *, CONTAINS otherwise; or CONTAINS or PREFIX")
+                                   @RequestParam(value = "match", defaultValue = "AUTO") NameMatch match) {
+        return reactivePersonService.findAllByName(firstName, lastName, match);
+    }
+
+    @Operation(summary = "Find Person by id from in-memory database.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found the person, ETag carries its version",
+                    content = {@Content(mediaType = APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = Person.class))}),
+            @ApiResponse(responseCode = "304", description = "Person unchanged since the If-None-Match ETag",
+                    content = @Content),
+            @ApiResponse(responseCode = "404", description = "Person not found",
+                    content = @Content)})
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Person>> findPersonById(@Parameter(description = "id of person to be searched")
+                                                       @PathVariable("id") Long id,
+                                                       ServerWebExchange exchange) {
+        return reactivePersonService.findById(id).map(person -> {
+            final String etag = PersonETag.of(person);
+            if (exchange.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+            return ResponseEntity.ok().eTag(etag).body(person);
+        });
+    }
+
+    @Operation(summary = "Delete a Person using id from in-memory database.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Deleted the person", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Person not found", content = @Content)})
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> delete(@Parameter(description = "id of person to be deleted")
+                                             @PathVariable("id") Long id) {
+        return reactivePersonService.delete(id).thenReturn(ResponseEntity.ok().build());
+    }
+
+    @Operation(summary = "Update a person information")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Updated the person", content = @Content),
+            @ApiResponse(responseCode = "400", description = "Invalid id and/or request supplied", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Person not found to update", content = @Content)})
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<Void>> update(@Parameter(description = "id of person to be updated.") @PathVariable("id") Long id,
+                                             @RequestBody @Valid PersonRequest person) {
+        return reactivePersonService.update(id, person).thenReturn(ResponseEntity.ok().build());
+    }
+}
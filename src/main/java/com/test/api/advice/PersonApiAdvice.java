@@ -3,6 +3,7 @@ package com.test.api.advice;
 import com.test.exception.ApiError;
 import com.test.exception.PersonServiceException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -19,6 +20,7 @@ import java.util.stream.Collectors;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 
 @RestControllerAdvice
+@Profile("!reactive")
 @Slf4j
 public class PersonApiAdvice extends ResponseEntityExceptionHandler {
 
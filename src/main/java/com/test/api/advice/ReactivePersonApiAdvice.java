@@ -0,0 +1,35 @@
+package com.test.api.advice;
+
+import com.test.exception.ApiError;
+import com.test.exception.PersonServiceException;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.ObjectError;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+/**
+ * Same error bodies as {@link PersonApiAdvice}, for the reactive profile.
+ */
+@RestControllerAdvice
+@Profile("reactive")
+public class ReactivePersonApiAdvice {
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ApiError> handleBindException(WebExchangeBindException ex) {
+        final List<String> errors = ex.getBindingResult().getAllErrors().stream().map(ObjectError::getDefaultMessage)
+                .collect(Collectors.toList());
+        return ResponseEntity.badRequest().body(new ApiError(BAD_REQUEST, "One or more field is invalid", errors));
+    }
+
+    @ExceptionHandler(PersonServiceException.class)
+    public ResponseEntity<ApiError> handlePersonServiceException(PersonServiceException ex) {
+        return ResponseEntity.status(ex.getCode()).body(new ApiError(ex.getCode(), ex.getMessage(), ex.getSource()));
+    }
+}
@@ -0,0 +1,124 @@
+package com.test.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.test.entity.Person;
+import com.test.service.PersonChangeListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Size and TTL bounded read-through cache of persons by id.
+ * <p>
+ * Loads and writes for the same id are serialised by the cache: a put or invalidation issued after a write commits
+ * waits for a load that is in flight for that id and then replaces its result, so no stale row survives a write.
+ * <p>
+ * Writes reach the cache after commit in no particular order, so a saved person only replaces an older version, and
+ * deleted ids are remembered for as long as a row is cached so that a late save does not bring them back.
+ */
+@Component
+public class PersonCache implements PersonChangeListener, MeterBinder {
+
+    public static final String NAME = "persons";
+
+    private final Cache<Long, Person> cache;
+    private final Cache<Long, Boolean> deleted;
+    private final boolean prewarm;
+
+    /**
+     * Ids written while warming up, their loaded rows may be stale. Null once ready.
+     */
+    private volatile Set<Long> writtenDuringWarmUp;
+
+    @Autowired
+    public PersonCache(@Value("${person.cache.maximum-size:100000}") long maximumSize,
+                       @Value("${person.cache.expire-after-write:10m}") Duration expireAfterWrite,
+                       @Value("${person.cache.prewarm:false}") boolean prewarm) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.deleted = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+        this.prewarm = prewarm;
+        this.writtenDuringWarmUp = prewarm ? ConcurrentHashMap.newKeySet() : null;
+    }
+
+    /**
+     * <p>
+     * Find the person in the cache or load and cache it. Concurrent callers for the same id share one load.
+     * </p>
+     *
+     * @param id     Person's id.
+     * @param loader Loads the person, returns null when not found.
+     * @return Person or null when not found, misses are not cached.
+     */
+    public Person get(final Long id, final Function<Long, Person> loader) {
+        return cache.get(id, loader);
+    }
+
+    public Person getIfPresent(final Long id) {
+        return cache.getIfPresent(id);
+    }
+
+    @Override
+    public void saved(final Person person) {
+        cache.asMap().compute(person.getId(), (id, cached) -> {
+            markWritten(id);
+            if (deleted.getIfPresent(id) != null
+                    || cached != null && Person.version(cached) >= Person.version(person)) {
+                return cached;
+            }
+            return person;
+        });
+    }
+
+    @Override
+    public void deleted(final Long id) {
+        cache.asMap().compute(id, (key, cached) -> {
+            markWritten(key);
+            deleted.put(key, Boolean.TRUE);
+            return null;
+        });
+    }
+
+    @Override
+    public void loaded(final Person person) {
+        if (!prewarm) {
+            return;
+        }
+        cache.asMap().compute(person.getId(), (id, cached) -> {
+            final Set<Long> written = writtenDuringWarmUp;
+            return cached != null || (written != null && written.contains(id)) ? cached : person;
+        });
+    }
+
+    @Override
+    public void ready() {
+        writtenDuringWarmUp = null;
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, NAME);
+    }
+
+    private void markWritten(final Long id) {
+        final Set<Long> written = writtenDuringWarmUp;
+        if (written != null) {
+            written.add(id);
+        }
+    }
+}
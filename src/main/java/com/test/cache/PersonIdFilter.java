@@ -0,0 +1,94 @@
+package com.test.cache;
+
+import com.test.entity.Person;
+import com.test.service.PersonChangeListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Compact bitset of live person ids, split in lazily allocated pages of 64K ids so that sequence generated ids cost
+ * about one bit each. Lookups are exact for ids written since start-up; rows deleted while warming up may linger as
+ * false positives, which only cost the database round trip the filter was meant to save.
+ */
+@Component
+public class PersonIdFilter implements PersonChangeListener {
+
+    private static final int PAGE_BITS = 16;
+    private static final int WORDS_PER_PAGE = (1 << PAGE_BITS) / Long.SIZE;
+
+    private final ConcurrentMap<Long, AtomicLongArray> pages = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+
+    /**
+     * @param id Person's id.
+     * @return false only when the person certainly does not exist, true when it may exist or the filter is not
+     * built yet.
+     */
+    public boolean mightContain(final Long id) {
+        if (!ready) {
+            return true;
+        }
+        if (id == null || id < 0) {
+            return false;
+        }
+        final AtomicLongArray page = pages.get(id >>> PAGE_BITS);
+        return page != null && (page.get(word(id)) & mask(id)) != 0;
+    }
+
+    @Override
+    public void saved(final Person person) {
+        set(person.getId());
+    }
+
+    @Override
+    public void loaded(final Person person) {
+        set(person.getId());
+    }
+
+    @Override
+    public void deleted(final Long id) {
+        if (id == null || id < 0) {
+            return;
+        }
+        final AtomicLongArray page = pages.get(id >>> PAGE_BITS);
+        if (page == null) {
+            return;
+        }
+        final int word = word(id);
+        final long mask = mask(id);
+        long current;
+        do {
+            current = page.get(word);
+        } while ((current & mask) != 0 && !page.compareAndSet(word, current, current & ~mask));
+    }
+
+    @Override
+    public void ready() {
+        ready = true;
+    }
+
+    private void set(final Long id) {
+        if (id == null || id < 0) {
+            return;
+        }
+        final AtomicLongArray page = pages.computeIfAbsent(id >>> PAGE_BITS, key -> new AtomicLongArray(WORDS_PER_PAGE));
+        final int word = word(id);
+        final long mask = mask(id);
+        long current;
+        do {
+            current = page.get(word);
+        } while ((current & mask) == 0 && !page.compareAndSet(word, current, current | mask));
+    }
+
+    private static int word(final long id) {
+        return (int) (id & ((1 << PAGE_BITS) - 1)) >>> 6;
+    }
+
+    private static long mask(final long id) {
+        return 1L << (id & 63);
+    }
+}
@@ -0,0 +1,77 @@
+package com.test.cache;
+
+import com.test.entity.Person;
+import com.test.search.NameMatch;
+import com.test.service.PersonChangeListener;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight group for name searches, the read that spikes on the same arguments and is not cached.
+ * <p>
+ * Reads by id are not coalesced here, {@link PersonCache} already shares one load between concurrent callers.
+ * A committed write makes later callers start a fresh read instead of joining one that may have missed the write.
+ */
+@Component
+public class PersonReadCoalescer implements PersonChangeListener, MeterBinder {
+
+    public static final String METRIC = "person.single.flight.calls";
+    public static final String FIND_ALL_BY_NAME = "findAllByName";
+
+    private final boolean enabled;
+    private final SingleFlight<List<Object>, List<Person>> byName = new SingleFlight<>();
+
+    @Autowired
+    public PersonReadCoalescer(@Value("${person.single-flight.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * <p>
+     * Name searches ignore case, so terms are keyed lower cased; the match must already be resolved.
+     * </p>
+     *
+     * @return Search result, shared between the coalesced callers.
+     */
+    public List<Person> findAllByName(final String firstName, final String lastName, final NameMatch match,
+                                      final Supplier<List<Person>> read) {
+        if (!enabled) {
+            return read.get();
+        }
+        return byName.execute(Arrays.asList(Person.lower(firstName), Person.lower(lastName), match), read);
+    }
+
+    @Override
+    public void saved(final Person person) {
+        byName.forgetAll();
+    }
+
+    @Override
+    public void deleted(final Long id) {
+        byName.forgetAll();
+    }
+
+    @Override
+    public void loaded(final Person person) {
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        FunctionCounter.builder(METRIC, byName, SingleFlight::executed)
+                .description("Reads that ran against the database")
+                .tags("operation", FIND_ALL_BY_NAME, "result", "executed")
+                .register(registry);
+        FunctionCounter.builder(METRIC, byName, SingleFlight::shared)
+                .description("Reads that joined an identical read in flight instead of running")
+                .tags("operation", FIND_ALL_BY_NAME, "result", "shared")
+                .register(registry);
+    }
+}
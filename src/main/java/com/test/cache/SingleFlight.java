@@ -0,0 +1,97 @@
+package com.test.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls with equal keys: the first caller runs the call, callers arriving while it is in flight
+ * wait for and share its result or exception. Nothing is kept once the call completes, the next caller runs it again.
+ * <p>
+ * Keys must implement equals and hashCode. Shared results are handed to several threads and must not be mutated.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> flights = new ConcurrentHashMap<>();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder shared = new LongAdder();
+
+    /**
+     * <p>
+     * Run the call, or join the call already in flight for an equal key.
+     * </p>
+     *
+     * @param key  Normalised arguments of the call.
+     * @param call Call to run when none is in flight.
+     * @return Result of this or the joined call.
+     */
+    public V execute(final K key, final Supplier<V> call) {
+        final CompletableFuture<V> flight = new CompletableFuture<>();
+        final CompletableFuture<V> inFlight = flights.putIfAbsent(key, flight);
+        if (inFlight != null) {
+            shared.increment();
+            return await(inFlight);
+        }
+        executed.increment();
+        final V value;
+        try {
+            value = call.get();
+        } catch (RuntimeException | Error e) {
+            flights.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+        // removed before completing, so a caller arriving after the result is out starts a fresh call
+        flights.remove(key, flight);
+        flight.complete(value);
+        return value;
+    }
+
+    /**
+     * <p>
+     * Make callers arriving from now on start a fresh call instead of joining the one in flight, e.g. after a write
+     * the in-flight read may not see.
+     * </p>
+     *
+     * @param key Normalised arguments of the call.
+     */
+    public void forget(final K key) {
+        flights.remove(key);
+    }
+
+    public void forgetAll() {
+        flights.clear();
+    }
+
+    /**
+     * Calls that ran.
+     */
+    public long executed() {
+        return executed.sum();
+    }
+
+    /**
+     * Calls that joined a call in flight instead of running, i.e. the calls saved.
+     */
+    public long shared() {
+        return shared.sum();
+    }
+
+    private static <V> V await(final CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+}
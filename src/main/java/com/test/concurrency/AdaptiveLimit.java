@@ -0,0 +1,133 @@
+package com.test.concurrency;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency limit that adapts to observed latency, additive increase and multiplicative decrease.
+ * <p>
+ * Every response faster than the latency target raises the limit by one over the limit while at least half of it is
+ * in use, so the limit grows by one per limit's worth of fast responses, about one per round trip, and an idle limit
+ * does not grow without ever being tested. A response slower than the target multiplies the limit by the
+ * backoff, unless its request started before the previous backoff: the requests that queued behind the same stall all
+ * report it, and should only count once.
+ * <p>
+ * Acquiring is a compare-and-set on the number of requests in flight, updating the limit takes a lock.
+ */
+public class AdaptiveLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyTargetNanos;
+    private final double backoff;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final Object lock = new Object();
+
+    private volatile int limit;
+    private double estimate;
+    private boolean backedOff;
+    private long lastBackoffNanos;
+
+    /**
+     * @param initialLimit  Limit until the first samples arrive.
+     * @param minLimit      The limit never drops below, at least 1.
+     * @param maxLimit      The limit never grows beyond.
+     * @param latencyTarget Responses slower than this lower the limit.
+     * @param backoff       Factor between 0 and 1 applied to the limit on a slow response.
+     */
+    public AdaptiveLimit(final int initialLimit, final int minLimit, final int maxLimit, final Duration latencyTarget,
+                         final double backoff) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Expected 1 <= min <= initial <= max limit, got " + minLimit + " <= "
+                    + initialLimit + " <= " + maxLimit);
+        }
+        if (backoff <= 0 || backoff >= 1) {
+            throw new IllegalArgumentException("Backoff must be between 0 and 1, got " + backoff);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTargetNanos = latencyTarget.toNanos();
+        this.backoff = backoff;
+        this.limit = initialLimit;
+        this.estimate = initialLimit;
+    }
+
+    /**
+     * @return true when the caller may proceed and must call {@link #release}, false when it is over the limit.
+     */
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= limit) {
+                rejected.increment();
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        admitted.increment();
+        return true;
+    }
+
+    /**
+     * Releases without a latency sample, for calls whose duration says nothing about load, e.g. a bulk export.
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * @param latencyNanos Time between {@link #tryAcquire} and the response.
+     */
+    public void release(final long latencyNanos) {
+        final int active = inFlight.getAndDecrement();
+        synchronized (lock) {
+            final long now = System.nanoTime();
+            if (latencyNanos > latencyTargetNanos) {
+                if (!backedOff || now - lastBackoffNanos >= latencyNanos) {
+                    estimate = Math.max(minLimit, estimate * backoff);
+                    backedOff = true;
+                    lastBackoffNanos = now;
+                }
+            } else if (active * 2 >= limit) {
+                estimate = Math.min(maxLimit, estimate + 1.0 / estimate);
+            }
+            limit = (int) estimate;
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(limit, inFlight.get(), minLimit, maxLimit, latencyTargetNanos / 1_000_000.0,
+                admitted.sum(), rejected.sum());
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class Snapshot {
+
+        private final int limit;
+        private final int inFlight;
+        private final int minLimit;
+        private final int maxLimit;
+        private final double latencyTargetMillis;
+        private final long admitted;
+        private final long rejected;
+    }
+}
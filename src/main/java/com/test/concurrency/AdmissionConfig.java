@@ -0,0 +1,66 @@
+package com.test.concurrency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * <code>person.admission.enabled=true</code>: sheds <code>/persons</code> requests beyond an adaptive concurrency
+ * limit, see {@link AdmissionFilter}. Each of <code>read</code>, <code>write</code> and <code>search</code> has its
+ * own <code>limit</code> to start from, <code>max-limit</code> and <code>latency-target</code>.
+ */
+@Configuration
+@ConditionalOnProperty(name = "person.admission.enabled", havingValue = "true", matchIfMissing = true)
+@Profile("!reactive")
+public class AdmissionConfig {
+
+    /**
+     * @param minLimit   The lowest any limit drops to under overload.
+     * @param backoff    Factor applied to a limit on a response slower than its latency target.
+     * @param retryAfter Sent as <code>Retry-After</code> with every rejection.
+     */
+    @Bean
+    public AdmissionFilter admissionFilter(ObjectMapper objectMapper,
+                                           @Value("${person.admission.min-limit:2}") int minLimit,
+                                           @Value("${person.admission.backoff:0.9}") double backoff,
+                                           @Value("${person.admission.retry-after:1s}") Duration retryAfter,
+                                           @Value("${person.admission.read.limit:100}") int readLimit,
+                                           @Value("${person.admission.read.max-limit:1000}") int readMaxLimit,
+                                           @Value("${person.admission.read.latency-target:100ms}") Duration readLatencyTarget,
+                                           @Value("${person.admission.write.limit:50}") int writeLimit,
+                                           @Value("${person.admission.write.max-limit:500}") int writeMaxLimit,
+                                           @Value("${person.admission.write.latency-target:250ms}") Duration writeLatencyTarget,
+                                           @Value("${person.admission.search.limit:20}") int searchLimit,
+                                           @Value("${person.admission.search.max-limit:200}") int searchMaxLimit,
+                                           @Value("${person.admission.search.latency-target:500ms}") Duration searchLatencyTarget) {
+        final Map<AdmissionFilter.Kind, AdaptiveLimit> limits = new EnumMap<>(AdmissionFilter.Kind.class);
+        limits.put(AdmissionFilter.Kind.READ, new AdaptiveLimit(readLimit, minLimit, readMaxLimit, readLatencyTarget, backoff));
+        limits.put(AdmissionFilter.Kind.WRITE, new AdaptiveLimit(writeLimit, minLimit, writeMaxLimit, writeLatencyTarget, backoff));
+        limits.put(AdmissionFilter.Kind.SEARCH, new AdaptiveLimit(searchLimit, minLimit, searchMaxLimit, searchLatencyTarget, backoff));
+        return new AdmissionFilter(limits, retryAfter, objectMapper);
+    }
+
+    /**
+     * Ahead of Spring Security, a shed request should not pay for checking its password.
+     */
+    @Bean
+    public FilterRegistrationBean<AdmissionFilter> admissionFilterRegistration(AdmissionFilter admissionFilter) {
+        final FilterRegistrationBean<AdmissionFilter> registration = new FilterRegistrationBean<>(admissionFilter);
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+
+    @Bean
+    public AdmissionEndpoint admissionEndpoint(AdmissionFilter admissionFilter) {
+        return new AdmissionEndpoint(admissionFilter);
+    }
+}
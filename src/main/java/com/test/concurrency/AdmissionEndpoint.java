@@ -0,0 +1,25 @@
+package com.test.concurrency;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint <code>/actuator/admission</code> with the current limit, requests in flight, admitted and
+ * rejected counts of reads, writes and searches.
+ */
+@Endpoint(id = "admission")
+public class AdmissionEndpoint {
+
+    private final AdmissionFilter admissionFilter;
+
+    public AdmissionEndpoint(AdmissionFilter admissionFilter) {
+        this.admissionFilter = admissionFilter;
+    }
+
+    @ReadOperation
+    public Map<String, AdaptiveLimit.Snapshot> admission() {
+        return admissionFilter.snapshot();
+    }
+}
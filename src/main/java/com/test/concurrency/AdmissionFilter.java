@@ -0,0 +1,196 @@
+package com.test.concurrency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.test.exception.ApiError;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+
+/**
+ * Admission control in front of <code>/persons</code>: reads, writes and searches each get an {@link AdaptiveLimit},
+ * requests over it are answered at once with a 503 and <code>Retry-After</code> instead of queueing in Tomcat. It runs
+ * ahead of authentication so that a rejection costs no password check.
+ * <p>
+ * Bulk endpoints take a permit like any other call but give no latency sample, their duration grows with the payload
+ * and not with the load. Neither do error responses: a 401 or a 503 of the connection pool limiter is fast however
+ * loaded the database is, only 2xx and 3xx responses tell how long the work took. Asynchronous requests, e.g. the export stream, hold their permit until they complete. The
+ * change stream is left out, it stays open for as long as its client wants and is bounded by its own limit.
+ */
+public class AdmissionFilter extends OncePerRequestFilter implements MeterBinder {
+
+    public static final String METRIC_PREFIX = "person.admission";
+
+    private static final String ROOT = "/persons";
+    private static final Set<String> BULK = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "/batch", "/import", "/export", "/bulk-delete", "/bulk-update")));
+    private static final String CHANGE_STREAM = ROOT + "/changes/stream";
+
+    public enum Kind {
+        READ, WRITE, SEARCH
+    }
+
+    private final Map<Kind, AdaptiveLimit> limits;
+    private final String retryAfter;
+    private final ObjectMapper objectMapper;
+
+    public AdmissionFilter(final Map<Kind, AdaptiveLimit> limits, final Duration retryAfter,
+                           final ObjectMapper objectMapper) {
+        this.limits = new EnumMap<>(limits);
+        if (!this.limits.keySet().containsAll(Arrays.asList(Kind.values()))) {
+            throw new IllegalArgumentException("Expected a limit for each of " + Arrays.toString(Kind.values()));
+        }
+        // Retry-After takes whole seconds
+        this.retryAfter = String.valueOf(Math.max(1, (retryAfter.toMillis() + 999) / 1000));
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(final HttpServletRequest request) {
+        final String path = path(request);
+        return !path.equals(ROOT) && !path.startsWith(ROOT + "/") || path.equals(CHANGE_STREAM);
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+                                    final FilterChain chain) throws ServletException, IOException {
+        final String subPath = path(request).substring(ROOT.length());
+        final Kind kind = kind(request.getMethod(), subPath);
+        final AdaptiveLimit limit = limits.get(kind);
+        if (!limit.tryAcquire()) {
+            reject(response, kind);
+            return;
+        }
+        final boolean sampled = !BULK.contains(subPath);
+        final long start = System.nanoTime();
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            async = request.isAsyncStarted();
+        } finally {
+            if (async) {
+                request.getAsyncContext().addListener(new Release(limit));
+            } else if (sampled && response.getStatus() < 400) {
+                limit.release(System.nanoTime() - start);
+            } else {
+                limit.release();
+            }
+        }
+    }
+
+    static Kind kind(final String method, final String subPath) {
+        if (subPath.equals("/search") || subPath.startsWith("/search/")) {
+            return Kind.SEARCH;
+        }
+        if (HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method) || subPath.equals("/lookup")) {
+            return Kind.READ;
+        }
+        return Kind.WRITE;
+    }
+
+    private void reject(final HttpServletResponse response, final Kind kind) throws IOException {
+        response.setStatus(SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfter);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ApiError(SERVICE_UNAVAILABLE,
+                "Too many concurrent " + name(kind) + " requests, retry later.", "admission"));
+    }
+
+    private static String path(final HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private static String name(final Kind kind) {
+        return kind.name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return Snapshot of each limit, keyed by <code>read</code>, <code>write</code> and <code>search</code>.
+     */
+    public Map<String, AdaptiveLimit.Snapshot> snapshot() {
+        final Map<String, AdaptiveLimit.Snapshot> snapshot = new LinkedHashMap<>();
+        limits.forEach((kind, limit) -> snapshot.put(name(kind), limit.snapshot()));
+        return snapshot;
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        limits.forEach((kind, limit) -> {
+            Gauge.builder(METRIC_PREFIX + ".limit", limit, AdaptiveLimit::getLimit)
+                    .description("Current concurrency limit")
+                    .tag("kind", name(kind))
+                    .register(registry);
+            Gauge.builder(METRIC_PREFIX + ".active", limit, AdaptiveLimit::getInFlight)
+                    .description("Requests holding a permit")
+                    .tag("kind", name(kind))
+                    .register(registry);
+            FunctionCounter.builder(METRIC_PREFIX + ".rejected", limit, AdaptiveLimit::getRejected)
+                    .description("Requests rejected with 503 because the limit was reached")
+                    .tag("kind", name(kind))
+                    .register(registry);
+        });
+    }
+
+    /**
+     * Releases the permit of an asynchronous request once, whether it completes, fails or times out.
+     */
+    private static final class Release implements AsyncListener {
+
+        private final AdaptiveLimit limit;
+        private boolean released;
+
+        Release(final AdaptiveLimit limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public void onComplete(final AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(final AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(final AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(final AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+
+        private synchronized void release() {
+            if (!released) {
+                released = true;
+                limit.release();
+            }
+        }
+    }
+}
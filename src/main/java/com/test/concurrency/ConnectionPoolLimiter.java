@@ -0,0 +1,100 @@
+package com.test.concurrency;
+
+import com.test.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admits at most as many concurrent service calls as the datasource has connections.
+ * <p>
+ * With a thread per request there are never more callers than threads, with virtual threads there is no such bound
+ * and every caller would queue inside the connection pool until its timeout. Here a bounded number of callers waits
+ * a bounded time for a permit, the rest is rejected at once with a 503.
+ * <p>
+ * A permit is held for the whole service call, which is where transactions start and end. Service calls nested on the
+ * same thread, e.g. an import saving its chunks, run on the permit of the outer call.
+ */
+@Aspect
+public class ConnectionPoolLimiter implements MeterBinder {
+
+    public static final String METRIC_PREFIX = "person.database.limiter";
+
+    private final int permits;
+    private final int maxWaiting;
+    private final long maxWaitNanos;
+    private final Semaphore semaphore;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private final ThreadLocal<Boolean> holding = new ThreadLocal<>();
+
+    public ConnectionPoolLimiter(final int permits, final int maxWaiting, final Duration maxWait) {
+        if (permits < 1) {
+            throw new IllegalArgumentException("At least one database permit is needed, got " + permits);
+        }
+        this.permits = permits;
+        this.maxWaiting = maxWaiting;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.semaphore = new Semaphore(permits, true);
+    }
+
+    @Around("execution(public * com.test.service.impl..*(..))")
+    public Object limit(final ProceedingJoinPoint joinPoint) throws Throwable {
+        if (holding.get() != null) {
+            return joinPoint.proceed();
+        }
+        acquire(joinPoint.getSignature().getName());
+        holding.set(Boolean.TRUE);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            holding.remove();
+            semaphore.release();
+        }
+    }
+
+    private void acquire(final String source) throws InterruptedException {
+        if (semaphore.tryAcquire()) {
+            return;
+        }
+        if (waiting.incrementAndGet() > maxWaiting) {
+            waiting.decrementAndGet();
+            throw reject(source);
+        }
+        try {
+            if (!semaphore.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS)) {
+                throw reject(source);
+            }
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    private ServiceOverloadedException reject(final String source) {
+        rejected.increment();
+        return new ServiceOverloadedException("All " + permits + " database connections are busy, retry later.", source);
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        Gauge.builder(METRIC_PREFIX + ".active", semaphore, s -> permits - s.availablePermits())
+                .description("Service calls holding a database permit")
+                .register(registry);
+        Gauge.builder(METRIC_PREFIX + ".waiting", waiting, AtomicInteger::get)
+                .description("Service calls waiting for a database permit")
+                .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + ".rejected", rejected, LongAdder::sum)
+                .description("Service calls rejected because every database permit was taken")
+                .register(registry);
+    }
+}
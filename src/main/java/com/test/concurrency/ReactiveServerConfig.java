@@ -0,0 +1,22 @@
+package com.test.concurrency;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * <p>
+ * Serves the reactive profile on Netty's event loops. Tomcat stays on the classpath for the servlet stack and Boot
+ * would otherwise prefer it for WebFlux as well, keeping a thread per connection.
+ * </p>
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveServerConfig {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
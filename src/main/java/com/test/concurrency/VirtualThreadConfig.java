@@ -0,0 +1,71 @@
+package com.test.concurrency;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * <code>person.threads.virtual=true</code>: Tomcat serves every request, and with it every service call, on a new
+ * virtual thread instead of a pooled platform thread; asynchronous MVC work such as the export stream does too.
+ * Database access is bounded by {@link ConnectionPoolLimiter} instead of by the number of threads.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "person.threads.virtual", havingValue = "true")
+@Profile("!reactive")
+public class VirtualThreadConfig {
+
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("virtual-", 0).factory());
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(executor);
+    }
+
+    /**
+     * @param permits    Concurrent service calls, 0 for the maximum size of the connection pool.
+     * @param maxWaiting Calls allowed to wait for a permit, further calls are rejected at once.
+     * @param maxWait    How long a call waits for a permit before it is rejected.
+     */
+    @Bean
+    public ConnectionPoolLimiter connectionPoolLimiter(DataSource dataSource,
+                                                       @Value("${person.threads.database-permits:0}") int permits,
+                                                       @Value("${person.threads.database-max-waiting:1000}") int maxWaiting,
+                                                       @Value("${person.threads.database-max-wait:1s}") Duration maxWait) {
+        final int resolved = permits > 0 ? permits : poolSize(dataSource);
+        log.info("Serving requests on virtual threads, at most {} concurrent service calls.", resolved);
+        return new ConnectionPoolLimiter(resolved, maxWaiting, maxWait);
+    }
+
+    private static int poolSize(final DataSource dataSource) {
+        try {
+            final HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+            // the pool fills in its default size when it starts, which may not have happened yet
+            hikari.validate();
+            return hikari.getMaximumPoolSize();
+        } catch (Exception e) {
+            throw new IllegalStateException("Set person.threads.database-permits, the connection pool size of "
+                    + dataSource.getClass().getName() + " is unknown.", e);
+        }
+    }
+}
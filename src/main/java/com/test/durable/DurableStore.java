@@ -0,0 +1,345 @@
+package com.test.durable;
+
+import com.test.entity.Person;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <code>person.durable.enabled=true</code>: keeps the in-memory database across restarts with a periodic snapshot
+ * of the persons table plus the {@link PersonChangeLog} of every write since.
+ * <p>
+ * The restore runs while the application context starts, before the web server accepts requests. The log tail is
+ * folded in memory first, to the latest version of each id or its deletion, so that the snapshot and the tail go
+ * into the table in a single pass of batched inserts, with no lookups or updates. The secondary indexes are dropped
+ * for the load and built again afterwards, sorting each once is several times faster than inserting into all of them
+ * row by row.
+ * <p>
+ * A snapshot is read from the table while writes go on. It starts a new log segment first: a write committed before
+ * that is either read by the snapshot or logged in the new segment, and replaying a saved person only wins over the
+ * snapshot when its version is newer.
+ * <p>
+ * Ids are never handed out again: the snapshot records the next id of the generator, and the restore moves the
+ * generator past it and past every id in the log tail, deleted ones included.
+ * <p>
+ * The store reports down on the health endpoint while the log has {@link PersonChangeLog#hasLostChanges() lost
+ * changes}, a restart would not restore them until the next snapshot is written.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "person.durable.enabled", havingValue = "true")
+public class DurableStore implements SmartInitializingSingleton, HealthIndicator {
+
+    static final String SNAPSHOT = "persons.snapshot";
+    private static final String COLUMNS = "id, version, age, first_name, last_name, favourite_colour";
+    private static final String INSERT = "insert into persons (" + COLUMNS
+            + ", first_name_lower, last_name_lower) values (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String PAGE = "select " + COLUMNS + " from persons where id > ? order by id limit ?";
+    private static final String SECONDARY_INDEXES = "select distinct index_name, sql from information_schema.indexes"
+            + " where table_name = 'PERSONS' and primary_key = false and constraint_name is null";
+    private static final String NEXT_ID = "select next_val from person_id_block";
+    private static final int PAGE_SIZE = 10_000;
+    private static final int BATCH_SIZE = 1_000;
+    private static final int COMMIT_SIZE = 100_000;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final PersonChangeLog changeLog;
+    private final Path directory;
+    private final Object snapshotLock = new Object();
+    private volatile boolean replayedTail;
+
+    @Autowired
+    public DurableStore(DataSource dataSource, PersonChangeLog changeLog,
+                        @Value("${person.durable.directory:data}") String directory) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.changeLog = changeLog;
+        this.directory = Paths.get(directory);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            restore();
+        } catch (IOException | SQLException e) {
+            // starting empty would let the next snapshot overwrite the data that failed to load
+            throw new IllegalStateException("Failed to restore persons from " + directory.toAbsolutePath(), e);
+        }
+    }
+
+    private void restore() throws IOException, SQLException {
+        final long start = System.nanoTime();
+        Files.createDirectories(directory);
+        final Path snapshot = directory.resolve(SNAPSHOT);
+        final PersonSnapshot.Header header = Files.exists(snapshot) ? PersonSnapshot.header(snapshot) : null;
+        final long replayFrom = header == null ? 0 : header.getReplayFrom();
+        final Tail tail = new Tail();
+        final long lastSegment = PersonChangeLog.replay(directory, replayFrom, tail);
+        final Integer existing = jdbcTemplate.queryForObject("select count(*) from persons", Integer.class);
+        if (existing != null && existing > 0) {
+            log.warn("Not restoring from {}, the persons table already has {} rows.", directory.toAbsolutePath(), existing);
+        } else {
+            long fromSnapshot = 0;
+            final List<String> indexes = dropSecondaryIndexes();
+            try (Loader loader = new Loader(dataSource.getConnection())) {
+                if (Files.exists(snapshot)) {
+                    fromSnapshot = PersonSnapshot.read(snapshot, person -> loader.add(tail.merge(person))).getCount();
+                }
+                for (Person person : tail.remaining()) {
+                    loader.add(person);
+                }
+                loader.finish();
+                advanceIds(Math.max(Math.max(loader.maxId, tail.maxId), header == null ? 0 : header.getNextId() - 1));
+                final long loaded = System.nanoTime();
+                indexes.forEach(jdbcTemplate::execute);
+                log.info("Restored {} persons from {} persons in the snapshot and {} logged changes in {} ms, {} ms of"
+                                + " it building {} indexes.", loader.loaded, fromSnapshot, tail.changes,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - loaded), indexes.size());
+            }
+            replayedTail = tail.changes > 0;
+        }
+        changeLog.open(Math.max(lastSegment, replayFrom - 1) + 1);
+    }
+
+    /**
+     * @return Statements creating the dropped indexes again.
+     */
+    private List<String> dropSecondaryIndexes() {
+        final List<String> create = new ArrayList<>();
+        for (Map<String, Object> index : jdbcTemplate.queryForList(SECONDARY_INDEXES)) {
+            jdbcTemplate.execute("drop index \"" + index.get("INDEX_NAME") + "\"");
+            create.add((String) index.get("SQL"));
+        }
+        return create;
+    }
+
+    /**
+     * Moves the id block table past the given id, the generators reserve their next block from there.
+     */
+    private void advanceIds(final long maxId) {
+        if (maxId > 0) {
+            jdbcTemplate.update("update person_id_block set next_val = ? where next_val <= ?", maxId + 1, maxId);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${person.durable.snapshot-interval:PT10M}",
+            fixedDelayString = "${person.durable.snapshot-interval:PT10M}")
+    public void scheduledSnapshot() {
+        try {
+            snapshot();
+        } catch (Exception e) {
+            log.error("Failed to write snapshot to {}. Exception:: ", directory.toAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * Writes a new snapshot unless nothing changed since the last one, then deletes the log segments it contains.
+     *
+     * @return Whether a snapshot was written.
+     * @throws IOException When the snapshot can't be written, the previous one is kept then.
+     */
+    public boolean snapshot() throws IOException {
+        synchronized (snapshotLock) {
+            final Path snapshot = directory.resolve(SNAPSHOT);
+            if (!changeLog.hasChanges() && !replayedTail && Files.exists(snapshot)) {
+                return false;
+            }
+            final long start = System.nanoTime();
+            final long replayFrom = changeLog.rotate();
+            // ids reserved after this are logged in the new segment
+            final Long nextId = jdbcTemplate.queryForObject(NEXT_ID, Long.class);
+            final Path temporary = directory.resolve(SNAPSHOT + ".tmp");
+            final long count;
+            try (PersonSnapshot.Writer writer = new PersonSnapshot.Writer(temporary, replayFrom,
+                    nextId == null ? 0 : nextId)) {
+                long after = Long.MIN_VALUE;
+                while (true) {
+                    final List<Person> page = jdbcTemplate.query(PAGE, (rs, row) -> person(rs), after, PAGE_SIZE);
+                    for (Person person : page) {
+                        writer.write(person);
+                    }
+                    if (page.size() < PAGE_SIZE) {
+                        break;
+                    }
+                    after = page.get(page.size() - 1).getId();
+                }
+                count = writer.getCount();
+            }
+            Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            changeLog.deleteBefore(replayFrom);
+            replayedTail = false;
+            log.info("Wrote snapshot of {} persons in {} ms.", count,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return true;
+        }
+    }
+
+    @Override
+    public Health health() {
+        if (changeLog.hasLostChanges()) {
+            return Health.down()
+                    .withDetail("reason", "Changes failed to be logged, they are lost on restart until the next snapshot.")
+                    .build();
+        }
+        return Health.up().build();
+    }
+
+    private static Person person(final ResultSet rs) throws SQLException {
+        final Person person = new Person();
+        person.setId(rs.getLong(1));
+        person.setVersion(rs.getLong(2));
+        person.setAge(rs.getInt(3));
+        person.setFirstName(rs.getString(4));
+        person.setLastName(rs.getString(5));
+        person.setFavouriteColour(rs.getString(6));
+        return person;
+    }
+
+    /**
+     * Log records since the snapshot, folded to the newest version of each saved id and the set of deleted ids. Ids
+     * are never reused, so a deletion is final whatever the order its record was logged in.
+     */
+    private static final class Tail implements PersonChangeLog.Replay {
+
+        private final Map<Long, Person> saved = new HashMap<>();
+        private final Set<Long> deleted = new HashSet<>();
+        private long changes;
+        private long maxId;
+
+        @Override
+        public void saved(final Person person) {
+            changes++;
+            maxId = Math.max(maxId, person.getId());
+            if (deleted.contains(person.getId())) {
+                return;
+            }
+            final Person previous = saved.get(person.getId());
+            if (previous == null || previous.getVersion() < person.getVersion()) {
+                saved.put(person.getId(), person);
+            }
+        }
+
+        @Override
+        public void deleted(final long id) {
+            changes++;
+            maxId = Math.max(maxId, id);
+            deleted.add(id);
+            saved.remove(id);
+        }
+
+        /**
+         * @return The person to restore for a snapshot row, null when it was deleted since.
+         */
+        Person merge(final Person fromSnapshot) {
+            if (deleted.contains(fromSnapshot.getId())) {
+                return null;
+            }
+            final Person logged = saved.remove(fromSnapshot.getId());
+            return logged != null && logged.getVersion() > fromSnapshot.getVersion() ? logged : fromSnapshot;
+        }
+
+        /**
+         * @return Persons saved since the snapshot that it does not contain, in id order.
+         */
+        List<Person> remaining() {
+            final List<Person> remaining = new ArrayList<>(saved.values());
+            remaining.sort(Comparator.comparing(Person::getId));
+            return remaining;
+        }
+    }
+
+    /**
+     * Batched inserts on one connection, committed every {@value #COMMIT_SIZE} rows.
+     */
+    private static final class Loader implements AutoCloseable {
+
+        private final Connection connection;
+        private final PreparedStatement insert;
+        private long loaded;
+        private long maxId;
+        private int batched;
+
+        private Loader(final Connection connection) throws SQLException {
+            this.connection = connection;
+            connection.setAutoCommit(false);
+            this.insert = connection.prepareStatement(INSERT);
+        }
+
+        void add(final Person person) {
+            if (person == null) {
+                return;
+            }
+            try {
+                insert.setLong(1, person.getId());
+                insert.setLong(2, person.getVersion());
+                insert.setInt(3, person.getAge());
+                insert.setString(4, person.getFirstName());
+                insert.setString(5, person.getLastName());
+                insert.setString(6, person.getFavouriteColour());
+                insert.setString(7, person.getFirstNameLower());
+                insert.setString(8, person.getLastNameLower());
+                insert.addBatch();
+            } catch (SQLException e) {
+                throw new IllegalStateException("Failed to restore person " + person.getId(), e);
+            }
+            loaded++;
+            maxId = Math.max(maxId, person.getId());
+            if (++batched % BATCH_SIZE == 0) {
+                flush(batched % COMMIT_SIZE == 0);
+            }
+        }
+
+        void finish() {
+            flush(true);
+        }
+
+        private void flush(final boolean commit) {
+            try {
+                insert.executeBatch();
+                if (commit) {
+                    connection.commit();
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException("Failed to restore persons after " + loaded + " rows", e);
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                insert.close();
+            } finally {
+                connection.setAutoCommit(true);
+                connection.close();
+            }
+        }
+    }
+}
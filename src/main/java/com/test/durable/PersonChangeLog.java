@@ -0,0 +1,317 @@
+package com.test.durable;
+
+import com.test.entity.Person;
+import com.test.service.PersonChangeListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of every committed write, in numbered segment files next to the snapshot. Each record is framed by
+ * its length and a CRC32, so a record torn by a crash ends the replay of its segment instead of corrupting it.
+ * <p>
+ * A record is handed to the operating system before the write returns, so it survives the process; it reaches the
+ * disk with the next {@link #sync()}. A snapshot starts a new segment, and once written, deletes the ones it
+ * contains.
+ * <p>
+ * A change that fails to be logged or synced is still in the table but would be lost by a restart. The log reports
+ * {@link #hasLostChanges() lost changes} until a snapshot started after the failure is written.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "person.durable.enabled", havingValue = "true")
+public class PersonChangeLog implements PersonChangeListener {
+
+    static final byte SAVED = 1;
+    static final byte DELETED = 2;
+    private static final int FRAME = Integer.BYTES * 2;
+    private static final int MAX_PAYLOAD = 1 + PersonRecord.MAX_SIZE;
+    private static final String PREFIX = "changes-";
+    private static final String SUFFIX = ".log";
+    private static final long NONE = -1;
+
+    /**
+     * Receives the records of {@link #replay} in log order.
+     */
+    interface Replay {
+
+        void saved(Person person);
+
+        void deleted(long id);
+    }
+
+    private final Path directory;
+    private final ByteBuffer buffer = ByteBuffer.allocate(FRAME + MAX_PAYLOAD);
+    private final CRC32 crc = new CRC32();
+    private final Object lock = new Object();
+    private FileChannel channel;
+    private long segment = -1;
+    private long appended;
+    private boolean dirty;
+    /**
+     * Last segment a change failed to be logged in, {@value #NONE} when every change since the snapshot is logged.
+     */
+    private long lostIn = NONE;
+
+    @Autowired
+    public PersonChangeLog(@Value("${person.durable.directory:data}") String directory) {
+        this.directory = Paths.get(directory);
+    }
+
+    /**
+     * Starts appending to a new segment.
+     *
+     * @param segment Number of the segment, higher than any on disk.
+     * @throws IOException When the segment can't be created.
+     */
+    void open(final long segment) throws IOException {
+        synchronized (lock) {
+            if (channel != null) {
+                throw new IllegalStateException("Change log is already appending to segment " + this.segment);
+            }
+            channel = FileChannel.open(file(directory, segment), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            this.segment = segment;
+            appended = 0;
+        }
+    }
+
+    /**
+     * Closes the current segment and starts the next one.
+     *
+     * @return Number of the new segment, the first one a snapshot taken from now on does not contain.
+     * @throws IOException When the current segment can't be closed or the next one created.
+     */
+    long rotate() throws IOException {
+        synchronized (lock) {
+            closeSegment();
+            open(segment + 1);
+            return segment;
+        }
+    }
+
+    /**
+     * @return Whether anything was appended since the last {@link #open} or {@link #rotate}, or failed to be.
+     */
+    boolean hasChanges() {
+        synchronized (lock) {
+            return appended > 0 || lostIn != NONE;
+        }
+    }
+
+    /**
+     * @return Whether a change failed to be logged since the last snapshot, a restart would not restore it.
+     */
+    public boolean hasLostChanges() {
+        synchronized (lock) {
+            return lostIn != NONE;
+        }
+    }
+
+    /**
+     * Deletes the segments before the given one, once a snapshot contains them. Changes that failed to be logged in
+     * them are in the snapshot too.
+     */
+    void deleteBefore(final long segment) throws IOException {
+        synchronized (lock) {
+            if (lostIn < segment) {
+                lostIn = NONE;
+            }
+        }
+        for (Path file : segments(directory)) {
+            if (number(file) < segment) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Override
+    public void saved(final Person person) {
+        synchronized (lock) {
+            buffer.clear();
+            buffer.position(FRAME);
+            buffer.put(SAVED);
+            PersonRecord.write(buffer, person);
+            append("save of person " + person.getId());
+        }
+    }
+
+    @Override
+    public void deleted(final Long id) {
+        synchronized (lock) {
+            buffer.clear();
+            buffer.position(FRAME);
+            buffer.put(DELETED);
+            buffer.putLong(id);
+            append("delete of person " + id);
+        }
+    }
+
+    @Override
+    public void loaded(final Person person) {
+        // rows found at start-up are in the snapshot or the log already
+    }
+
+    private void append(final String change) {
+        if (channel == null) {
+            log.error("Failed to log {}, the change log is not open.", change);
+            lost();
+            return;
+        }
+        final int length = buffer.position() - FRAME;
+        crc.reset();
+        crc.update(buffer.array(), FRAME, length);
+        buffer.putInt(0, length);
+        buffer.putInt(Integer.BYTES, (int) crc.getValue());
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            appended++;
+            dirty = true;
+        } catch (IOException e) {
+            log.error("Failed to log {} to segment {}. Exception:: ", change, segment, e);
+            lost();
+        }
+    }
+
+    /**
+     * Forces the records appended since the last call to disk.
+     */
+    @Scheduled(fixedDelayString = "${person.durable.sync-interval:PT1S}")
+    public void sync() {
+        synchronized (lock) {
+            if (channel == null || !dirty) {
+                return;
+            }
+            try {
+                channel.force(false);
+                dirty = false;
+            } catch (IOException e) {
+                log.error("Failed to sync change log segment {}. Exception:: ", segment, e);
+                lost();
+            }
+        }
+    }
+
+    private void lost() {
+        lostIn = Math.max(segment, 0);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        synchronized (lock) {
+            closeSegment();
+        }
+    }
+
+    private void closeSegment() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.force(false);
+        } finally {
+            channel.close();
+            channel = null;
+            dirty = false;
+        }
+    }
+
+    /**
+     * Reads every record of the segments from the given one on, in order.
+     *
+     * @return Number of the last segment on disk, -1 when there is none.
+     * @throws IOException When a segment can't be read.
+     */
+    static long replay(final Path directory, final long from, final Replay replay) throws IOException {
+        long last = -1;
+        for (Path file : segments(directory)) {
+            final long number = number(file);
+            last = number;
+            if (number >= from) {
+                replaySegment(file, replay);
+            }
+        }
+        return last;
+    }
+
+    private static void replaySegment(final Path file, final Replay replay) throws IOException {
+        final CRC32 crc = new CRC32();
+        final byte[] payload = new byte[MAX_PAYLOAD];
+        long records = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            while (true) {
+                final int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    return;
+                }
+                final int checksum = in.readInt();
+                if (length < 1 || length > MAX_PAYLOAD) {
+                    throw new EOFException("record length " + length);
+                }
+                in.readFully(payload, 0, length);
+                crc.reset();
+                crc.update(payload, 0, length);
+                if ((int) crc.getValue() != checksum) {
+                    throw new EOFException("checksum mismatch");
+                }
+                final ByteBuffer record = ByteBuffer.wrap(payload, 1, length - 1);
+                if (payload[0] == SAVED) {
+                    replay.saved(PersonRecord.read(record));
+                } else if (payload[0] == DELETED) {
+                    replay.deleted(record.getLong());
+                } else {
+                    throw new EOFException("record type " + payload[0]);
+                }
+                records++;
+            }
+        } catch (EOFException e) {
+            log.warn("Change log {} ends with a torn record after {} records ({}), the rest is ignored.", file,
+                    records, e.getMessage());
+        }
+    }
+
+    private static List<Path> segments(final Path directory) throws IOException {
+        final List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            files.forEach(segments::add);
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    private static Path file(final Path directory, final long segment) {
+        return directory.resolve(String.format("%s%019d%s", PREFIX, segment, SUFFIX));
+    }
+
+    private static long number(final Path file) {
+        final String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+}
@@ -0,0 +1,65 @@
+package com.test.durable;
+
+import com.test.entity.Person;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary layout of one person in snapshots and in the change log: id, version, age, then first name, last name and
+ * favourite colour as UTF-8 with an unsigned short length. Lower cased names are not stored, they are derived.
+ */
+final class PersonRecord {
+
+    private static final int MAX_STRING = 0xFFFF;
+
+    /**
+     * Upper bound of an encoded person.
+     */
+    static final int MAX_SIZE = Long.BYTES * 2 + Integer.BYTES + 3 * (Short.BYTES + MAX_STRING);
+
+    private PersonRecord() {
+    }
+
+    static void write(final ByteBuffer buffer, final Person person) {
+        buffer.putLong(person.getId());
+        buffer.putLong(person.getVersion() == null ? 0 : person.getVersion());
+        buffer.putInt(person.getAge());
+        putString(buffer, person.getFirstName());
+        putString(buffer, person.getLastName());
+        putString(buffer, person.getFavouriteColour());
+    }
+
+    static Person read(final ByteBuffer buffer) {
+        final Person person = new Person();
+        person.setId(buffer.getLong());
+        person.setVersion(buffer.getLong());
+        person.setAge(buffer.getInt());
+        person.setFirstName(getString(buffer));
+        person.setLastName(getString(buffer));
+        person.setFavouriteColour(getString(buffer));
+        return person;
+    }
+
+    private static void putString(final ByteBuffer buffer, final String value) {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING) {
+            throw new IllegalArgumentException("Can't store a name of " + bytes.length + " bytes, at most " + MAX_STRING);
+        }
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(final ByteBuffer buffer) {
+        final int length = Short.toUnsignedInt(buffer.getShort());
+        if (buffer.hasArray()) {
+            final String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                    StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+            return value;
+        }
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,179 @@
+package com.test.durable;
+
+import com.test.entity.Person;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Snapshot file of the persons table: a header with the first change log segment not contained in it, the number of
+ * persons and the next id of the id generator, then the persons in id order as {@link PersonRecord}s. Format 1
+ * snapshots have no next id and are still read.
+ * <p>
+ * Reading maps the file in windows instead of copying it through a stream, so a restore costs one pass over the page
+ * cache; a window is moved on once less than a record is left in it.
+ */
+final class PersonSnapshot {
+
+    private static final int MAGIC = 0x50534E31;
+    private static final int FORMAT = 2;
+    private static final int FORMAT_WITHOUT_NEXT_ID = 1;
+    static final int HEADER_SIZE = Integer.BYTES * 2 + Long.BYTES * 3;
+    private static final long WINDOW = 64L << 20;
+    private static final int WRITE_BUFFER = 1 << 20;
+
+    private PersonSnapshot() {
+    }
+
+    static final class Header {
+
+        private final long replayFrom;
+        private final long count;
+        private final long nextId;
+
+        private Header(final long replayFrom, final long count, final long nextId) {
+            this.replayFrom = replayFrom;
+            this.count = count;
+            this.nextId = nextId;
+        }
+
+        /**
+         * @return First change log segment to replay on top of the snapshot.
+         */
+        long getReplayFrom() {
+            return replayFrom;
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        /**
+         * @return Next id of the generator when the snapshot was taken, ids below it may belong to deleted persons.
+         */
+        long getNextId() {
+            return nextId;
+        }
+    }
+
+    /**
+     * Streams a snapshot into a file; the header is completed and the file forced to disk on {@link #close()}.
+     */
+    static final class Writer implements Closeable {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER);
+        private final long replayFrom;
+        private final long nextId;
+        private long count;
+
+        Writer(final Path file, final long replayFrom, final long nextId) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE);
+            this.replayFrom = replayFrom;
+            this.nextId = nextId;
+            header(buffer, replayFrom, 0, nextId);
+        }
+
+        void write(final Person person) throws IOException {
+            if (buffer.remaining() < PersonRecord.MAX_SIZE) {
+                drain();
+            }
+            PersonRecord.write(buffer, person);
+            count++;
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                drain();
+                final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header(header, replayFrom, count, nextId);
+                header.flip();
+                channel.write(header, 0);
+                channel.force(true);
+            } finally {
+                channel.close();
+            }
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    private static void header(final ByteBuffer buffer, final long replayFrom, final long count, final long nextId) {
+        buffer.putInt(MAGIC);
+        buffer.putInt(FORMAT);
+        buffer.putLong(replayFrom);
+        buffer.putLong(count);
+        buffer.putLong(nextId);
+    }
+
+    /**
+     * @return Header of the snapshot, without reading its persons.
+     * @throws IOException When the file can't be read or isn't a snapshot.
+     */
+    static Header header(final Path file) throws IOException {
+        return read(file, null);
+    }
+
+    /**
+     * @param consumer Called with every person of the snapshot, in id order; null to only read the header.
+     * @return Header of the snapshot.
+     * @throws IOException When the file can't be read, isn't a snapshot or has fewer persons than its header says.
+     */
+    static Header read(final Path file, final Consumer<Person> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size < HEADER_SIZE - Long.BYTES) {
+                throw new IOException("Snapshot " + file + " is too short for its header.");
+            }
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, WINDOW));
+            final int format = window.getInt() == MAGIC ? window.getInt() : -1;
+            if (format != FORMAT && format != FORMAT_WITHOUT_NEXT_ID) {
+                throw new IOException(file + " is not a person snapshot of format " + FORMAT + ".");
+            }
+            final long replayFrom = window.getLong();
+            final long count = window.getLong();
+            if (format == FORMAT && window.remaining() < Long.BYTES) {
+                throw new IOException("Snapshot " + file + " is too short for its header.");
+            }
+            final Header header = new Header(replayFrom, count, format == FORMAT ? window.getLong() : 0);
+            if (consumer == null) {
+                return header;
+            }
+            long offset = 0;
+            for (long read = 0; read < header.count; read++) {
+                if (window.remaining() < PersonRecord.MAX_SIZE && offset + window.limit() < size) {
+                    offset += window.position();
+                    window = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(size - offset, WINDOW));
+                }
+                final Person person;
+                try {
+                    person = PersonRecord.read(window);
+                } catch (BufferUnderflowException e) {
+                    throw new IOException("Snapshot " + file + " ends after " + read + " of " + header.count
+                            + " persons.", e);
+                }
+                consumer.accept(person);
+            }
+            return header;
+        }
+    }
+}
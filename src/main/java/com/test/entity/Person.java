@@ -1,22 +1,39 @@
 package com.test.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import java.io.Serializable;
+import java.util.Locale;
 
 @Entity
-@Table(name = "persons")
+@Table(name = "persons", indexes = {
+        @Index(name = "idx_persons_first_name_id", columnList = "first_name, id"),
+        @Index(name = "idx_persons_last_name_id", columnList = "last_name, id"),
+        @Index(name = "idx_persons_age_id", columnList = "age, id"),
+        @Index(name = "idx_persons_first_name_lower_id", columnList = "first_name_lower, id"),
+        @Index(name = "idx_persons_last_name_lower_id", columnList = "last_name_lower, id")})
 @Data
 public class Person implements Serializable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(generator = "person_id")
+    @GenericGenerator(name = "person_id", strategy = "com.test.id.BlockIdGenerator",
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "person_id_block"))
     private Long id;
 
     @Column(name = "first_name", nullable = false)
@@ -29,4 +46,48 @@ public class Person implements Serializable {
 
     @Column(name = "favourite_colour", nullable = false)
     private String favouriteColour;
+
+    @Version
+    private Long version;
+
+    /**
+     * Lower cased first name, kept in step with {@link #firstName} so case insensitive searches can use an index.
+     */
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    @Column(name = "first_name_lower", nullable = false)
+    private String firstNameLower;
+
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    @Column(name = "last_name_lower", nullable = false)
+    private String lastNameLower;
+
+    public void setFirstName(final String firstName) {
+        this.firstName = firstName;
+        this.firstNameLower = lower(firstName);
+    }
+
+    public void setLastName(final String lastName) {
+        this.lastName = lastName;
+        this.lastNameLower = lower(lastName);
+    }
+
+    @PrePersist
+    @PreUpdate
+    void normalize() {
+        firstNameLower = lower(firstName);
+        lastNameLower = lower(lastName);
+    }
+
+    public static String lower(final String name) {
+        return name == null ? null : name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return Version of the person, 0 when it has none yet.
+     */
+    public static long version(final Person person) {
+        return person.getVersion() == null ? 0 : person.getVersion();
+    }
 }
@@ -0,0 +1,16 @@
+package com.test.exception;
+
+import org.springframework.lang.NonNull;
+
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+/**
+ * Expected result of a lookup for an id that does not exist. It carries no stack trace, so answering a 404 costs
+ * no more than the lookup itself.
+ */
+public class PersonNotFoundException extends PersonServiceException {
+
+    public PersonNotFoundException(@NonNull Long id, @NonNull String source) {
+        super("No person found with id " + id, NOT_FOUND, source, false);
+    }
+}
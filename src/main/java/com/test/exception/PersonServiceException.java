@@ -39,4 +39,12 @@ public class PersonServiceException extends RuntimeException {
         this.source = source;
         this.message = message;
     }
+
+    protected PersonServiceException(@NonNull String message, @NonNull HttpStatus code, @NonNull String source,
+                                     boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+        this.code = code;
+        this.source = source;
+        this.message = message;
+    }
 }
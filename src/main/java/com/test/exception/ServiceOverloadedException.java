@@ -0,0 +1,16 @@
+package com.test.exception;
+
+import org.springframework.lang.NonNull;
+
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+
+/**
+ * Call shed because the service is at its concurrency limit. Like {@link PersonNotFoundException} it carries no stack
+ * trace, rejecting is meant to be cheaper than serving.
+ */
+public class ServiceOverloadedException extends PersonServiceException {
+
+    public ServiceOverloadedException(@NonNull String message, @NonNull String source) {
+        super(message, SERVICE_UNAVAILABLE, source, false);
+    }
+}
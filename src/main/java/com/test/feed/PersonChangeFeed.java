@@ -0,0 +1,456 @@
+package com.test.feed;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.test.entity.Person;
+import com.test.exception.PersonServiceException;
+import com.test.response.PersonChange;
+import com.test.response.PersonChangePage;
+import com.test.service.PersonChangeListener;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.GONE;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+
+/**
+ * Sequence numbered feed of committed writes, so that a consumer keeping a copy of the persons table reads only what
+ * changed since its last sequence number instead of listing the whole table again.
+ * <p>
+ * The latest <code>person.feed.capacity</code> changes are kept in a ring. Older ones are queued and written to
+ * {@link PersonChangeOverflow} segments on disk by a background thread, so a slow disk never holds up a write; the
+ * newest <code>person.feed.overflow.max-segments</code> are kept. Should the disk fall more than
+ * <code>person.feed.overflow.max-pending</code> changes behind, the feed stops spilling rather than grow the queue.
+ * Without <code>person.feed.directory</code> the segments go to a temporary directory of this run. Asking for
+ * changes older than what is kept is answered with 410 Gone, the consumer has to list the table again.
+ * <p>
+ * Listeners are called after commit in no particular order, so the feed keeps the order of each person itself: a
+ * save that is not newer than the last version it carried for the id, or that comes after its deletion, is dropped.
+ * Applying the feed in sequence order never goes back to an older version or brings a deleted person back.
+ * <p>
+ * Only the default stack serves the feed, the <code>reactive</code> profile does not keep one.
+ * <p>
+ * The feed starts empty with every run and its stream id changes, a consumer that sees a new one has to list the
+ * table again too. Its own copy should start from a listing taken after reading the <code>latest</code> sequence
+ * number: the changes after it then cover every write the listing may have missed.
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "person.feed.enabled", havingValue = "true", matchIfMissing = true)
+public class PersonChangeFeed implements PersonChangeListener, MeterBinder {
+
+    private static final String METRIC_PREFIX = "person.feed";
+    private static final String SOURCE = "changes";
+    /**
+     * Last version of an id that was deleted, ids are never reused.
+     */
+    private static final long DELETED = Long.MAX_VALUE;
+
+    private final String stream = Long.toHexString(System.currentTimeMillis());
+    private final PersonChange[] ring;
+    private final String configuredDirectory;
+    private final int maxSegments;
+    private final int maxPending;
+    private final ObjectMapper objectMapper;
+    private final int maxPageSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final ExecutorService spiller = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "feed-spill");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Changes evicted from the ring and not yet on disk, oldest first. Guarded by the lock.
+     */
+    private final ArrayDeque<PersonChange> pending = new ArrayDeque<>();
+    /**
+     * Last version carried for the most recently changed ids, the window in which writes to one id can still reach
+     * the feed out of order. Guarded by the lock.
+     */
+    private final Map<Long, Long> versions;
+    private boolean spillScheduled;
+    private volatile boolean spilling = true;
+    private volatile long latest;
+    private volatile long oldest = 1;
+    private long diskOldest = -1;
+    private Path directory;
+    private boolean temporary;
+    private PersonChangeOverflow overflow;
+
+    @Autowired
+    public PersonChangeFeed(@Value("${person.feed.capacity:10000}") int capacity,
+                            @Value("${person.feed.directory:}") String directory,
+                            @Value("${person.feed.overflow.max-segments:100}") int maxSegments,
+                            @Value("${person.feed.overflow.max-pending:10000}") int maxPending,
+                            @Value("${person.feed.max-page-size:1000}") int maxPageSize,
+                            ObjectMapper objectMapper) {
+        if (capacity < 1 || maxSegments < 1) {
+            throw new IllegalArgumentException("Change feed needs a capacity and overflow segments, got " + capacity
+                    + " and " + maxSegments);
+        }
+        this.ring = new PersonChange[capacity];
+        this.versions = new LinkedHashMap<Long, Long>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Long, Long> eldest) {
+                return size() > capacity;
+            }
+        };
+        this.configuredDirectory = directory;
+        this.maxSegments = maxSegments;
+        this.maxPending = maxPending;
+        this.objectMapper = objectMapper;
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * Opens the overflow: the configured directory, cleared of the segments of a previous run, or a new temporary one.
+     */
+    @PostConstruct
+    public void open() {
+        try {
+            temporary = configuredDirectory == null || configuredDirectory.isEmpty();
+            directory = temporary ? Files.createTempDirectory("person-feed-") : Paths.get(configuredDirectory);
+            overflow = new PersonChangeOverflow(directory, objectMapper, ring.length, maxSegments);
+            overflow.clear();
+        } catch (IOException e) {
+            log.error("Failed to open change feed overflow in {}, only the latest changes are served. Exception:: ",
+                    directory, e);
+            spilling = false;
+        }
+    }
+
+    @Override
+    public void saved(final Person person) {
+        final long version = Person.version(person);
+        append(version == 0 ? PersonChange.Type.CREATED : PersonChange.Type.UPDATED, person.getId(), person, version);
+    }
+
+    @Override
+    public void deleted(final Long id) {
+        append(PersonChange.Type.DELETED, id, null, DELETED);
+    }
+
+    @Override
+    public void loaded(final Person person) {
+        // the feed only carries writes made while it runs, rows from before are in a listing
+    }
+
+    private void append(final PersonChange.Type type, final Long id, final Person person, final long version) {
+        lock.lock();
+        try {
+            final Long last = versions.get(id);
+            if (last != null && last >= version) {
+                // reached the feed after a newer write to the same id
+                return;
+            }
+            versions.put(id, version);
+            final long seq = latest + 1;
+            final int slot = slot(seq);
+            if (ring[slot] != null) {
+                evict(ring[slot]);
+            }
+            ring[slot] = new PersonChange(seq, type, id, person);
+            latest = seq;
+            oldest = oldestReadable();
+            appended.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void evict(final PersonChange evicted) {
+        if (!spilling) {
+            return;
+        }
+        if (pending.size() >= maxPending) {
+            log.error("Change feed overflow in {} fell {} changes behind, older changes are no longer served.",
+                    directory, pending.size());
+            stopSpilling();
+            return;
+        }
+        pending.addLast(evicted);
+        if (!spillScheduled) {
+            spillScheduled = true;
+            try {
+                spiller.execute(this::spill);
+            } catch (RejectedExecutionException e) {
+                // shutting down
+                stopSpilling();
+            }
+        }
+    }
+
+    /**
+     * Writes the queued changes to disk, the lock is only held to take them and to drop them once written.
+     */
+    private void spill() {
+        while (true) {
+            final List<PersonChange> batch;
+            lock.lock();
+            try {
+                if (pending.isEmpty() || !spilling) {
+                    spillScheduled = false;
+                    return;
+                }
+                batch = new ArrayList<>(pending);
+            } finally {
+                lock.unlock();
+            }
+            final long first;
+            try {
+                for (PersonChange change : batch) {
+                    overflow.append(change);
+                }
+                overflow.flush();
+                first = overflow.oldest();
+            } catch (IOException e) {
+                log.error("Failed to spill changes {} to {} to {}, only the latest changes are served from now on."
+                                + " Exception:: ", batch.get(0).getSeq(), batch.get(batch.size() - 1).getSeq(),
+                        directory.toAbsolutePath(), e);
+                lock.lock();
+                try {
+                    stopSpilling();
+                    spillScheduled = false;
+                } finally {
+                    lock.unlock();
+                }
+                return;
+            }
+            lock.lock();
+            try {
+                if (!spilling) {
+                    // fell behind while writing, the queue was dropped
+                    spillScheduled = false;
+                    return;
+                }
+                final Iterator<PersonChange> written = pending.iterator();
+                for (int i = 0; i < batch.size(); i++) {
+                    written.next();
+                    written.remove();
+                }
+                diskOldest = first;
+                oldest = oldestReadable();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Stops serving changes from disk, called under the lock.
+     */
+    private void stopSpilling() {
+        spilling = false;
+        pending.clear();
+        oldest = oldestReadable();
+    }
+
+    /**
+     * @return Lowest sequence number that can be read, called under the lock.
+     */
+    private long oldestReadable() {
+        if (spilling && diskOldest > 0) {
+            return diskOldest;
+        }
+        return memoryOldest();
+    }
+
+    /**
+     * @return Lowest sequence number held in memory, queued or in the ring; called under the lock.
+     */
+    private long memoryOldest() {
+        return pending.isEmpty() ? Math.max(1, latest - ring.length + 1) : pending.peekFirst().getSeq();
+    }
+
+    /**
+     * <p>
+     * Changes after the given sequence number, oldest first. A page read from disk stops where the changes in memory
+     * start, keep reading from <code>next</code> while it is lower than <code>latest</code>.
+     * </p>
+     *
+     * @param since Sequence number of the last change already applied, 0 for the first one.
+     * @param limit Most changes to return.
+     * @return Page of changes, empty when there is none yet.
+     * @throws PersonServiceException 410 when the changes after <code>since</code> are no longer kept or
+     *                                <code>since</code> is ahead of the feed, 400 for an invalid limit.
+     */
+    public PersonChangePage read(final long since, final int limit) throws PersonServiceException {
+        if (limit < 1 || limit > maxPageSize) {
+            throw new PersonServiceException("Limit must be between 1 and " + maxPageSize + ".", BAD_REQUEST, SOURCE);
+        }
+        final long upTo;
+        final long latestNow;
+        lock.lock();
+        try {
+            latestNow = latest;
+            check(since, latestNow);
+            upTo = memoryOldest();
+            if (since + 1 >= upTo) {
+                final List<PersonChange> changes = new ArrayList<>((int) Math.min(limit, latestNow - since));
+                final long ringOldest = Math.max(1, latestNow - ring.length + 1);
+                for (PersonChange change : pending) {
+                    if (change.getSeq() > since && changes.size() < limit) {
+                        changes.add(change);
+                    }
+                }
+                for (long seq = Math.max(since + 1, ringOldest); seq <= latestNow && changes.size() < limit; seq++) {
+                    changes.add(ring[slot(seq)]);
+                }
+                return page(since, changes, latestNow);
+            }
+        } finally {
+            lock.unlock();
+        }
+        // everything before upTo was flushed to disk before it left memory
+        try {
+            final List<PersonChange> changes = PersonChangeOverflow.read(overflow.segmentsFrom(since + 1), since + 1,
+                    upTo, limit, objectMapper);
+            if (changes.isEmpty() || changes.get(0).getSeq() != since + 1) {
+                // the segment holding it was deleted since the check
+                throw gone(since);
+            }
+            return page(since, changes, latestNow);
+        } catch (NoSuchFileException e) {
+            // the segment was deleted while reading it
+            throw gone(since);
+        } catch (IOException e) {
+            log.error("Failed to read changes after {} from {}. Exception:: ", since, directory.toAbsolutePath(), e);
+            throw new PersonServiceException("Failed to read changes.", e, INTERNAL_SERVER_ERROR, SOURCE);
+        }
+    }
+
+    /**
+     * @throws PersonServiceException 410 when {@link #read} would fail for <code>since</code>.
+     */
+    public void check(final long since) throws PersonServiceException {
+        check(since, latest);
+    }
+
+    private void check(final long since, final long latestNow) {
+        if (since < 0) {
+            throw new PersonServiceException("Sequence number can't be negative.", BAD_REQUEST, SOURCE);
+        }
+        if (since > latestNow) {
+            throw new PersonServiceException("Sequence number " + since + " is ahead of the change feed at " + latestNow
+                    + ", it restarted as stream " + stream + ". List all persons again, then read changes from"
+                    + " the latest sequence number.", GONE, SOURCE);
+        }
+        if (since + 1 < oldest) {
+            throw gone(since);
+        }
+    }
+
+    private PersonServiceException gone(final long since) {
+        return new PersonServiceException("Changes after " + since + " are no longer kept, the oldest is " + oldest
+                + ". List all persons again, then read changes from the latest sequence number.", GONE, SOURCE);
+    }
+
+    private PersonChangePage page(final long since, final List<PersonChange> changes, final long latestNow) {
+        final long next = changes.isEmpty() ? since : changes.get(changes.size() - 1).getSeq();
+        return new PersonChangePage(stream, changes.isEmpty() ? Collections.emptyList() : changes, next, latestNow);
+    }
+
+    /**
+     * Waits until there is a change after the given sequence number.
+     *
+     * @return Whether there is one, false when the timeout elapsed first.
+     * @throws InterruptedException When interrupted while waiting.
+     */
+    public boolean await(final long since, final Duration timeout) throws InterruptedException {
+        long nanos = timeout.toNanos();
+        lock.lock();
+        try {
+            while (latest <= since) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = appended.awaitNanos(nanos);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return Whether every change evicted from the ring so far is on disk.
+     */
+    boolean isSpilled() {
+        lock.lock();
+        try {
+            return pending.isEmpty() && !spillScheduled;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getLatest() {
+        return latest;
+    }
+
+    public String getStream() {
+        return stream;
+    }
+
+    private int slot(final long seq) {
+        return (int) (seq % ring.length);
+    }
+
+    @PreDestroy
+    public void close() {
+        spiller.shutdownNow();
+        if (overflow == null) {
+            return;
+        }
+        try {
+            overflow.close();
+            if (temporary) {
+                overflow.clear();
+                Files.deleteIfExists(directory);
+            }
+        } catch (IOException e) {
+            log.error("Failed to close change feed overflow in {}. Exception:: ", directory.toAbsolutePath(), e);
+        }
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        Gauge.builder(METRIC_PREFIX + ".latest", this, PersonChangeFeed::getLatest)
+                .description("Sequence number of the latest change")
+                .register(registry);
+        Gauge.builder(METRIC_PREFIX + ".retained", this, feed -> feed.latest - feed.oldest + 1)
+                .description("Changes that can still be read, in memory and on disk")
+                .register(registry);
+    }
+}
@@ -0,0 +1,154 @@
+package com.test.feed;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.test.response.PersonChange;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Changes evicted from the ring of {@link PersonChangeFeed}, appended as NDJSON to segment files named after the first
+ * sequence number they hold. Beyond the maximum number of segments the oldest one is deleted.
+ * <p>
+ * The feed's spill thread appends while readers list segments, both synchronize on the overflow. Reading the segments
+ * happens without it: a reader stops before the first change that was not flushed when it started, so it never sees a
+ * partial line.
+ */
+final class PersonChangeOverflow implements Closeable {
+
+    private static final String PREFIX = "changes-";
+    private static final String SUFFIX = ".ndjson";
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final TreeMap<Long, Path> segments = new TreeMap<>();
+    private BufferedWriter writer;
+    private int written;
+
+    /**
+     * @param segmentSize Changes per segment.
+     * @param maxSegments Segments kept, the oldest is deleted when one more is started.
+     */
+    PersonChangeOverflow(final Path directory, final ObjectMapper objectMapper, final int segmentSize,
+                         final int maxSegments) {
+        this.directory = directory;
+        this.objectMapper = objectMapper;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+    }
+
+    /**
+     * Deletes the segments of a previous run, their sequence numbers belong to another stream.
+     */
+    synchronized void clear() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    synchronized void append(final PersonChange change) throws IOException {
+        if (writer == null || written == segmentSize) {
+            roll(change.getSeq());
+        }
+        writer.write(objectMapper.writeValueAsString(change));
+        writer.newLine();
+        written++;
+    }
+
+    private void roll(final long first) throws IOException {
+        close();
+        Files.createDirectories(directory);
+        final Path file = directory.resolve(String.format("%s%019d%s", PREFIX, first, SUFFIX));
+        writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.WRITE);
+        segments.put(first, file);
+        written = 0;
+        while (segments.size() > maxSegments) {
+            Files.deleteIfExists(segments.pollFirstEntry().getValue());
+        }
+    }
+
+    /**
+     * @return Sequence number of the oldest change held, -1 when empty.
+     */
+    synchronized long oldest() {
+        return segments.isEmpty() ? -1 : segments.firstKey();
+    }
+
+    synchronized int segments() {
+        return segments.size();
+    }
+
+    synchronized void flush() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    /**
+     * @return Segments holding the changes from the given sequence number on, oldest first.
+     */
+    synchronized List<Path> segmentsFrom(final long seq) {
+        final Long first = segments.floorKey(seq);
+        return new ArrayList<>(segments.tailMap(first == null ? seq : first, true).values());
+    }
+
+    /**
+     * @param segments Result of {@link #segmentsFrom(long)}.
+     * @param from     Sequence number of the first change to return.
+     * @param upTo     Sequence number the read stops before, every change before it must have been flushed.
+     * @param limit    Most changes to return.
+     * @throws java.nio.file.NoSuchFileException When a segment was deleted in the meantime.
+     */
+    static List<PersonChange> read(final List<Path> segments, final long from, final long upTo, final int limit,
+                                   final ObjectMapper objectMapper) throws IOException {
+        final List<PersonChange> changes = new ArrayList<>(Math.min(limit, 1024));
+        for (Path segment : segments) {
+            try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+                String line;
+                while (changes.size() < limit && (line = reader.readLine()) != null) {
+                    final PersonChange change = objectMapper.readValue(line, PersonChange.class);
+                    if (change.getSeq() >= from) {
+                        changes.add(change);
+                    }
+                    // sequence numbers are contiguous, the line after this one may still be half written
+                    if (change.getSeq() + 1 >= upTo) {
+                        return changes;
+                    }
+                }
+            }
+            if (changes.size() == limit) {
+                break;
+            }
+        }
+        return changes;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            try {
+                writer.close();
+            } finally {
+                writer = null;
+            }
+        }
+    }
+}
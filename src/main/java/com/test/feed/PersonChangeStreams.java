@@ -0,0 +1,164 @@
+package com.test.feed;
+
+import com.test.exception.ApiError;
+import com.test.exception.PersonServiceException;
+import com.test.exception.ServiceOverloadedException;
+import com.test.response.PersonChange;
+import com.test.response.PersonChangePage;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-Sent Events streams of the {@link PersonChangeFeed}, one virtual thread per open stream waiting for the next
+ * change. Every event carries its sequence number as id, so a client reconnecting with <code>Last-Event-ID</code>
+ * resumes where it stopped. A stream that falls behind the changes the feed keeps gets a <code>reset</code> event
+ * and is closed.
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "person.feed.enabled", havingValue = "true", matchIfMissing = true)
+public class PersonChangeStreams implements MeterBinder {
+
+    private static final String METRIC_PREFIX = "person.feed";
+
+    private final PersonChangeFeed feed;
+    private final int maxStreams;
+    private final Duration timeout;
+    private final Duration heartbeat;
+    private final int batchSize;
+    private final AtomicInteger open = new AtomicInteger();
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("feed-", 0).factory());
+
+    @Autowired
+    public PersonChangeStreams(PersonChangeFeed feed,
+                               @Value("${person.feed.stream.max-open:100}") int maxStreams,
+                               @Value("${person.feed.stream.timeout:30m}") Duration timeout,
+                               @Value("${person.feed.stream.heartbeat:15s}") Duration heartbeat,
+                               @Value("${person.feed.max-page-size:1000}") int batchSize) {
+        this.feed = feed;
+        this.maxStreams = maxStreams;
+        this.timeout = timeout;
+        this.heartbeat = heartbeat;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @param since Sequence number of the last change the client has.
+     * @return Emitter sending every change after it as it happens, until the client leaves or the timeout elapses.
+     * @throws PersonServiceException 410 when the changes after <code>since</code> are no longer kept, 503 when too
+     *                                many streams are open.
+     */
+    public SseEmitter open(final long since) throws PersonServiceException {
+        feed.check(since);
+        if (open.incrementAndGet() > maxStreams) {
+            open.decrementAndGet();
+            throw new ServiceOverloadedException("Too many change streams open, retry later or read changes with since.",
+                    "changes");
+        }
+        final SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        final Subscription subscription = new Subscription(emitter, since);
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(e -> subscription.close());
+        try {
+            executor.execute(subscription);
+        } catch (RejectedExecutionException e) {
+            open.decrementAndGet();
+            throw new ServiceOverloadedException("Change streams are shutting down.", "changes");
+        }
+        return emitter;
+    }
+
+    public int getOpen() {
+        return open.get();
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        Gauge.builder(METRIC_PREFIX + ".streams", this, PersonChangeStreams::getOpen)
+                .description("Open Server-Sent Events change streams")
+                .register(registry);
+    }
+
+    private final class Subscription implements Runnable {
+
+        private final SseEmitter emitter;
+        private volatile long since;
+        private volatile boolean closed;
+
+        private Subscription(final SseEmitter emitter, final long since) {
+            this.emitter = emitter;
+            this.since = since;
+        }
+
+        void close() {
+            closed = true;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!closed) {
+                    final PersonChangePage page = feed.read(since, batchSize);
+                    for (PersonChange change : page.getChanges()) {
+                        emitter.send(SseEmitter.event()
+                                .id(String.valueOf(change.getSeq()))
+                                .data(change, MediaType.APPLICATION_JSON));
+                    }
+                    since = page.getNext();
+                    if (since >= page.getLatest() && !feed.await(since, heartbeat)) {
+                        // lets the container notice a client that went away while nothing changed
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    }
+                }
+            } catch (PersonServiceException e) {
+                reset(e);
+            } catch (IOException e) {
+                log.debug("Change stream after {} closed by the client: {}", since, e.getMessage());
+                emitter.completeWithError(e);
+            } catch (IllegalStateException e) {
+                log.debug("Change stream after {} closed: {}", since, e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                emitter.complete();
+            } finally {
+                open.decrementAndGet();
+            }
+        }
+
+        private void reset(final PersonServiceException e) {
+            try {
+                emitter.send(SseEmitter.event()
+                        .name("reset")
+                        .data(new ApiError(e.getCode(), e.getMessage(), e.getSource()), MediaType.APPLICATION_JSON));
+                emitter.complete();
+            } catch (IOException | IllegalStateException closed) {
+                log.debug("Change stream after {} closed before its reset: {}", since, closed.getMessage());
+            }
+        }
+    }
+}
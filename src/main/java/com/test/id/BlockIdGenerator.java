@@ -0,0 +1,33 @@
+package com.test.id;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * Table backed id generator reserving a block of ids per database round trip, see {@link BlockOptimizer}. The block
+ * size is the Hibernate setting {@value #BLOCK_SIZE}.
+ * <p>
+ * A table instead of a sequence, as the increment of a sequence is fixed when it is created while the block size may
+ * change between restarts; the table row is advanced by whatever block size is configured at the time.
+ */
+public class BlockIdGenerator extends SequenceStyleGenerator {
+
+    public static final String BLOCK_SIZE = "person.id.block-size";
+    public static final int DEFAULT_BLOCK_SIZE = 1000;
+
+    @Override
+    public void configure(final Type type, final Properties params, final ServiceRegistry serviceRegistry) throws MappingException {
+        final int blockSize = ConfigurationHelper.getInt(BLOCK_SIZE,
+                serviceRegistry.getService(ConfigurationService.class).getSettings(), DEFAULT_BLOCK_SIZE);
+        params.setProperty(INCREMENT_PARAM, String.valueOf(blockSize));
+        params.setProperty(OPT_PARAM, BlockOptimizer.class.getName());
+        params.setProperty(FORCE_TBL_PARAM, Boolean.TRUE.toString());
+        super.configure(type, params, serviceRegistry);
+    }
+}
@@ -0,0 +1,118 @@
+package com.test.id;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.HibernateException;
+import org.hibernate.id.IdentifierGeneratorHelper;
+import org.hibernate.id.IntegralDataTypeHolder;
+import org.hibernate.id.enhanced.AccessCallback;
+import org.hibernate.id.enhanced.Optimizer;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out ids from blocks reserved in the database, <code>[value, value + incrementSize)</code> per reservation.
+ * <p>
+ * Ids of the current block come from an atomic counter, no lock is taken. The caller that takes the id half way
+ * through a block reserves the next one, so the other callers keep going while it waits for the database and the
+ * block is usually there before the current one runs out.
+ * <p>
+ * A block is reserved in its own committed transaction before any of its ids is handed out, so ids stay unique across
+ * restarts. Ids not handed out before a shutdown are skipped.
+ */
+@Slf4j
+public class BlockOptimizer implements Optimizer {
+
+    private final Class<?> returnClass;
+    private final int incrementSize;
+
+    private volatile Block current;
+    private volatile IntegralDataTypeHolder lastSourceValue;
+
+    /**
+     * Block reserved ahead of {@link #current}. Guarded by this.
+     */
+    private Block ahead;
+
+    /**
+     * Signature {@link org.hibernate.id.enhanced.OptimizerFactory} instantiates custom optimizers with.
+     */
+    public BlockOptimizer(final Class<?> returnClass, final int incrementSize) {
+        if (incrementSize < 1) {
+            throw new HibernateException("Id block size must be positive, was " + incrementSize);
+        }
+        this.returnClass = returnClass;
+        this.incrementSize = incrementSize;
+    }
+
+    @Override
+    public Serializable generate(final AccessCallback callback) {
+        while (true) {
+            final Block block = current;
+            if (block != null) {
+                final long id = block.next.getAndIncrement();
+                if (id < block.end) {
+                    if (id == block.reserveAheadAt) {
+                        reserveAhead(callback);
+                    }
+                    return IdentifierGeneratorHelper.getIntegralDataTypeHolder(returnClass).initialize(id).makeValue();
+                }
+            }
+            advance(callback, block);
+        }
+    }
+
+    @Override
+    public IntegralDataTypeHolder getLastSourceValue() {
+        return lastSourceValue;
+    }
+
+    @Override
+    public int getIncrementSize() {
+        return incrementSize;
+    }
+
+    @Override
+    public boolean applyIncrementSizeToSourceValues() {
+        return true;
+    }
+
+    private synchronized void reserveAhead(final AccessCallback callback) {
+        if (ahead != null) {
+            return;
+        }
+        try {
+            ahead = reserve(callback);
+        } catch (RuntimeException e) {
+            // the id this caller got is valid, the block is reserved again once the current one runs out
+            log.warn("Failed to reserve the next id block ahead of time. Exception:: ", e);
+        }
+    }
+
+    private synchronized void advance(final AccessCallback callback, final Block exhausted) {
+        if (current != exhausted) {
+            return;
+        }
+        current = ahead != null ? ahead : reserve(callback);
+        ahead = null;
+    }
+
+    private Block reserve(final AccessCallback callback) {
+        final IntegralDataTypeHolder value = callback.getNextValue();
+        lastSourceValue = value;
+        return new Block(value.copy().makeValue().longValue(), incrementSize);
+    }
+
+    private static final class Block {
+
+        private final long end;
+        private final long reserveAheadAt;
+        private final AtomicLong next;
+
+        private Block(final long start, final int size) {
+            this.end = start + size;
+            this.reserveAheadAt = start + size / 2;
+            this.next = new AtomicLong(start);
+        }
+    }
+}
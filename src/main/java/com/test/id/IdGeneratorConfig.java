@@ -0,0 +1,18 @@
+package com.test.id;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class IdGeneratorConfig {
+
+    /**
+     * Hands the application's id block size to Hibernate, which instantiates {@link BlockIdGenerator} itself.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer idBlockSizeCustomizer(@Value("${person.id.block-size:1000}") int blockSize) {
+        return properties -> properties.put(BlockIdGenerator.BLOCK_SIZE, blockSize);
+    }
+}
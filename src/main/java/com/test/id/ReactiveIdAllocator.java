@@ -0,0 +1,92 @@
+package com.test.id;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Non-blocking counterpart of {@link BlockOptimizer} for inserts over R2DBC. Blocks are reserved from the same
+ * <code>person_id_block</code> row the JPA generator uses, so both can insert into one database without collisions.
+ * <p>
+ * The row is advanced with a compare-and-set UPDATE on the value just read, retried when another allocator won, so no
+ * transaction is needed. Concurrent callers finding the block used up share one reservation.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveIdAllocator {
+
+    static final String TABLE = "person_id_block";
+
+    private final DatabaseClient databaseClient;
+    private final int blockSize;
+    private final AtomicReference<Block> current = new AtomicReference<>(new Block(0, 0));
+    private final AtomicReference<Mono<Block>> reservation = new AtomicReference<>();
+
+    @Autowired
+    public ReactiveIdAllocator(DatabaseClient databaseClient,
+                               @Value("${person.id.block-size:1000}") int blockSize) {
+        this.databaseClient = databaseClient;
+        this.blockSize = blockSize;
+    }
+
+    public Mono<Long> next() {
+        return Mono.defer(() -> {
+            final Block block = current.get();
+            final long id = block.next.getAndIncrement();
+            if (id < block.end) {
+                return Mono.just(id);
+            }
+            return reserve().then(next());
+        });
+    }
+
+    private Mono<Block> reserve() {
+        final Mono<Block> inFlight = reservation.get();
+        if (inFlight != null) {
+            return inFlight;
+        }
+        final Mono<Block> started = reserveBlock()
+                .doOnNext(block -> {
+                    // a block reserved after the current one was replaced is skipped, its ids stay unused
+                    final Block used = current.get();
+                    if (used.next.get() >= used.end) {
+                        current.compareAndSet(used, block);
+                    }
+                })
+                .doFinally(signal -> reservation.set(null))
+                .cache();
+        return reservation.compareAndSet(null, started) ? started : Mono.defer(this::reserve);
+    }
+
+    private Mono<Block> reserveBlock() {
+        return databaseClient.sql("select next_val from " + TABLE)
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .flatMap(value -> databaseClient.sql("update " + TABLE + " set next_val = :next where next_val = :value")
+                        .bind("next", value + blockSize)
+                        .bind("value", value)
+                        .fetch()
+                        .rowsUpdated()
+                        .map(rows -> rows == 0 ? new Block(0, 0) : new Block(value, blockSize)))
+                .repeat()
+                .filter(block -> block.end > 0)
+                .next();
+    }
+
+    private static final class Block {
+
+        private final long end;
+        private final AtomicLong next;
+
+        private Block(final long start, final int size) {
+            this.end = start + size;
+            this.next = new AtomicLong(start);
+        }
+    }
+}
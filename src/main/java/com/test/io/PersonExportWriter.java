@@ -0,0 +1,113 @@
+package com.test.io;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.test.entity.Person;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Writes persons one at a time to an output stream so that an export never holds more than one row in memory.
+ */
+public abstract class PersonExportWriter implements Closeable {
+
+    public static final String[] CSV_HEADER = {"id", "first_name", "last_name", "age", "favourite_colour"};
+
+    public static PersonExportWriter of(final PersonFormat format, final OutputStream outputStream,
+                                        final ObjectMapper objectMapper) throws IOException {
+        return format == PersonFormat.CSV ? new CsvWriter(outputStream) : new NdJsonWriter(outputStream, objectMapper);
+    }
+
+    public abstract void write(final Person person) throws UncheckedIOException;
+
+    private static final class NdJsonWriter extends PersonExportWriter {
+
+        private final OutputStream outputStream;
+        private final SequenceWriter sequenceWriter;
+        private boolean written;
+
+        private NdJsonWriter(final OutputStream outputStream, final ObjectMapper objectMapper) throws IOException {
+            this.outputStream = outputStream;
+            this.sequenceWriter = objectMapper.writerFor(Person.class)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                    .withRootValueSeparator("\n")
+                    .writeValues(outputStream);
+        }
+
+        @Override
+        public void write(final Person person) {
+            try {
+                sequenceWriter.write(person);
+                written = true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            sequenceWriter.flush();
+            // an empty export is an empty body, not a blank line
+            if (written) {
+                outputStream.write('\n');
+            }
+            outputStream.flush();
+        }
+    }
+
+    private static final class CsvWriter extends PersonExportWriter {
+
+        private final Writer writer;
+
+        private CsvWriter(final OutputStream outputStream) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, UTF_8));
+            writer.write(String.join(",", CSV_HEADER));
+            writer.write('\n');
+        }
+
+        @Override
+        public void write(final Person person) {
+            try {
+                writer.write(String.valueOf(person.getId()));
+                writer.write(',');
+                writeField(person.getFirstName());
+                writer.write(',');
+                writeField(person.getLastName());
+                writer.write(',');
+                writer.write(String.valueOf(person.getAge()));
+                writer.write(',');
+                writeField(person.getFavouriteColour());
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void writeField(final String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+    }
+}
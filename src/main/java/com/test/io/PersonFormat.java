@@ -0,0 +1,51 @@
+package com.test.io;
+
+import lombok.Getter;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+
+@Getter
+public enum PersonFormat {
+
+    NDJSON(MediaType.APPLICATION_NDJSON, "ndjson"),
+    CSV(new MediaType("text", "csv"), "csv");
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final MediaType mediaType;
+
+    private final String extension;
+
+    PersonFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    /**
+     * <p>
+     * Pick the format that the given <code>Accept</code> or <code>Content-Type</code> header asks for,
+     * NDJSON when nothing specific is asked for.
+     * </p>
+     *
+     * @param header Header value, may be null.
+     * @return Negotiated format.
+     */
+    public static PersonFormat of(final String header) {
+        if (!StringUtils.hasText(header)) {
+            return NDJSON;
+        }
+        final List<MediaType> mediaTypes = MediaType.parseMediaTypes(header);
+        MediaType.sortBySpecificityAndQuality(mediaTypes);
+        for (MediaType mediaType : mediaTypes) {
+            if (mediaType.isCompatibleWith(NDJSON.mediaType)) {
+                return NDJSON;
+            }
+            if (mediaType.isCompatibleWith(CSV.mediaType)) {
+                return CSV;
+            }
+        }
+        return NDJSON;
+    }
+}
@@ -0,0 +1,168 @@
+package com.test.io;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.test.request.PersonRequest;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Reads an NDJSON or CSV upload one record at a time, never holding more than the current record in memory.
+ */
+public abstract class PersonImportReader implements Closeable {
+
+    protected final BufferedReader reader;
+
+    protected long line;
+
+    protected PersonImportReader(final InputStream inputStream) {
+        this.reader = new BufferedReader(new InputStreamReader(inputStream, UTF_8));
+    }
+
+    public static PersonImportReader of(final PersonFormat format, final InputStream inputStream,
+                                        final ObjectMapper objectMapper) throws IOException {
+        return format == PersonFormat.CSV ? new CsvReader(inputStream) : new NdJsonReader(inputStream, objectMapper);
+    }
+
+    /**
+     * @return Next record or null once the input is exhausted.
+     * @throws IOException when the input can't be read any more.
+     */
+    public abstract PersonImportRecord next() throws IOException;
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private static final class NdJsonReader extends PersonImportReader {
+
+        private final ObjectReader objectReader;
+
+        private NdJsonReader(final InputStream inputStream, final ObjectMapper objectMapper) {
+            super(inputStream);
+            this.objectReader = objectMapper.readerFor(PersonRequest.class);
+        }
+
+        @Override
+        public PersonImportRecord next() throws IOException {
+            String value;
+            do {
+                value = reader.readLine();
+                line++;
+            } while (value != null && value.trim().isEmpty());
+            if (value == null) {
+                return null;
+            }
+            try {
+                return new PersonImportRecord(line, objectReader.readValue(value), null);
+            } catch (IOException e) {
+                return new PersonImportRecord(line, null, "Malformed JSON record.");
+            }
+        }
+    }
+
+    private static final class CsvReader extends PersonImportReader {
+
+        private final Map<String, Integer> columns = new HashMap<>();
+
+        private CsvReader(final InputStream inputStream) throws IOException {
+            super(inputStream);
+            final List<String> header = readRecord();
+            if (header != null) {
+                for (int i = 0; i < header.size(); i++) {
+                    columns.put(header.get(i).trim().toLowerCase(), i);
+                }
+            }
+        }
+
+        @Override
+        public PersonImportRecord next() throws IOException {
+            List<String> fields;
+            long start;
+            do {
+                start = line + 1;
+                fields = readRecord();
+            } while (fields != null && fields.size() == 1 && fields.get(0).trim().isEmpty());
+            if (fields == null) {
+                return null;
+            }
+            final PersonRequest request = new PersonRequest();
+            request.setFirstName(field(fields, "first_name"));
+            request.setLastName(field(fields, "last_name"));
+            request.setFavouriteColour(field(fields, "favourite_colour"));
+            final String age = field(fields, "age");
+            if (age != null) {
+                try {
+                    request.setAge(Integer.valueOf(age.trim()));
+                } catch (NumberFormatException e) {
+                    return new PersonImportRecord(start, null, "Person age must be a number.");
+                }
+            }
+            return new PersonImportRecord(start, request, null);
+        }
+
+        private String field(final List<String> fields, final String column) {
+            final Integer index = columns.get(column);
+            if (index == null || index >= fields.size() || fields.get(index).isEmpty()) {
+                return null;
+            }
+            return fields.get(index);
+        }
+
+        /**
+         * Reads one RFC 4180 record, quoted fields may span several lines.
+         */
+        private List<String> readRecord() throws IOException {
+            int c = reader.read();
+            if (c < 0) {
+                return null;
+            }
+            line++;
+            final List<String> fields = new ArrayList<>();
+            final StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (c >= 0) {
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        final int next = reader.read();
+                        if (next == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            reader.reset();
+                        }
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = reader.read();
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
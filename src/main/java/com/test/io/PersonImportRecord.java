@@ -0,0 +1,19 @@
+package com.test.io;
+
+import com.test.request.PersonRequest;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * One parsed record of an import, either a request or the reason it could not be parsed.
+ */
+@Getter
+@AllArgsConstructor
+public class PersonImportRecord {
+
+    private final long line;
+
+    private final PersonRequest request;
+
+    private final String error;
+}
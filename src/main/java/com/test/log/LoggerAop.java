@@ -5,28 +5,74 @@ import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import org.springframework.util.StopWatch;
 
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Records latency and outcome of every method call into {@link MethodMetrics}. Logging a call is optional: none,
+ * a random sample, only calls slower than a threshold, or every call. Request admission in
+ * <code>com.test.concurrency</code> is left alone, its servlet filter cannot be proxied, and so is the change feed in
+ * <code>com.test.feed</code>, whose streams spend most calls waiting for the next change.
+ */
 @Component
 @Aspect
 @Slf4j
 public class LoggerAop {
 
-    @Around("execution(* com.test..*(..))")
+    public enum LogMode {
+        NONE, SAMPLED, SLOW, ALL
+    }
+
+    private final MethodMetrics methodMetrics;
+    private final LogMode logMode;
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+
+    @Autowired
+    public LoggerAop(MethodMetrics methodMetrics,
+                     @Value("${person.log.mode:SLOW}") LogMode logMode,
+                     @Value("${person.log.sample-rate:0.01}") double sampleRate,
+                     @Value("${person.log.slow-threshold:500ms}") Duration slowThreshold) {
+        this.methodMetrics = methodMetrics;
+        this.logMode = logMode;
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
+    @Around("execution(* com.test..*(..)) && !within(com.test.log..*) && !within(com.test.concurrency..*)"
+            + " && !within(com.test.feed..*)")
     public Object proceed(final ProceedingJoinPoint joinPoint) throws Throwable {
-        final StopWatch stopWatch = new StopWatch();
-        stopWatch.start();
-        MethodSignature methodSignature = (MethodSignature) joinPoint.getSignature();
-        String className = methodSignature.getDeclaringType().getSimpleName();
-        String methodName = methodSignature.getName();
+        final MethodMetrics.Stats stats = methodMetrics.stats((MethodSignature) joinPoint.getSignature());
+        final long start = System.nanoTime();
+        boolean failed = true;
         try {
-            log.info("Started method [{}] execution from class [{}] ", methodName, className);
-            Object result = joinPoint.proceed();
+            final Object result = joinPoint.proceed();
+            failed = false;
             return result;
         } finally {
-            stopWatch.stop();
-            log.info("Finished method [{}] execution from class [{}]. Time take in sec [{}]", methodName, className, stopWatch.getTotalTimeSeconds());
+            final long elapsed = System.nanoTime() - start;
+            stats.record(elapsed, failed);
+            if (shouldLog(elapsed)) {
+                log.info("Finished method [{}]{}. Time taken in ms [{}]", stats.getName(), failed ? " with error" : "",
+                        elapsed / 1_000_000.0);
+            }
+        }
+    }
+
+    private boolean shouldLog(final long elapsedNanos) {
+        switch (logMode) {
+            case ALL:
+                return true;
+            case SLOW:
+                return elapsedNanos >= slowThresholdNanos;
+            case SAMPLED:
+                return ThreadLocalRandom.current().nextDouble() < sampleRate;
+            default:
+                return false;
         }
     }
 }
@@ -0,0 +1,89 @@
+package com.test.log;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.HdrHistogram.AtomicHistogram;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per method call and error counts plus a latency histogram. Recording a call is lock free and does not allocate once
+ * the method has been seen.
+ */
+@Component
+public class MethodMetrics {
+
+    /**
+     * Latencies are recorded in microseconds up to one minute with two significant digits, about 40KB per method.
+     */
+    private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private final ConcurrentMap<Method, Stats> stats = new ConcurrentHashMap<>();
+
+    public Stats stats(final MethodSignature signature) {
+        final Stats existing = stats.get(signature.getMethod());
+        if (existing != null) {
+            return existing;
+        }
+        return stats.computeIfAbsent(signature.getMethod(),
+                method -> new Stats(signature.getDeclaringType().getSimpleName() + "." + method.getName()));
+    }
+
+    /**
+     * @return Snapshot of every method seen so far, keyed by <code>Class.method</code>.
+     */
+    public Map<String, Snapshot> snapshot() {
+        final Map<String, Snapshot> snapshot = new TreeMap<>();
+        stats.values().forEach(methodStats -> snapshot.put(methodStats.getName(), methodStats.snapshot()));
+        return snapshot;
+    }
+
+    public static final class Stats {
+
+        @Getter
+        private final String name;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final AtomicHistogram latency = new AtomicHistogram(HIGHEST_MICROS, SIGNIFICANT_DIGITS);
+
+        Stats(final String name) {
+            this.name = name;
+        }
+
+        public void record(final long elapsedNanos, final boolean failed) {
+            calls.increment();
+            if (failed) {
+                errors.increment();
+            }
+            latency.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(elapsedNanos), HIGHEST_MICROS));
+        }
+
+        Snapshot snapshot() {
+            return new Snapshot(calls.sum(), errors.sum(), latency.getMean() / 1000.0,
+                    latency.getValueAtPercentile(50) / 1000.0, latency.getValueAtPercentile(99) / 1000.0,
+                    latency.getValueAtPercentile(99.9) / 1000.0, latency.getMaxValue() / 1000.0);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class Snapshot {
+
+        private final long calls;
+        private final long errors;
+        private final double meanMillis;
+        private final double p50Millis;
+        private final double p99Millis;
+        private final double p999Millis;
+        private final double maxMillis;
+    }
+}
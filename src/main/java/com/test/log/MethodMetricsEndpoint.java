@@ -0,0 +1,29 @@
+package com.test.log;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint <code>/actuator/methods</code> with call counts, error counts and latency percentiles of every
+ * advised method.
+ */
+@Component
+@Endpoint(id = "methods")
+public class MethodMetricsEndpoint {
+
+    private final MethodMetrics methodMetrics;
+
+    @Autowired
+    public MethodMetricsEndpoint(MethodMetrics methodMetrics) {
+        this.methodMetrics = methodMetrics;
+    }
+
+    @ReadOperation
+    public Map<String, MethodMetrics.Snapshot> methods() {
+        return methodMetrics.snapshot();
+    }
+}
@@ -4,15 +4,71 @@ import com.test.entity.Person;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface PersonRepository extends PagingAndSortingRepository<Person, Long>, JpaSpecificationExecutor<Person> {
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+public interface PersonRepository extends PagingAndSortingRepository<Person, Long>, JpaSpecificationExecutor<Person>,
+        PersonRepositoryCustom {
+
+    String STREAM_FETCH_SIZE = "1000";
 
     List<Person> findByFirstNameIgnoreCase(final String firstName);
 
     Page<Person> findByFirstNameIsLike(final String firstName, Pageable pageable);
 
+    /**
+     * Streams every person ordered by id. Must be consumed inside a transaction and closed afterwards.
+     */
+    @QueryHints(value = {@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HINT_READONLY, value = "true"),
+            @QueryHint(name = HINT_CACHEABLE, value = "false")})
+    @Query("select p from Person p order by p.id")
+    Stream<Person> streamAllBy();
+
+    /**
+     * Deletes the listed persons with one statement, without loading them. Must run inside a transaction.
+     *
+     * @return Number of persons deleted.
+     */
+    @Modifying
+    @Query("delete from Person p where p.id in :ids")
+    int deleteAllByIdIn(@Param("ids") final Collection<Long> ids);
+
+    /**
+     * Rows per favourite colour, as (colour, count).
+     */
+    @Query("select p.favouriteColour, count(p) from Person p group by p.favouriteColour")
+    List<Object[]> countByFavouriteColour();
+
+    /**
+     * Rows per age decade, as (age / 10, count).
+     */
+    @Query("select p.age / 10, count(p) from Person p group by p.age / 10")
+    List<Object[]> countByAgeDecade();
+
+    /**
+     * Rows per upper cased first letter of the first name, as (letter, count).
+     */
+    @Query("select substring(upper(p.firstName), 1, 1), count(p) from Person p group by substring(upper(p.firstName), 1, 1)")
+    List<Object[]> countByFirstNameInitial();
+
+    /**
+     * Rows per upper cased first letter of the last name, as (letter, count).
+     */
+    @Query("select substring(upper(p.lastName), 1, 1), count(p) from Person p group by substring(upper(p.lastName), 1, 1)")
+    List<Object[]> countByLastNameInitial();
+
 }
@@ -0,0 +1,84 @@
+package com.test.repository;
+
+import com.test.entity.Person;
+import com.test.request.PersonPatchRequest;
+import com.test.search.NameCondition;
+import com.test.search.PersonCursor;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface PersonRepositoryCustom {
+
+    /**
+     * <p>
+     * Remove the person from the current persistence context so it can be garbage collected while a long running
+     * read is still going on.
+     * </p>
+     *
+     * @param person Managed person entity.
+     */
+    void detach(final Person person);
+
+    /**
+     * <p>
+     * Keyset page: persons ordered by the sort key and id, strictly after the cursor position. No offset is skipped
+     * and no count query is run, so every page costs the same.
+     * </p>
+     *
+     * @param sortBy Sort key, one of {@link PersonCursor#SORT_KEYS}.
+     * @param cursor Position after the previous page, null for the first page.
+     * @param limit  Maximum number of persons to return.
+     * @return Persons after the cursor.
+     */
+    List<Person> findPageAfter(final String sortBy, final PersonCursor cursor, final int limit);
+
+    /**
+     * <p>
+     * Apply the fields present in the patch and increment the version with a single UPDATE statement. When an
+     * expected version is given the row is only changed if it still has that version.
+     * </p>
+     *
+     * @param id              Person's id.
+     * @param patch           Fields to change.
+     * @param expectedVersion Version the caller based the patch on, null to patch whatever version is stored.
+     * @return Number of rows changed, 0 when the person does not exist or has another version.
+     */
+    int patch(final Long id, final PersonPatchRequest patch, final Long expectedVersion);
+
+    /**
+     * <p>
+     * Apply the fields present in the patch to every listed person and increment their versions with a single
+     * UPDATE statement.
+     * </p>
+     *
+     * @param ids   Persons' ids.
+     * @param patch Fields to change.
+     * @return Number of rows changed.
+     */
+    int patchAll(final Collection<Long> ids, final PersonPatchRequest patch);
+
+    /**
+     * <p>
+     * Keyset page of the ids matching a specification, in id order. Only ids are read, no entity is loaded.
+     * </p>
+     *
+     * @param specification Filter.
+     * @param afterId       Last id of the previous page, null for the first page.
+     * @param limit         Maximum number of ids to return.
+     * @return Matching ids greater than afterId.
+     */
+    List<Long> findIdsAfter(final Specification<Person> specification, final Long afterId, final int limit);
+
+    /**
+     * <p>
+     * Plan the database chooses for a name search, as printed by <code>EXPLAIN</code>. Column names are fixed by
+     * the conditions, only the patterns are bound as parameters.
+     * </p>
+     *
+     * @param conditions Alternatives of the name search.
+     * @return Query plan text.
+     */
+    String explain(final List<NameCondition> conditions);
+}
@@ -0,0 +1,138 @@
+package com.test.repository;
+
+import com.test.entity.Person;
+import com.test.request.PersonPatchRequest;
+import com.test.search.NameCondition;
+import com.test.search.PersonCursor;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.Collection;
+import java.util.List;
+
+public class PersonRepositoryCustomImpl implements PersonRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void detach(final Person person) {
+        entityManager.detach(person);
+    }
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public List<Person> findPageAfter(final String sortBy, final PersonCursor cursor, final int limit) {
+        final CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        final CriteriaQuery<Person> query = cb.createQuery(Person.class);
+        final Root<Person> root = query.from(Person.class);
+        final Path<Long> id = root.get(PersonCursor.ID);
+        if (PersonCursor.ID.equals(sortBy)) {
+            if (cursor != null) {
+                query.where(cb.greaterThan(id, cursor.getId()));
+            }
+            query.orderBy(cb.asc(id));
+        } else {
+            final Path<Comparable> key = root.get(sortBy);
+            if (cursor != null) {
+                final Comparable value = cursor.getValue();
+                // leading range on the sort key keeps the (key, id) index usable, the OR only trims ties
+                query.where(cb.greaterThanOrEqualTo(key, value),
+                        cb.or(cb.greaterThan(key, value), cb.greaterThan(id, cursor.getId())));
+            }
+            query.orderBy(cb.asc(key), cb.asc(id));
+        }
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public int patch(final Long id, final PersonPatchRequest patch, final Long expectedVersion) {
+        final CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        final CriteriaUpdate<Person> update = cb.createCriteriaUpdate(Person.class);
+        final Root<Person> root = update.from(Person.class);
+        final Path<Long> version = set(cb, update, root, patch);
+        if (expectedVersion == null) {
+            update.where(cb.equal(root.get(PersonCursor.ID), id));
+        } else {
+            update.where(cb.equal(root.get(PersonCursor.ID), id), cb.equal(version, expectedVersion));
+        }
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    @Override
+    public int patchAll(final Collection<Long> ids, final PersonPatchRequest patch) {
+        final CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        final CriteriaUpdate<Person> update = cb.createCriteriaUpdate(Person.class);
+        final Root<Person> root = update.from(Person.class);
+        set(cb, update, root, patch);
+        update.where(root.get(PersonCursor.ID).in(ids));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    @Override
+    public List<Long> findIdsAfter(final Specification<Person> specification, final Long afterId, final int limit) {
+        final CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        final CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        final Root<Person> root = query.from(Person.class);
+        final Path<Long> id = root.get(PersonCursor.ID);
+        final Predicate filter = specification.toPredicate(root, query, cb);
+        final Predicate after = afterId == null ? null : cb.greaterThan(id, afterId);
+        if (filter != null && after != null) {
+            query.where(filter, after);
+        } else if (filter != null || after != null) {
+            query.where(filter != null ? filter : after);
+        }
+        query.select(id).orderBy(cb.asc(id));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public String explain(final List<NameCondition> conditions) {
+        final StringBuilder sql = new StringBuilder("EXPLAIN SELECT id FROM persons");
+        for (int i = 0; i < conditions.size(); i++) {
+            sql.append(i == 0 ? " WHERE " : " OR ")
+                    .append(conditions.get(i).getColumn())
+                    .append(" LIKE ?").append(i + 1)
+                    .append(" ESCAPE '").append(NameCondition.ESCAPE).append('\'');
+        }
+        final Query query = entityManager.createNativeQuery(sql.toString());
+        for (int i = 0; i < conditions.size(); i++) {
+            query.setParameter(i + 1, conditions.get(i).getPattern());
+        }
+        return String.valueOf(query.getSingleResult());
+    }
+
+    /**
+     * Sets the fields present in the patch and increments the version.
+     *
+     * @return The version path, for callers that also check it.
+     */
+    private static Path<Long> set(final CriteriaBuilder cb, final CriteriaUpdate<Person> update, final Root<Person> root,
+                                  final PersonPatchRequest patch) {
+        if (patch.getFirstName() != null) {
+            update.set(root.<String>get("firstName"), patch.getFirstName());
+            update.set(root.<String>get("firstNameLower"), Person.lower(patch.getFirstName()));
+        }
+        if (patch.getLastName() != null) {
+            update.set(root.<String>get("lastName"), patch.getLastName());
+            update.set(root.<String>get("lastNameLower"), Person.lower(patch.getLastName()));
+        }
+        if (patch.getAge() != null) {
+            update.set(root.<Integer>get("age"), patch.getAge());
+        }
+        if (patch.getFavouriteColour() != null) {
+            update.set(root.<String>get("favouriteColour"), patch.getFavouriteColour());
+        }
+        final Path<Long> version = root.get("version");
+        update.set(version, cb.sum(version, 1L));
+        return version;
+    }
+}
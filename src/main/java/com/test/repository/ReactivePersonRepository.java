@@ -0,0 +1,151 @@
+package com.test.repository;
+
+import com.test.entity.Person;
+import com.test.search.NameCondition;
+import io.r2dbc.spi.Row;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Non-blocking access to the persons table over R2DBC, for the reactive profile. The table and its lower cased shadow
+ * columns are owned by the {@link Person} JPA mapping; rows are mapped here by hand so the entity stays JPA only.
+ * </p>
+ */
+@Repository
+@Profile("reactive")
+public class ReactivePersonRepository {
+
+    private static final String COLUMNS = "id, first_name, last_name, age, favourite_colour, version";
+
+    private final DatabaseClient databaseClient;
+
+    @Autowired
+    public ReactivePersonRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<Person> findById(final Long id) {
+        return databaseClient.sql("select " + COLUMNS + " from persons where id = :id")
+                .bind("id", id)
+                .map((row, metadata) -> person(row))
+                .one();
+    }
+
+    /**
+     * <p>
+     * Persons in id order, strictly after the given id. Rows are read as the subscriber requests them.
+     * </p>
+     *
+     * @param afterId Last id already read, null to start from the first person.
+     * @param limit   Maximum number of persons, null for all.
+     * @return Persons after the id.
+     */
+    public Flux<Person> findAllAfter(final Long afterId, final Integer limit) {
+        final StringBuilder sql = new StringBuilder("select " + COLUMNS + " from persons where id > :after order by id");
+        if (limit != null) {
+            sql.append(" limit :limit");
+        }
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString())
+                .bind("after", afterId == null ? 0L : afterId);
+        if (limit != null) {
+            spec = spec.bind("limit", limit);
+        }
+        return spec.map((row, metadata) -> person(row)).all();
+    }
+
+    /**
+     * <p>
+     * Persons matching any of the name conditions, in id order; every person when there is none.
+     * </p>
+     *
+     * @param conditions Alternatives of the name search, see
+     *                   {@link com.test.search.PersonSearchSpecification#getNameConditions}.
+     * @return Matching persons.
+     */
+    public Flux<Person> findAllByName(final List<NameCondition> conditions) {
+        final StringBuilder sql = new StringBuilder("select " + COLUMNS + " from persons");
+        for (int i = 0; i < conditions.size(); i++) {
+            sql.append(i == 0 ? " where " : " or ")
+                    .append(conditions.get(i).getColumn())
+                    .append(" like :p").append(i)
+                    .append(" escape '").append(NameCondition.ESCAPE).append('\'');
+        }
+        sql.append(" order by id");
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+        for (int i = 0; i < conditions.size(); i++) {
+            spec = spec.bind("p" + i, conditions.get(i).getPattern());
+        }
+        return spec.map((row, metadata) -> person(row)).all();
+    }
+
+    /**
+     * @param person Person with its id already allocated, stored with version 0.
+     * @return The stored person.
+     */
+    public Mono<Person> insert(final Person person) {
+        person.setVersion(0L);
+        return databaseClient.sql("insert into persons (" + COLUMNS + ", first_name_lower, last_name_lower) "
+                + "values (:id, :firstName, :lastName, :age, :favouriteColour, :version, :firstNameLower, :lastNameLower)")
+                .bind("id", person.getId())
+                .bind("firstName", person.getFirstName())
+                .bind("lastName", person.getLastName())
+                .bind("age", person.getAge())
+                .bind("favouriteColour", person.getFavouriteColour())
+                .bind("version", person.getVersion())
+                .bind("firstNameLower", person.getFirstNameLower())
+                .bind("lastNameLower", person.getLastNameLower())
+                .fetch()
+                .rowsUpdated()
+                .thenReturn(person);
+    }
+
+    /**
+     * <p>
+     * Overwrite every field of the person and increment its version with a single UPDATE statement.
+     * </p>
+     *
+     * @return Number of rows changed, 0 when the person does not exist.
+     */
+    public Mono<Integer> update(final Person person) {
+        return databaseClient.sql("update persons set first_name = :firstName, last_name = :lastName, age = :age, "
+                + "favourite_colour = :favouriteColour, first_name_lower = :firstNameLower, "
+                + "last_name_lower = :lastNameLower, version = version + 1 where id = :id")
+                .bind("id", person.getId())
+                .bind("firstName", person.getFirstName())
+                .bind("lastName", person.getLastName())
+                .bind("age", person.getAge())
+                .bind("favouriteColour", person.getFavouriteColour())
+                .bind("firstNameLower", person.getFirstNameLower())
+                .bind("lastNameLower", person.getLastNameLower())
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * @return Number of rows deleted, 0 when the person does not exist.
+     */
+    public Mono<Integer> deleteById(final Long id) {
+        return databaseClient.sql("delete from persons where id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static Person person(final Row row) {
+        final Person person = new Person();
+        person.setId(row.get("id", Long.class));
+        person.setFirstName(row.get("first_name", String.class));
+        person.setLastName(row.get("last_name", String.class));
+        person.setAge(row.get("age", Integer.class));
+        person.setFavouriteColour(row.get("favourite_colour", String.class));
+        person.setVersion(row.get("version", Long.class));
+        return person;
+    }
+}
@@ -0,0 +1,24 @@
+package com.test.request;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import javax.validation.constraints.Pattern;
+
+/**
+ * New favourite colour and/or age for every selected person.
+ */
+@Data
+@ToString(callSuper = true)
+@EqualsAndHashCode(callSuper = true)
+public class PersonBulkUpdateRequest extends PersonSelection {
+
+    @JsonProperty("favourite_colour")
+    @Pattern(regexp = ".*\\S.*", message = "Person favourite colour can't be blank.")
+    private String favouriteColour;
+
+    @JsonProperty("age")
+    private Integer age;
+}
@@ -0,0 +1,35 @@
+package com.test.request;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * Persons selected by attribute, every present field must match. Names and colour are compared ignoring case, age is
+ * an inclusive range.
+ */
+@Data
+public class PersonCriteria implements Serializable {
+
+    @JsonProperty("first_name")
+    private String firstName;
+
+    @JsonProperty("last_name")
+    private String lastName;
+
+    @JsonProperty("favourite_colour")
+    private String favouriteColour;
+
+    @JsonProperty("min_age")
+    private Integer minAge;
+
+    @JsonProperty("max_age")
+    private Integer maxAge;
+
+    @JsonIgnore
+    public boolean isEmpty() {
+        return firstName == null && lastName == null && favouriteColour == null && minAge == null && maxAge == null;
+    }
+}
@@ -0,0 +1,37 @@
+package com.test.request;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+import javax.validation.constraints.Pattern;
+import java.io.Serializable;
+
+/**
+ * Partial update of a person, only the fields present are changed.
+ */
+@Data
+public class PersonPatchRequest implements Serializable {
+
+    private static final String NOT_BLANK = ".*\\S.*";
+
+    @JsonProperty("first_name")
+    @Pattern(regexp = NOT_BLANK, message = "Person first name can't be blank.")
+    private String firstName;
+
+    @JsonProperty("last_name")
+    @Pattern(regexp = NOT_BLANK, message = "Person last name can't be blank.")
+    private String lastName;
+
+    @JsonProperty("age")
+    private Integer age;
+
+    @JsonProperty("favourite_colour")
+    @Pattern(regexp = NOT_BLANK, message = "Person favourite colour can't be blank.")
+    private String favouriteColour;
+
+    @JsonIgnore
+    public boolean isEmpty() {
+        return firstName == null && lastName == null && age == null && favouriteColour == null;
+    }
+}
@@ -0,0 +1,20 @@
+package com.test.request;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Persons a bulk operation applies to, either listed by id or matched by criteria.
+ */
+@Data
+public class PersonSelection implements Serializable {
+
+    @JsonProperty("ids")
+    private List<Long> ids;
+
+    @JsonProperty("criteria")
+    private PersonCriteria criteria;
+}
@@ -0,0 +1,18 @@
+package com.test.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchItemError implements Serializable {
+
+    private int index;
+
+    private List<String> errors;
+}
@@ -0,0 +1,25 @@
+package com.test.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchSaveResponse implements Serializable {
+
+    /**
+     * Generated ids in request order, <code>null</code> for every item that could not be stored.
+     */
+    private List<Long> ids;
+
+    private int saved;
+
+    private int failed;
+
+    private List<BatchItemError> errors;
+}
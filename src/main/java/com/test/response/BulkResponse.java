@@ -0,0 +1,23 @@
+package com.test.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkResponse implements Serializable {
+
+    /**
+     * Rows deleted or updated.
+     */
+    private long affected;
+
+    /**
+     * Transactions the operation was split in.
+     */
+    private int chunks;
+}
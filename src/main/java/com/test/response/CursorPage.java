@@ -0,0 +1,23 @@
+package com.test.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> implements Serializable {
+
+    private List<T> content;
+
+    /**
+     * Opaque token to pass as <code>cursor</code> for the next page, <code>null</code> on the last page.
+     */
+    private String next;
+
+    private boolean hasNext;
+}
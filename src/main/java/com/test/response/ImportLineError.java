@@ -0,0 +1,18 @@
+package com.test.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportLineError implements Serializable {
+
+    private long line;
+
+    private List<String> errors;
+}
@@ -0,0 +1,26 @@
+package com.test.response;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ImportReport implements Serializable {
+
+    private long processed;
+
+    private long imported;
+
+    private long failed;
+
+    private int chunks;
+
+    /**
+     * True when more lines failed than are listed in {@link #errors}.
+     */
+    private boolean errorsTruncated;
+
+    private List<ImportLineError> errors = new ArrayList<>();
+}
@@ -0,0 +1,33 @@
+package com.test.response;
+
+import com.test.entity.Person;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PersonChange implements Serializable {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    /**
+     * Position in the change feed, increasing by one per change.
+     */
+    private long seq;
+
+    private Type type;
+
+    private Long id;
+
+    /**
+     * Person as stored, <code>null</code> when deleted. Concurrent writes to one person may reach the feed out of
+     * order, keep the highest version.
+     */
+    private Person person;
+}
@@ -0,0 +1,31 @@
+package com.test.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PersonChangePage implements Serializable {
+
+    /**
+     * Identifies the feed since start-up, sequence numbers of another stream don't apply.
+     */
+    private String stream;
+
+    private List<PersonChange> changes;
+
+    /**
+     * Sequence number to pass as <code>since</code> for the next page.
+     */
+    private long next;
+
+    /**
+     * Sequence number of the latest change, there are more pages while <code>next</code> is lower.
+     */
+    private long latest;
+}
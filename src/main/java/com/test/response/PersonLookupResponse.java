@@ -0,0 +1,25 @@
+package com.test.response;
+
+import com.test.entity.Person;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PersonLookupResponse implements Serializable {
+
+    /**
+     * Found persons in the order their ids were first requested.
+     */
+    private List<Person> persons;
+
+    /**
+     * Requested ids without a person, in request order.
+     */
+    private List<Long> missing;
+}
@@ -0,0 +1,21 @@
+package com.test.response;
+
+import com.test.entity.Person;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PersonMatch implements Serializable {
+
+    private Person person;
+
+    /**
+     * From 0 to 1, 1 for an exact match.
+     */
+    private double score;
+}
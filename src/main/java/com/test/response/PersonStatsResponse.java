@@ -0,0 +1,40 @@
+package com.test.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PersonStatsResponse implements Serializable {
+
+    private long total;
+
+    private Map<String, Long> byFavouriteColour;
+
+    /**
+     * Keyed by decade, <code>0-9</code> up to <code>100+</code>.
+     */
+    private Map<String, Long> byAge;
+
+    /**
+     * Keyed by upper case initial, <code>#</code> for anything that is not A to Z.
+     */
+    private Map<String, Long> byFirstNameInitial;
+
+    private Map<String, Long> byLastNameInitial;
+
+    /**
+     * False until every stored person has been counted after start-up.
+     */
+    private boolean ready;
+
+    /**
+     * Counters corrected by reconciliation against the database since start-up.
+     */
+    private long corrections;
+}
@@ -0,0 +1,32 @@
+package com.test.response;
+
+import com.test.search.NameMatch;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchPlanResponse implements Serializable {
+
+    public static final String NAME_INDEX = "name-index";
+    public static final String DATABASE = "database";
+
+    /**
+     * Match the search resolved to, never {@link NameMatch#AUTO}.
+     */
+    private NameMatch match;
+
+    /**
+     * Where the search is answered: the in-memory name index or the database.
+     */
+    private String source;
+
+    /**
+     * Database query plan, also given when the name index answers so both can be compared.
+     */
+    private String plan;
+}
@@ -1,15 +1,24 @@
 package com.test.search;
 
+import java.util.Locale;
+
 public abstract class BaseSpecification<T, U> {
 
     private final static String wildcard = "%";
 
     protected static String startsWith(final String searchField) {
-        return searchField.toLowerCase() + wildcard;
+        return escape(searchField.toLowerCase(Locale.ROOT)) + wildcard;
     }
 
     protected static String containsIn(final String searchField) {
-        return wildcard + searchField.toLowerCase() + wildcard;
+        return wildcard + escape(searchField.toLowerCase(Locale.ROOT)) + wildcard;
+    }
+
+    /**
+     * Makes LIKE wildcards in user input match literally, for use with <code>ESCAPE '\'</code>.
+     */
+    protected static String escape(final String searchField) {
+        return searchField.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
     }
 
 }
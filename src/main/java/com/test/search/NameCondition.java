@@ -0,0 +1,21 @@
+package com.test.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * One <code>column LIKE pattern</code> alternative of a name search, shared by the criteria query and its query
+ * plan so both always describe the same SQL.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class NameCondition {
+
+    public static final char ESCAPE = '\\';
+
+    private final String attribute;
+    private final String column;
+    private final String pattern;
+}
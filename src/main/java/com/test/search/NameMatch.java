@@ -0,0 +1,51 @@
+package com.test.search;
+
+/**
+ * How a name search term is matched.
+ */
+public enum NameMatch {
+
+    /**
+     * Names starting with the term, answered by a range scan of the lower cased name index.
+     */
+    PREFIX,
+
+    /**
+     * Names containing the term anywhere.
+     */
+    CONTAINS,
+
+    /**
+     * Picks the plan from the terms, the default: {@link #PREFIX} when every given term ends with
+     * <code>*</code>, {@link #CONTAINS} otherwise, so a plain term is still matched anywhere in the name.
+     */
+    AUTO;
+
+    public static final char PREFIX_MARK = '*';
+
+    public NameMatch resolve(final String firstName, final String lastName) {
+        if (this != AUTO) {
+            return this;
+        }
+        final boolean marked = (firstName != null || lastName != null) && isMarked(firstName) && isMarked(lastName);
+        return marked ? PREFIX : CONTAINS;
+    }
+
+    /**
+     * @return The term without its trailing <code>*</code>, which only marks a prefix search.
+     */
+    public static String term(final String term) {
+        if (term == null) {
+            return null;
+        }
+        int end = term.length();
+        while (end > 0 && term.charAt(end - 1) == PREFIX_MARK) {
+            end--;
+        }
+        return term.substring(0, end);
+    }
+
+    private static boolean isMarked(final String term) {
+        return term == null || term.length() > term(term).length();
+    }
+}
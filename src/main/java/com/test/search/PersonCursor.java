@@ -0,0 +1,90 @@
+package com.test.search;
+
+import com.test.entity.Person;
+import com.test.exception.PersonServiceException;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+/**
+ * Position after the last row of a keyset page: the sort key and the id used as tie breaker.
+ */
+@Getter
+public class PersonCursor {
+
+    public static final String ID = "id";
+    public static final String AGE = "age";
+    public static final List<String> SORT_KEYS = Collections.unmodifiableList(
+            Arrays.asList(ID, PersonSearchSpecification.FIRST_NAME, PersonSearchSpecification.LAST_NAME, AGE));
+
+    private static final String SEPARATOR = "\u0000";
+
+    private final String sortBy;
+
+    private final Comparable<?> value;
+
+    private final Long id;
+
+    private PersonCursor(String sortBy, Comparable<?> value, Long id) {
+        this.sortBy = sortBy;
+        this.value = value;
+        this.id = id;
+    }
+
+    public static PersonCursor after(final String sortBy, final Person person) {
+        return new PersonCursor(sortBy, sortValue(sortBy, person), person.getId());
+    }
+
+    public static String checkSortKey(final String sortBy) {
+        if (!SORT_KEYS.contains(sortBy)) {
+            throw new PersonServiceException("Sort key must be one of " + SORT_KEYS, BAD_REQUEST, "scroll");
+        }
+        return sortBy;
+    }
+
+    public static PersonCursor decode(final String cursor) {
+        try {
+            final String[] parts = new String(Base64.getUrlDecoder().decode(cursor), UTF_8).split(SEPARATOR, 3);
+            final String sortBy = checkSortKey(parts[0]);
+            final Long id = Long.valueOf(parts[1]);
+            final String raw = parts[2];
+            final Comparable<?> value;
+            if (ID.equals(sortBy)) {
+                value = Long.valueOf(raw);
+            } else if (AGE.equals(sortBy)) {
+                value = Integer.valueOf(raw);
+            } else {
+                value = raw;
+            }
+            return new PersonCursor(sortBy, value, id);
+        } catch (PersonServiceException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new PersonServiceException("Invalid cursor.", e, BAD_REQUEST, "scroll");
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((sortBy + SEPARATOR + id + SEPARATOR + value).getBytes(UTF_8));
+    }
+
+    private static Comparable<?> sortValue(final String sortBy, final Person person) {
+        switch (sortBy) {
+            case PersonSearchSpecification.FIRST_NAME:
+                return person.getFirstName();
+            case PersonSearchSpecification.LAST_NAME:
+                return person.getLastName();
+            case AGE:
+                return person.getAge();
+            default:
+                return person.getId();
+        }
+    }
+}
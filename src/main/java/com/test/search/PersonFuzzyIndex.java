@@ -0,0 +1,306 @@
+package com.test.search;
+
+import com.test.entity.Person;
+import com.test.service.PersonChangeListener;
+import lombok.Getter;
+import org.apache.commons.codec.language.DoubleMetaphone;
+import org.roaringbitmap.longlong.LongIterator;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory phonetic index over first and last names for typo tolerant search. Names are indexed under their Double
+ * Metaphone keys; a search takes the persons sharing a key with the term, scores each with a bounded edit distance
+ * and keeps only the best <code>limit</code> in a heap, so the cost does not grow with the size of the result.
+ * <p>
+ * A field scores 0.5 for sounding like the term plus up to 0.5 for spelling, 1 - distance / length when the edit
+ * distance is at most {@link #MAX_DISTANCE}. With both names given the score is the average of the two fields.
+ */
+@Component
+public class PersonFuzzyIndex implements PersonChangeListener {
+
+    public static final int MAX_DISTANCE = 2;
+
+    private static final int FIRST = 0;
+    private static final int LAST = 1;
+    private static final Comparator<Hit> WORST_FIRST = Comparator.comparingDouble(Hit::getScore)
+            .thenComparing(Comparator.comparingLong(Hit::getId).reversed());
+
+    private final DoubleMetaphone doubleMetaphone = new DoubleMetaphone();
+    private final List<Map<String, Roaring64NavigableMap>> postings = new ArrayList<>(2);
+    private final Map<Long, String[]> names = new HashMap<>();
+    /**
+     * Version of every indexed person and the ids deleted, saves reach the index after commit in no particular order.
+     */
+    private final Map<Long, Long> versions = new HashMap<>();
+    private final Roaring64NavigableMap deletedIds = new Roaring64NavigableMap();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Ids written while warming up, their loaded rows may be stale. Guarded by the write lock, null once ready.
+     */
+    private Set<Long> writtenDuringWarmUp = new HashSet<>();
+
+    private volatile boolean ready;
+
+    public PersonFuzzyIndex() {
+        postings.add(new HashMap<>());
+        postings.add(new HashMap<>());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * <p>
+     * Best matches of first and/or last name, ignoring case.
+     * </p>
+     *
+     * @param firstName Term for the first name, may be null.
+     * @param lastName  Term for the last name, may be null.
+     * @param limit     Maximum number of hits.
+     * @return Hits by descending score, ties by ascending id.
+     */
+    public List<Hit> search(final String firstName, final String lastName, final int limit) {
+        final String first = PersonNameIndex.normalize(firstName);
+        final String last = PersonNameIndex.normalize(lastName);
+        final int fields = (first == null ? 0 : 1) + (last == null ? 0 : 1);
+        if (fields == 0 || limit < 1) {
+            return Collections.emptyList();
+        }
+        final PriorityQueue<Hit> best = new PriorityQueue<>(limit + 1, WORST_FIRST);
+        lock.readLock().lock();
+        try {
+            final Roaring64NavigableMap firstMatches = match(FIRST, first);
+            final Roaring64NavigableMap lastMatches = match(LAST, last);
+            final Roaring64NavigableMap candidates = new Roaring64NavigableMap();
+            candidates.or(firstMatches);
+            candidates.or(lastMatches);
+            final LongIterator iterator = candidates.getLongIterator();
+            while (iterator.hasNext()) {
+                final long id = iterator.next();
+                final String[] indexed = names.get(id);
+                if (indexed == null) {
+                    continue;
+                }
+                final double score = (score(first, indexed[FIRST], firstMatches.contains(id))
+                        + score(last, indexed[LAST], lastMatches.contains(id))) / fields;
+                final Hit hit = new Hit(id, score);
+                if (best.size() < limit) {
+                    best.add(hit);
+                } else if (WORST_FIRST.compare(hit, best.peek()) > 0) {
+                    best.poll();
+                    best.add(hit);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        final List<Hit> hits = new ArrayList<>(best);
+        hits.sort(WORST_FIRST.reversed());
+        return hits;
+    }
+
+    @Override
+    public void saved(final Person person) {
+        lock.writeLock().lock();
+        try {
+            if (writtenDuringWarmUp != null) {
+                writtenDuringWarmUp.add(person.getId());
+            }
+            if (isNewer(person)) {
+                index(person);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void loaded(final Person person) {
+        lock.writeLock().lock();
+        try {
+            if ((writtenDuringWarmUp == null || !writtenDuringWarmUp.contains(person.getId())) && isNewer(person)) {
+                index(person);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void deleted(final Long id) {
+        lock.writeLock().lock();
+        try {
+            if (writtenDuringWarmUp != null) {
+                writtenDuringWarmUp.add(id);
+            }
+            deletedIds.addLong(id);
+            versions.remove(id);
+            final String[] previous = names.remove(id);
+            if (previous != null) {
+                unindex(id, previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void ready() {
+        lock.writeLock().lock();
+        try {
+            writtenDuringWarmUp = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        ready = true;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return names.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Roaring64NavigableMap match(final int field, final String term) {
+        final Roaring64NavigableMap matches = new Roaring64NavigableMap();
+        if (term != null) {
+            for (String key : keys(term)) {
+                final Roaring64NavigableMap posting = postings.get(field).get(key);
+                if (posting != null) {
+                    matches.or(posting);
+                }
+            }
+        }
+        return matches;
+    }
+
+    private static double score(final String term, final String name, final boolean soundsAlike) {
+        if (term == null || name == null) {
+            return 0;
+        }
+        final int distance = distance(term, name, MAX_DISTANCE);
+        final double spelling = distance > MAX_DISTANCE ? 0 : 1 - (double) distance / Math.max(term.length(), name.length());
+        return (soundsAlike ? 0.5 : 0) + 0.5 * spelling;
+    }
+
+    /**
+     * Levenshtein distance, or <code>max + 1</code> as soon as it is known to exceed <code>max</code>.
+     */
+    static int distance(final String a, final String b, final int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                final int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            final int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    private Set<String> keys(final String name) {
+        final Set<String> keys = new LinkedHashSet<>(2);
+        final String primary = doubleMetaphone.doubleMetaphone(name, false);
+        if (primary != null && !primary.isEmpty()) {
+            keys.add(primary);
+        }
+        final String alternate = doubleMetaphone.doubleMetaphone(name, true);
+        if (alternate != null && !alternate.isEmpty()) {
+            keys.add(alternate);
+        }
+        return keys;
+    }
+
+    /**
+     * @return Whether the person is newer than the indexed version of its id and not deleted, called under the lock.
+     */
+    private boolean isNewer(final Person person) {
+        if (deletedIds.contains(person.getId())) {
+            return false;
+        }
+        final Long indexed = versions.get(person.getId());
+        return indexed == null || indexed < Person.version(person);
+    }
+
+    private void index(final Person person) {
+        versions.put(person.getId(), Person.version(person));
+        final String[] indexed = {PersonNameIndex.normalize(person.getFirstName()),
+                PersonNameIndex.normalize(person.getLastName())};
+        final String[] previous = names.put(person.getId(), indexed);
+        if (previous != null) {
+            unindex(person.getId(), previous);
+        }
+        for (int field = FIRST; field <= LAST; field++) {
+            if (indexed[field] == null) {
+                continue;
+            }
+            for (String key : keys(indexed[field])) {
+                postings.get(field).computeIfAbsent(key, k -> new Roaring64NavigableMap()).addLong(person.getId());
+            }
+        }
+    }
+
+    private void unindex(final Long id, final String[] indexed) {
+        for (int field = FIRST; field <= LAST; field++) {
+            if (indexed[field] == null) {
+                continue;
+            }
+            final Map<String, Roaring64NavigableMap> fieldPostings = postings.get(field);
+            for (String key : keys(indexed[field])) {
+                final Roaring64NavigableMap posting = fieldPostings.get(key);
+                if (posting != null) {
+                    posting.removeLong(id);
+                    if (posting.isEmpty()) {
+                        fieldPostings.remove(key);
+                    }
+                }
+            }
+        }
+    }
+
+    @Getter
+    public static final class Hit {
+
+        private final long id;
+        private final double score;
+
+        Hit(final long id, final double score) {
+            this.id = id;
+            this.score = score;
+        }
+    }
+}
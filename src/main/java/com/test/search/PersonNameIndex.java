@@ -0,0 +1,241 @@
+package com.test.search;
+
+import com.test.entity.Person;
+import com.test.service.PersonChangeListener;
+import org.roaringbitmap.longlong.LongIterator;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over first and last names. A contains search intersects the posting bitmaps of every
+ * trigram of the term and checks the few remaining candidates against the indexed names, instead of scanning every
+ * row with <code>LIKE '%term%'</code>.
+ */
+@Component
+public class PersonNameIndex implements PersonChangeListener {
+
+    public static final int GRAM = 3;
+
+    private static final int FIRST = 0;
+    private static final int LAST = 1;
+
+    private final List<Map<String, Roaring64NavigableMap>> postings = new ArrayList<>(2);
+    private final Map<Long, String[]> names = new HashMap<>();
+    /**
+     * Version of every indexed person and the ids deleted, saves reach the index after commit in no particular order.
+     */
+    private final Map<Long, Long> versions = new HashMap<>();
+    private final Roaring64NavigableMap deletedIds = new Roaring64NavigableMap();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Ids written while warming up, their loaded rows may be stale. Guarded by the write lock, null once ready.
+     */
+    private Set<Long> writtenDuringWarmUp = new HashSet<>();
+
+    private volatile boolean ready;
+
+    public PersonNameIndex() {
+        postings.add(new HashMap<>());
+        postings.add(new HashMap<>());
+    }
+
+    /**
+     * @return true when the index is built and every given term is long enough to be answered from trigrams.
+     */
+    public boolean canSearch(final String firstName, final String lastName) {
+        return ready && (firstName != null || lastName != null)
+                && (firstName == null || firstName.length() >= GRAM)
+                && (lastName == null || lastName.length() >= GRAM);
+    }
+
+    /**
+     * <p>
+     * Find ids of persons whose first name contains <code>firstName</code> or whose last name contains
+     * <code>lastName</code>, ignoring case.
+     * </p>
+     *
+     * @return Matching ids in ascending order.
+     */
+    public List<Long> search(final String firstName, final String lastName) {
+        lock.readLock().lock();
+        try {
+            final Roaring64NavigableMap matches = match(FIRST, firstName);
+            matches.or(match(LAST, lastName));
+            final List<Long> ids = new ArrayList<>(matches.getIntCardinality());
+            final LongIterator iterator = matches.getLongIterator();
+            while (iterator.hasNext()) {
+                ids.add(iterator.next());
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void saved(final Person person) {
+        lock.writeLock().lock();
+        try {
+            if (writtenDuringWarmUp != null) {
+                writtenDuringWarmUp.add(person.getId());
+            }
+            if (isNewer(person)) {
+                index(person);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void loaded(final Person person) {
+        lock.writeLock().lock();
+        try {
+            if ((writtenDuringWarmUp == null || !writtenDuringWarmUp.contains(person.getId())) && isNewer(person)) {
+                index(person);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void deleted(final Long id) {
+        lock.writeLock().lock();
+        try {
+            if (writtenDuringWarmUp != null) {
+                writtenDuringWarmUp.add(id);
+            }
+            deletedIds.addLong(id);
+            versions.remove(id);
+            final String[] previous = names.remove(id);
+            if (previous != null) {
+                unindex(id, previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void ready() {
+        lock.writeLock().lock();
+        try {
+            writtenDuringWarmUp = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        ready = true;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return names.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Roaring64NavigableMap match(final int field, final String term) {
+        final Roaring64NavigableMap candidates = new Roaring64NavigableMap();
+        if (term == null) {
+            return candidates;
+        }
+        final String normalized = normalize(term);
+        boolean first = true;
+        for (String gram : grams(normalized)) {
+            final Roaring64NavigableMap posting = postings.get(field).get(gram);
+            if (posting == null) {
+                return new Roaring64NavigableMap();
+            }
+            if (first) {
+                candidates.or(posting);
+                first = false;
+            } else {
+                candidates.and(posting);
+            }
+        }
+        // trigrams can match out of order, confirm the term really is a substring
+        final Roaring64NavigableMap matches = new Roaring64NavigableMap();
+        final LongIterator iterator = candidates.getLongIterator();
+        while (iterator.hasNext()) {
+            final long id = iterator.next();
+            final String[] indexed = names.get(id);
+            if (indexed != null && indexed[field] != null && indexed[field].contains(normalized)) {
+                matches.addLong(id);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * @return Whether the person is newer than the indexed version of its id and not deleted, called under the lock.
+     */
+    private boolean isNewer(final Person person) {
+        if (deletedIds.contains(person.getId())) {
+            return false;
+        }
+        final Long indexed = versions.get(person.getId());
+        return indexed == null || indexed < Person.version(person);
+    }
+
+    private void index(final Person person) {
+        versions.put(person.getId(), Person.version(person));
+        final String[] indexed = {normalize(person.getFirstName()), normalize(person.getLastName())};
+        final String[] previous = names.put(person.getId(), indexed);
+        if (previous != null) {
+            unindex(person.getId(), previous);
+        }
+        for (int field = FIRST; field <= LAST; field++) {
+            for (String gram : grams(indexed[field])) {
+                postings.get(field).computeIfAbsent(gram, key -> new Roaring64NavigableMap()).addLong(person.getId());
+            }
+        }
+    }
+
+    private void unindex(final Long id, final String[] indexed) {
+        for (int field = FIRST; field <= LAST; field++) {
+            final Map<String, Roaring64NavigableMap> fieldPostings = postings.get(field);
+            for (String gram : grams(indexed[field])) {
+                final Roaring64NavigableMap posting = fieldPostings.get(gram);
+                if (posting != null) {
+                    posting.removeLong(id);
+                    if (posting.isEmpty()) {
+                        fieldPostings.remove(gram);
+                    }
+                }
+            }
+        }
+    }
+
+    static String normalize(final String name) {
+        return name == null ? null : name.toLowerCase(Locale.ROOT);
+    }
+
+    static List<String> grams(final String name) {
+        if (name == null || name.length() < GRAM) {
+            return Collections.emptyList();
+        }
+        final List<String> grams = new ArrayList<>(name.length() - GRAM + 1);
+        for (int i = 0; i + GRAM <= name.length(); i++) {
+            final String gram = name.substring(i, i + GRAM);
+            if (!grams.contains(gram)) {
+                grams.add(gram);
+            }
+        }
+        return grams;
+    }
+}
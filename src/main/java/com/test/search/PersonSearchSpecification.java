@@ -1,9 +1,14 @@
 package com.test.search;
 
 import com.test.entity.Person;
+import com.test.request.PersonCriteria;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
 
+import javax.persistence.criteria.Predicate;
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.springframework.data.jpa.domain.Specification.where;
 
 @Component
@@ -11,33 +16,91 @@ public class PersonSearchSpecification extends BaseSpecification<Person, String>
 
     public static final String FIRST_NAME = "firstName";
     public static final String LAST_NAME = "lastName";
+    public static final String FIRST_NAME_LOWER = "firstNameLower";
+    public static final String LAST_NAME_LOWER = "lastNameLower";
+    public static final String FIRST_NAME_LOWER_COLUMN = "first_name_lower";
+    public static final String LAST_NAME_LOWER_COLUMN = "last_name_lower";
+    public static final String FAVOURITE_COLOUR = "favouriteColour";
+    public static final String AGE = "age";
 
+    /**
+     * Search on first or last name ignoring case, prefix when every term ends with <code>*</code>, contains otherwise.
+     */
     public Specification<Person> getNameFilter(String firstName, String lastName) {
-        return ((root, criteriaQuery, criteriaBuilder) ->
-                where(name(firstName, FIRST_NAME).or(contains(firstName, FIRST_NAME).or(name(lastName, LAST_NAME)))
-                        .or(contains(lastName, LAST_NAME)))
-                        .toPredicate(root, criteriaQuery,
-                                criteriaBuilder));
+        return getNameFilter(firstName, lastName, NameMatch.AUTO);
     }
 
-
-    public Specification<Person> name(String request, String attribute) {
+    public Specification<Person> getNameFilter(String firstName, String lastName, NameMatch match) {
+        final List<NameCondition> conditions = getNameConditions(firstName, lastName, match);
         return (root, query, cb) -> {
-            if (request == null) {
+            if (conditions.isEmpty()) {
                 return null;
             }
-            return cb.like(cb.lower(root.get(attribute)), startsWith(request));
+            return cb.or(conditions.stream()
+                    .map(condition -> cb.like(root.get(condition.getAttribute()), condition.getPattern(), NameCondition.ESCAPE))
+                    .toArray(Predicate[]::new));
         };
+    }
 
+    /**
+     * <p>
+     * Alternatives of a name search on the lower cased shadow columns. A prefix pattern lets the database range scan
+     * the column index, a contains pattern has to check every row.
+     * </p>
+     *
+     * @param firstName Term for the first name, may be null.
+     * @param lastName  Term for the last name, may be null.
+     * @param match     How the terms are matched, {@link NameMatch#AUTO} picks the plan from the terms.
+     * @return One condition per given term, empty when none is given.
+     */
+    public List<NameCondition> getNameConditions(String firstName, String lastName, NameMatch match) {
+        final NameMatch resolved = match.resolve(firstName, lastName);
+        final List<NameCondition> conditions = new ArrayList<>(2);
+        if (firstName != null) {
+            conditions.add(new NameCondition(FIRST_NAME_LOWER, FIRST_NAME_LOWER_COLUMN,
+                    pattern(NameMatch.term(firstName), resolved)));
+        }
+        if (lastName != null) {
+            conditions.add(new NameCondition(LAST_NAME_LOWER, LAST_NAME_LOWER_COLUMN,
+                    pattern(NameMatch.term(lastName), resolved)));
+        }
+        return conditions;
     }
 
-    public Specification<Person> contains(String request, String attribute) {
+    private static String pattern(String term, NameMatch match) {
+        return match == NameMatch.PREFIX ? startsWith(term) : containsIn(term);
+    }
+
+    public Specification<Person> getCriteriaFilter(PersonCriteria criteria) {
+        return where(equalsLower(criteria.getFirstName(), FIRST_NAME_LOWER))
+                .and(equalsLower(criteria.getLastName(), LAST_NAME_LOWER))
+                .and(equalsIgnoreCase(criteria.getFavouriteColour(), FAVOURITE_COLOUR))
+                .and(ageAtLeast(criteria.getMinAge()))
+                .and(ageAtMost(criteria.getMaxAge()));
+    }
+
+    public Specification<Person> equalsIgnoreCase(String request, String attribute) {
         return (root, query, cb) -> {
             if (request == null) {
                 return null;
             }
-            return cb.like(cb.lower(root.get(attribute)), containsIn(request));
+            return cb.equal(cb.lower(root.get(attribute)), request.toLowerCase());
         };
+    }
+
+    /**
+     * Case insensitive equality on a lower cased shadow column, which its index can answer, unlike
+     * <code>lower(column)</code>.
+     */
+    public Specification<Person> equalsLower(String request, String lowerAttribute) {
+        return (root, query, cb) -> request == null ? null : cb.equal(root.get(lowerAttribute), Person.lower(request));
+    }
+
+    public Specification<Person> ageAtLeast(Integer age) {
+        return (root, query, cb) -> age == null ? null : cb.greaterThanOrEqualTo(root.get(AGE), age);
+    }
 
+    public Specification<Person> ageAtMost(Integer age) {
+        return (root, query, cb) -> age == null ? null : cb.lessThanOrEqualTo(root.get(AGE), age);
     }
 }
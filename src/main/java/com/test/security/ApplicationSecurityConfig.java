@@ -1,29 +1,75 @@
 package com.test.security;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import java.time.Duration;
 
 @Configuration
 @EnableWebSecurity
+@Profile("!reactive")
 public class ApplicationSecurityConfig extends WebSecurityConfigurerAdapter {
 
+    private final boolean credentialCacheEnabled;
+    private final long credentialCacheMaximumSize;
+    private final Duration credentialCacheExpireAfterWrite;
+
+    @Autowired
+    public ApplicationSecurityConfig(@Value("${person.security.credential-cache.enabled:true}") boolean credentialCacheEnabled,
+                                     @Value("${person.security.credential-cache.maximum-size:10000}") long credentialCacheMaximumSize,
+                                     @Value("${person.security.credential-cache.expire-after-write:5m}") Duration credentialCacheExpireAfterWrite) {
+        this.credentialCacheEnabled = credentialCacheEnabled;
+        this.credentialCacheMaximumSize = credentialCacheMaximumSize;
+        this.credentialCacheExpireAfterWrite = credentialCacheExpireAfterWrite;
+    }
+
+    /**
+     * Only a bean, with its metrics, when the credential cache is enabled.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "person.security.credential-cache.enabled", havingValue = "true", matchIfMissing = true)
+    public CachingAuthenticationProvider cachingAuthenticationProvider() {
+        return new CachingAuthenticationProvider(daoAuthenticationProvider(), credentialCacheMaximumSize,
+                credentialCacheExpireAfterWrite);
+    }
 
     @Override
     protected void configure(AuthenticationManagerBuilder auth) throws Exception {
-        auth.inMemoryAuthentication().passwordEncoder(new BCryptPasswordEncoder()).withUser("admin")
-                .password("$2a$10$/dFY46ydzO.iSJ4G/FRXF.WWyJZeIY5kKj5qVzX.0UY.WSAbOVHPi").roles("ADMIN");
+        final AuthenticationProvider provider = credentialCacheEnabled ? cachingAuthenticationProvider()
+                : daoAuthenticationProvider();
+        auth.authenticationProvider(provider);
     }
 
     @Override
     protected void configure(HttpSecurity http) throws Exception {
         http.csrf().disable()
+                .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+                .and()
                 .httpBasic()
                 .and()
                 .authorizeRequests()
                 .anyRequest().authenticated();
     }
+
+    static DaoAuthenticationProvider daoAuthenticationProvider() {
+        final DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setPasswordEncoder(new BCryptPasswordEncoder());
+        provider.setUserDetailsService(new InMemoryUserDetailsManager(User.withUsername("admin")
+                .password("$2a$10$/dFY46ydzO.iSJ4G/FRXF.WWyJZeIY5kKj5qVzX.0UY.WSAbOVHPi").roles("ADMIN").build()));
+        return provider;
+    }
 }
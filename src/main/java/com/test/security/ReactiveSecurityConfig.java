@@ -0,0 +1,70 @@
+package com.test.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.ReactiveAuthenticationManagerAdapter;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+
+import java.time.Duration;
+
+/**
+ * Security of the reactive profile, same users and credential cache as {@link ApplicationSecurityConfig}. The adapter
+ * runs the blocking, deliberately slow password check off the event loop.
+ */
+@Configuration
+@EnableWebFluxSecurity
+@Profile("reactive")
+public class ReactiveSecurityConfig {
+
+    private final boolean credentialCacheEnabled;
+    private final long credentialCacheMaximumSize;
+    private final Duration credentialCacheExpireAfterWrite;
+
+    @Autowired
+    public ReactiveSecurityConfig(@Value("${person.security.credential-cache.enabled:true}") boolean credentialCacheEnabled,
+                                  @Value("${person.security.credential-cache.maximum-size:10000}") long credentialCacheMaximumSize,
+                                  @Value("${person.security.credential-cache.expire-after-write:5m}") Duration credentialCacheExpireAfterWrite) {
+        this.credentialCacheEnabled = credentialCacheEnabled;
+        this.credentialCacheMaximumSize = credentialCacheMaximumSize;
+        this.credentialCacheExpireAfterWrite = credentialCacheExpireAfterWrite;
+    }
+
+    /**
+     * Only a bean, with its metrics, when the credential cache is enabled.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "person.security.credential-cache.enabled", havingValue = "true", matchIfMissing = true)
+    public CachingAuthenticationProvider cachingAuthenticationProvider() {
+        return new CachingAuthenticationProvider(ApplicationSecurityConfig.daoAuthenticationProvider(),
+                credentialCacheMaximumSize, credentialCacheExpireAfterWrite);
+    }
+
+    @Bean
+    public ReactiveAuthenticationManager reactiveAuthenticationManager() {
+        final AuthenticationProvider provider = credentialCacheEnabled ? cachingAuthenticationProvider()
+                : ApplicationSecurityConfig.daoAuthenticationProvider();
+        return new ReactiveAuthenticationManagerAdapter(new ProviderManager(provider));
+    }
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+        return http.csrf().disable()
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .httpBasic().authenticationManager(reactiveAuthenticationManager())
+                .and()
+                .authorizeExchange()
+                .anyExchange().authenticated()
+                .and()
+                .build();
+    }
+}
@@ -0,0 +1,25 @@
+package com.test.service;
+
+import com.test.exception.PersonServiceException;
+import com.test.io.PersonFormat;
+import com.test.response.ImportReport;
+import org.springframework.lang.NonNull;
+
+import java.io.InputStream;
+
+public interface IPersonImportService {
+
+    /**
+     * <p>
+     * Import persons from an NDJSON or CSV upload. The input is parsed one record at a time, every record is
+     * validated with the {@link com.test.request.PersonRequest} constraints and valid records are committed in fixed
+     * size chunks.
+     * </p>
+     *
+     * @param format      Format of the upload.
+     * @param inputStream Upload body, read incrementally.
+     * @return {@link ImportReport} with counts and the errors of every rejected line.
+     * @throws PersonServiceException when too many imports are running or the upload can't be read.
+     */
+    ImportReport importAll(final @NonNull PersonFormat format, final @NonNull InputStream inputStream) throws PersonServiceException;
+}
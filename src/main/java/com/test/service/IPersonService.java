@@ -2,11 +2,22 @@ package com.test.service;
 
 import com.test.entity.Person;
 import com.test.exception.PersonServiceException;
+import com.test.request.PersonBulkUpdateRequest;
+import com.test.request.PersonPatchRequest;
 import com.test.request.PersonRequest;
+import com.test.request.PersonSelection;
+import com.test.response.BatchSaveResponse;
+import com.test.response.BulkResponse;
+import com.test.response.CursorPage;
+import com.test.response.PersonLookupResponse;
+import com.test.response.PersonMatch;
+import com.test.response.SearchPlanResponse;
+import com.test.search.NameMatch;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.lang.NonNull;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface IPersonService {
 
@@ -21,6 +32,18 @@ public interface IPersonService {
      */
     Person save(final @NonNull PersonRequest personRequest) throws PersonServiceException;
 
+    /**
+     * <p>
+     * Storing a batch of persons to database. Every request is validated on its own, valid ones are stored in
+     * chunks, one transaction per chunk, and invalid ones are reported back without failing the whole batch.
+     * </p>
+     *
+     * @param personRequests List of {@link PersonRequest} to be stored in database.
+     * @return {@link BatchSaveResponse} with generated ids in request order and per item errors.
+     * @throws PersonServiceException
+     */
+    BatchSaveResponse saveAll(final @NonNull List<PersonRequest> personRequests) throws PersonServiceException;
+
     /**
      * <p>
      * Find a person with given id.
@@ -43,6 +66,31 @@ public interface IPersonService {
      */
     List<Person> findAll(final @NonNull PageRequest pageRequest) throws PersonServiceException;
 
+    /**
+     * <p>
+     * Find a page of persons with keyset pagination. Unlike {@link #findAll(PageRequest)} no rows are skipped and no
+     * total count is computed, so a deep page costs the same as the first one.
+     * </p>
+     *
+     * @param sortBy   Sort key, ignored when a cursor is given as the cursor carries its own.
+     * @param pageSize Maximum number of persons in the page.
+     * @param cursor   Opaque token from the previous page, null for the first page.
+     * @return {@link CursorPage} with the persons and the token of the next page.
+     * @throws PersonServiceException
+     */
+    CursorPage<Person> scroll(final @NonNull String sortBy, final int pageSize, final String cursor) throws PersonServiceException;
+
+    /**
+     * <p>
+     * Stream every person stored in memory DB ordered by id, in one pass and one read only transaction. Each person
+     * is detached once the consumer returns so memory use does not grow with the size of the table.
+     * </p>
+     *
+     * @param consumer Receives every person one at a time.
+     * @throws PersonServiceException
+     */
+    void exportAll(final @NonNull Consumer<Person> consumer) throws PersonServiceException;
+
     /**
      * <p>
      * Find all person who's first name matches like pattern & stored in memory DB.
@@ -55,6 +103,33 @@ public interface IPersonService {
      */
     List<Person> findAllByName(final String firstName, final String lastName) throws PersonServiceException;
 
+    /**
+     * <p>
+     * Find all person whose first or last name matches the terms, ignoring case. A prefix search is answered by the
+     * lower cased name indexes of the database, a contains search by the in-memory name index when it can.
+     * </p>
+     *
+     * @param firstName FirstName of person
+     * @param lastName  LastName of person
+     * @param match     Prefix or contains match, or {@link NameMatch#AUTO} to pick it from the terms.
+     * @return List of Person object if found any else empty list.
+     * @throws PersonServiceException
+     */
+    List<Person> findAllByName(final String firstName, final String lastName, final @NonNull NameMatch match) throws PersonServiceException;
+
+    /**
+     * <p>
+     * Describe how a name search would be answered, including the database query plan.
+     * </p>
+     *
+     * @param firstName FirstName of person
+     * @param lastName  LastName of person
+     * @param match     Prefix or contains match, or {@link NameMatch#AUTO} to pick it from the terms.
+     * @return Resolved match, source and query plan.
+     * @throws PersonServiceException
+     */
+    SearchPlanResponse explainByName(final String firstName, final String lastName, final @NonNull NameMatch match) throws PersonServiceException;
+
     /**
      * <p>
      * Delete a person by person id.
@@ -74,4 +149,68 @@ public interface IPersonService {
      * @param person
      */
     void update(final @NonNull Long id, final @NonNull PersonRequest person) throws PersonServiceException;
+
+    /**
+     * <p>
+     * Change only the fields present in the patch with a single update statement. The stored version is incremented,
+     * when an expected version is given the patch is rejected if the person has been changed since.
+     * </p>
+     *
+     * @param id              Person's id.
+     * @param patch           Fields to change, at least one.
+     * @param expectedVersion Version the patch is based on, null to patch the current version.
+     * @return Patched person with its new version.
+     * @throws PersonServiceException NOT_FOUND for an unknown id, CONFLICT when the version does not match.
+     */
+    Person patch(final @NonNull Long id, final @NonNull PersonPatchRequest patch, final Long expectedVersion) throws PersonServiceException;
+
+    /**
+     * <p>
+     * Delete the selected persons with set based statements, one transaction per chunk. Persons are not loaded.
+     * </p>
+     *
+     * @param selection Ids or criteria, exactly one of them.
+     * @return Number of persons deleted and chunks used.
+     * @throws PersonServiceException BAD_REQUEST for an invalid selection.
+     */
+    BulkResponse deleteAll(final @NonNull PersonSelection selection) throws PersonServiceException;
+
+    /**
+     * <p>
+     * Set favourite colour and/or age of the selected persons with set based statements, one transaction per chunk.
+     * Every updated person gets a new version.
+     * </p>
+     *
+     * @param request Ids or criteria, exactly one of them, and the new values.
+     * @return Number of persons updated and chunks used.
+     * @throws PersonServiceException BAD_REQUEST for an invalid selection or nothing to update.
+     */
+    BulkResponse updateAll(final @NonNull PersonBulkUpdateRequest request) throws PersonServiceException;
+
+    /**
+     * <p>
+     * Find many persons by id at once. Cached persons are served from the cache, the rest with chunked
+     * <code>id in (...)</code> queries.
+     * </p>
+     *
+     * @param ids Persons' ids, duplicates are returned once.
+     * @return Found persons in request order and the ids without a person.
+     * @throws PersonServiceException BAD_REQUEST when more ids than a batch allows are requested.
+     */
+    PersonLookupResponse lookup(final @NonNull List<Long> ids) throws PersonServiceException;
+
+    /**
+     * <p>
+     * Typo tolerant search on first and/or last name: persons whose name sounds like the term, ranked by how close
+     * the spelling is.
+     * </p>
+     *
+     * @param firstName Term for the first name, may be null.
+     * @param lastName  Term for the last name, may be null.
+     * @param limit     Maximum number of matches.
+     * @return Best matches by descending score.
+     * @throws PersonServiceException BAD_REQUEST without a term or with an invalid limit, SERVICE_UNAVAILABLE while
+     *                                the index is warming up.
+     */
+    List<PersonMatch> fuzzySearch(final String firstName, final String lastName, final int limit) throws PersonServiceException;
 }
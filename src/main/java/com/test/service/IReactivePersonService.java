@@ -0,0 +1,80 @@
+package com.test.service;
+
+import com.test.entity.Person;
+import com.test.exception.PersonServiceException;
+import com.test.request.PersonRequest;
+import com.test.search.NameMatch;
+import org.springframework.lang.NonNull;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link IPersonService}. Errors are signalled as {@link PersonServiceException} with the
+ * same status codes the blocking service throws.
+ */
+public interface IReactivePersonService {
+
+    /**
+     * <p>
+     * Storing person entity to database.
+     * </p>
+     *
+     * @param personRequest {@link PersonRequest} request to be stored in database.
+     * @return Stored person.
+     */
+    Mono<Person> save(final @NonNull PersonRequest personRequest);
+
+    /**
+     * <p>
+     * Find person by id.
+     * </p>
+     *
+     * @param id Person's id.
+     * @return Person, or NOT_FOUND error.
+     */
+    Mono<Person> findById(final @NonNull Long id);
+
+    /**
+     * <p>
+     * Stream persons in id order, each row is read when the subscriber requests it.
+     * </p>
+     *
+     * @param afterId Last id already read, null to start from the first person.
+     * @param limit   Maximum number of persons, null for all.
+     * @return Persons after the id.
+     */
+    Flux<Person> findAll(final Long afterId, final Integer limit);
+
+    /**
+     * <p>
+     * Stream all person whose first or last name matches the terms, ignoring case.
+     * </p>
+     *
+     * @param firstName FirstName of person
+     * @param lastName  LastName of person
+     * @param match     Prefix or contains match, or {@link NameMatch#AUTO} to pick it from the terms.
+     * @return Matching persons in id order.
+     */
+    Flux<Person> findAllByName(final String firstName, final String lastName, final @NonNull NameMatch match);
+
+    /**
+     * <p>
+     * Update person details.
+     * </p>
+     *
+     * @param id            Person's id.
+     * @param personRequest New details.
+     * @return Updated person, or NOT_FOUND error.
+     */
+    Mono<Person> update(final @NonNull Long id, final @NonNull PersonRequest personRequest);
+
+    /**
+     * <p>
+     * Delete a person by person id.
+     * </p>
+     *
+     * @param id Person's id.
+     * @return Completes once deleted, or NOT_FOUND error.
+     */
+    Mono<Void> delete(final @NonNull Long id);
+}
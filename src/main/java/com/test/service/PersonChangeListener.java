@@ -0,0 +1,49 @@
+package com.test.service;
+
+import com.test.entity.Person;
+
+/**
+ * In-process structure derived from the persons table. {@link com.test.service.impl.PersonService} calls it after every
+ * committed write, and once per stored person while warming up at start-up.
+ * <p>
+ * Warm-up runs while the application already serves writes, so a row passed to {@link #loaded(Person)} may be older
+ * than a write already passed to {@link #saved(Person)} or {@link #deleted(Long)}. Implementations must let the write
+ * win.
+ */
+public interface PersonChangeListener {
+
+    /**
+     * <p>
+     * A person was stored, either created or updated.
+     * </p>
+     *
+     * @param person Stored person.
+     */
+    void saved(final Person person);
+
+    /**
+     * <p>
+     * A person was deleted.
+     * </p>
+     *
+     * @param id Person's id.
+     */
+    void deleted(final Long id);
+
+    /**
+     * <p>
+     * A person was read from the table during warm-up.
+     * </p>
+     *
+     * @param person Stored person, possibly older than a concurrent write.
+     */
+    void loaded(final Person person);
+
+    /**
+     * <p>
+     * Warm-up finished, every stored person has been passed to {@link #loaded(Person)}.
+     * </p>
+     */
+    default void ready() {
+    }
+}
@@ -0,0 +1,113 @@
+package com.test.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.test.exception.PersonServiceException;
+import com.test.io.PersonFormat;
+import com.test.io.PersonImportReader;
+import com.test.io.PersonImportRecord;
+import com.test.request.PersonRequest;
+import com.test.response.BatchItemError;
+import com.test.response.BatchSaveResponse;
+import com.test.response.ImportLineError;
+import com.test.response.ImportReport;
+import com.test.service.IPersonImportService;
+import com.test.service.IPersonService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.TOO_MANY_REQUESTS;
+
+@Slf4j
+@Service
+public class PersonImportService implements IPersonImportService {
+
+    private final IPersonService personService;
+    private final ObjectMapper objectMapper;
+    private final Semaphore permits;
+    private final int chunkSize;
+    private final int maxErrors;
+
+    @Autowired
+    public PersonImportService(IPersonService personService, ObjectMapper objectMapper,
+                               @Value("${person.import.max-concurrent:1}") int maxConcurrent,
+                               @Value("${person.batch.chunk-size:500}") int chunkSize,
+                               @Value("${person.import.max-errors:10000}") int maxErrors) {
+        this.personService = personService;
+        this.objectMapper = objectMapper;
+        this.permits = new Semaphore(maxConcurrent);
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+    }
+
+    @Override
+    public ImportReport importAll(final @NonNull PersonFormat format, final @NonNull InputStream inputStream) throws PersonServiceException {
+        if (!permits.tryAcquire()) {
+            throw new PersonServiceException("Another import is running, retry later.", TOO_MANY_REQUESTS, "importAll");
+        }
+        final ImportReport report = new ImportReport();
+        try (PersonImportReader reader = PersonImportReader.of(format, inputStream, objectMapper)) {
+            final List<PersonRequest> requests = new ArrayList<>(chunkSize);
+            final long[] lines = new long[chunkSize];
+            PersonImportRecord record;
+            while ((record = reader.next()) != null) {
+                report.setProcessed(report.getProcessed() + 1);
+                if (record.getError() != null) {
+                    addError(report, record.getLine(), Collections.singletonList(record.getError()));
+                    continue;
+                }
+                lines[requests.size()] = record.getLine();
+                requests.add(record.getRequest());
+                if (requests.size() == chunkSize) {
+                    commit(requests, lines, report);
+                }
+            }
+            commit(requests, lines, report);
+            report.getErrors().sort(Comparator.comparingLong(ImportLineError::getLine));
+            log.info("Finished import of {} records, {} imported and {} failed.", report.getProcessed(),
+                    report.getImported(), report.getFailed());
+            return report;
+        } catch (IOException e) {
+            log.error("Failed to read import after {} records. Exception:: ", report.getProcessed(), e);
+            throw new PersonServiceException("Failed to read import after " + report.getProcessed() + " records.", e,
+                    BAD_REQUEST, "importAll");
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void commit(final List<PersonRequest> requests, final long[] lines, final ImportReport report) {
+        if (requests.isEmpty()) {
+            return;
+        }
+        final BatchSaveResponse response = personService.saveAll(requests);
+        report.setImported(report.getImported() + response.getSaved());
+        report.setChunks(report.getChunks() + 1);
+        for (BatchItemError error : response.getErrors()) {
+            addError(report, lines[error.getIndex()], error.getErrors());
+        }
+        requests.clear();
+        log.info("Import progress: {} records processed, {} imported and {} failed.", report.getProcessed(),
+                report.getImported(), report.getFailed());
+    }
+
+    private void addError(final ImportReport report, final long line, final List<String> errors) {
+        report.setFailed(report.getFailed() + 1);
+        if (report.getErrors().size() < maxErrors) {
+            report.getErrors().add(new ImportLineError(line, errors));
+        } else {
+            report.setErrorsTruncated(true);
+        }
+    }
+}
@@ -1,35 +1,132 @@
 package com.test.service.impl;
 
+import com.test.cache.PersonCache;
+import com.test.cache.PersonIdFilter;
+import com.test.cache.PersonReadCoalescer;
 import com.test.entity.Person;
+import com.test.exception.PersonNotFoundException;
 import com.test.exception.PersonServiceException;
 import com.test.repository.PersonRepository;
+import com.test.request.PersonBulkUpdateRequest;
+import com.test.request.PersonPatchRequest;
 import com.test.request.PersonRequest;
+import com.test.request.PersonSelection;
+import com.test.response.BatchItemError;
+import com.test.response.BatchSaveResponse;
+import com.test.response.BulkResponse;
+import com.test.response.CursorPage;
+import com.test.response.PersonLookupResponse;
+import com.test.response.PersonMatch;
+import com.test.response.SearchPlanResponse;
+import com.test.search.NameMatch;
+import com.test.search.PersonCursor;
+import com.test.search.PersonFuzzyIndex;
+import com.test.search.PersonNameIndex;
 import com.test.search.PersonSearchSpecification;
 import com.test.service.IPersonService;
+import com.test.service.PersonChangeListener;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.CONFLICT;
 import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
-import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
 
 @Slf4j
 @Service
 public class PersonService implements IPersonService {
 
+    private static final int IN_CHUNK_SIZE = 1000;
+
     private final PersonRepository personRepository;
     private final PersonSearchSpecification personSearchSpecification;
+    private final PersonNameIndex personNameIndex;
+    private final PersonFuzzyIndex personFuzzyIndex;
+    private final PersonCache personCache;
+    private final PersonIdFilter personIdFilter;
+    private final PersonReadCoalescer personReadCoalescer;
+    private final List<PersonChangeListener> changeListeners;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final int batchChunkSize;
+    private final int batchMaxSize;
+    private final int maxPageSize;
 
     @Autowired
-    public PersonService(PersonRepository personRepository, PersonSearchSpecification personSearchSpecification) {
+    public PersonService(PersonRepository personRepository, PersonSearchSpecification personSearchSpecification,
+                         PersonNameIndex personNameIndex, PersonFuzzyIndex personFuzzyIndex,
+                         PersonCache personCache, PersonIdFilter personIdFilter,
+                         PersonReadCoalescer personReadCoalescer, List<PersonChangeListener> changeListeners,
+                         Validator validator, PlatformTransactionManager transactionManager,
+                         @Value("${person.batch.chunk-size:500}") int batchChunkSize,
+                         @Value("${person.batch.max-size:100000}") int batchMaxSize,
+                         @Value("${person.page.max-size:1000}") int maxPageSize) {
         this.personRepository = personRepository;
         this.personSearchSpecification = personSearchSpecification;
+        this.personNameIndex = personNameIndex;
+        this.personFuzzyIndex = personFuzzyIndex;
+        this.personCache = personCache;
+        this.personIdFilter = personIdFilter;
+        this.personReadCoalescer = personReadCoalescer;
+        this.changeListeners = changeListeners;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.batchChunkSize = batchChunkSize;
+        this.batchMaxSize = batchMaxSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * Feeds every stored person to the change listeners once the application is up, so derived structures such as
+     * the name index start from the current table content.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        final AtomicLong loaded = new AtomicLong();
+        try {
+            exportAll(person -> {
+                changeListeners.forEach(changeListener -> changeListener.loaded(person));
+                loaded.incrementAndGet();
+            });
+            log.info("Warmed up {} change listeners with {} persons.", changeListeners.size(), loaded.get());
+        } catch (Exception e) {
+            log.error("Failed to warm up change listeners, they stay on the database path. Exception:: ", e);
+            return;
+        }
+        changeListeners.forEach(PersonChangeListener::ready);
     }
 
     @Override
@@ -37,18 +134,73 @@ public class PersonService implements IPersonService {
         try {
             final Person person = new Person();
             BeanUtils.copyProperties(personRequest, person);
-            return personRepository.save(person);
+            return saved(personRepository.save(person));
         } catch (Exception e) {
             log.error("Failed to save person {}. Exception:: ", personRequest, e);
             throw new PersonServiceException("Failed to save person.", e, INTERNAL_SERVER_ERROR, "save");
         }
     }
 
+    @Override
+    public BatchSaveResponse saveAll(final @NonNull List<PersonRequest> personRequests) throws PersonServiceException {
+        if (personRequests.size() > batchMaxSize) {
+            throw new PersonServiceException("Batch can't have more than " + batchMaxSize + " persons.", BAD_REQUEST, "saveAll");
+        }
+        final Long[] ids = new Long[personRequests.size()];
+        final List<BatchItemError> errors = new ArrayList<>();
+        final List<Integer> valid = new ArrayList<>(personRequests.size());
+        for (int index = 0; index < personRequests.size(); index++) {
+            final List<String> violations = validate(personRequests.get(index));
+            if (violations.isEmpty()) {
+                valid.add(index);
+            } else {
+                errors.add(new BatchItemError(index, violations));
+            }
+        }
+        for (int from = 0; from < valid.size(); from += batchChunkSize) {
+            final List<Integer> chunk = valid.subList(from, Math.min(from + batchChunkSize, valid.size()));
+            final List<Person> persons = new ArrayList<>(chunk.size());
+            for (Integer index : chunk) {
+                final Person person = new Person();
+                BeanUtils.copyProperties(personRequests.get(index), person);
+                persons.add(person);
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> personRepository.saveAll(persons));
+            } catch (Exception e) {
+                log.error("Failed to save chunk of {} persons starting at index {}. Exception:: ", chunk.size(), chunk.get(0), e);
+                for (Integer index : chunk) {
+                    errors.add(new BatchItemError(index, Collections.singletonList("Failed to save person.")));
+                }
+                continue;
+            }
+            for (int i = 0; i < chunk.size(); i++) {
+                ids[chunk.get(i)] = saved(persons.get(i)).getId();
+            }
+        }
+        errors.sort((left, right) -> Integer.compare(left.getIndex(), right.getIndex()));
+        return new BatchSaveResponse(Arrays.asList(ids), personRequests.size() - errors.size(), errors.size(), errors);
+    }
+
+    private List<String> validate(final PersonRequest personRequest) {
+        if (personRequest == null) {
+            return Collections.singletonList("Person request can't be empty.");
+        }
+        final Set<ConstraintViolation<PersonRequest>> violations = validator.validate(personRequest);
+        return violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.toList());
+    }
+
     @Override
     public Person findById(Long id) throws PersonServiceException {
+        if (!personIdFilter.mightContain(id)) {
+            throw new PersonNotFoundException(id, "findById");
+        }
         try {
-            return personRepository.findById(id).orElseThrow(() -> new PersonServiceException("No person found with id " + id,
-                    NOT_FOUND, "findById"));
+            final Person person = personCache.get(id, key -> personRepository.findById(key).orElse(null));
+            if (person == null) {
+                throw new PersonNotFoundException(id, "findById");
+            }
+            return person;
         } catch (Exception e) {
             if (e instanceof PersonServiceException) {
                 throw e;
@@ -58,6 +210,45 @@ public class PersonService implements IPersonService {
         }
     }
 
+    @Override
+    public PersonLookupResponse lookup(final @NonNull List<Long> ids) throws PersonServiceException {
+        if (ids.size() > batchMaxSize) {
+            throw new PersonServiceException("At most " + batchMaxSize + " ids are allowed.", BAD_REQUEST, "lookup");
+        }
+        final Set<Long> requested = new LinkedHashSet<>(ids);
+        requested.remove(null);
+        final Map<Long, Person> found = new HashMap<>();
+        final List<Long> toLoad = new ArrayList<>();
+        for (Long id : requested) {
+            if (!personIdFilter.mightContain(id)) {
+                continue;
+            }
+            final Person cached = personCache.getIfPresent(id);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                toLoad.add(id);
+            }
+        }
+        try {
+            findAllById(toLoad).forEach(person -> found.put(person.getId(), person));
+        } catch (Exception e) {
+            log.error("Failed to look up {} persons by id. Exception:: ", toLoad.size(), e);
+            throw new PersonServiceException("Failed to look up persons.", e, INTERNAL_SERVER_ERROR, "lookup");
+        }
+        final List<Person> persons = new ArrayList<>(found.size());
+        final List<Long> missing = new ArrayList<>();
+        for (Long id : requested) {
+            final Person person = found.get(id);
+            if (person != null) {
+                persons.add(person);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new PersonLookupResponse(persons, missing);
+    }
+
     @Override
     public List<Person> findAll(final PageRequest pageRequest) throws PersonServiceException {
         try {
@@ -68,10 +259,61 @@ public class PersonService implements IPersonService {
         }
     }
 
+    @Override
+    public CursorPage<Person> scroll(final @NonNull String sortBy, final int pageSize, final String cursor) throws PersonServiceException {
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            throw new PersonServiceException("Page size must be between 1 and " + maxPageSize, BAD_REQUEST, "scroll");
+        }
+        final PersonCursor after = cursor == null ? null : PersonCursor.decode(cursor);
+        final String key = after == null ? PersonCursor.checkSortKey(sortBy) : after.getSortBy();
+        try {
+            final List<Person> persons = personRepository.findPageAfter(key, after, pageSize + 1);
+            final boolean hasNext = persons.size() > pageSize;
+            final List<Person> content = hasNext ? persons.subList(0, pageSize) : persons;
+            final String next = hasNext ? PersonCursor.after(key, content.get(pageSize - 1)).encode() : null;
+            return new CursorPage<>(content, next, hasNext);
+        } catch (Exception e) {
+            log.error("Failed to scroll persons sorted by {} after cursor {}. Exception:: ", key, cursor, e);
+            throw new PersonServiceException("Failed to find persons after cursor.", e, INTERNAL_SERVER_ERROR, "scroll");
+        }
+    }
+
+    @Override
+    public void exportAll(final @NonNull Consumer<Person> consumer) throws PersonServiceException {
+        try {
+            readOnlyTransactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Person> persons = personRepository.streamAllBy()) {
+                    persons.forEach(person -> {
+                        consumer.accept(person);
+                        personRepository.detach(person);
+                    });
+                }
+            });
+        } catch (Exception e) {
+            log.error("Failed to export all person. Exception:: ", e);
+            throw new PersonServiceException("Failed to export all person.", e, INTERNAL_SERVER_ERROR, "exportAll");
+        }
+    }
+
     @Override
     public List<Person> findAllByName(final String firstName, final String lastName) throws PersonServiceException {
+        return findAllByName(firstName, lastName, NameMatch.AUTO);
+    }
+
+    @Override
+    public List<Person> findAllByName(final String firstName, final String lastName, final @NonNull NameMatch match) throws PersonServiceException {
+        return search(NameMatch.term(firstName), NameMatch.term(lastName), match.resolve(firstName, lastName));
+    }
+
+    private List<Person> search(final String firstName, final String lastName, final NameMatch match) {
         try {
-            return personRepository.findAll(personSearchSpecification.getNameFilter(firstName, lastName));
+            return personReadCoalescer.findAllByName(firstName, lastName, match, () -> {
+                if (usesNameIndex(firstName, lastName, match)) {
+                    return Collections.unmodifiableList(findAllById(personNameIndex.search(firstName, lastName)));
+                }
+                return Collections.unmodifiableList(
+                        personRepository.findAll(personSearchSpecification.getNameFilter(firstName, lastName, match)));
+            });
         } catch (Exception e) {
             log.error("Failed to search person where first name {} and lastName {}. Exception:: ", firstName, lastName, e);
             throw new PersonServiceException("Failed to search person.", e,
@@ -79,14 +321,67 @@ public class PersonService implements IPersonService {
         }
     }
 
+    @Override
+    public SearchPlanResponse explainByName(final String firstName, final String lastName, final @NonNull NameMatch match) throws PersonServiceException {
+        return explain(NameMatch.term(firstName), NameMatch.term(lastName), match.resolve(firstName, lastName));
+    }
+
+    private SearchPlanResponse explain(final String firstName, final String lastName, final NameMatch match) {
+        try {
+            final String plan = personRepository.explain(personSearchSpecification.getNameConditions(firstName, lastName, match));
+            return new SearchPlanResponse(match, usesNameIndex(firstName, lastName, match)
+                    ? SearchPlanResponse.NAME_INDEX : SearchPlanResponse.DATABASE, plan);
+        } catch (Exception e) {
+            log.error("Failed to explain search where first name {} and lastName {}. Exception:: ", firstName, lastName, e);
+            throw new PersonServiceException("Failed to explain search.", e, INTERNAL_SERVER_ERROR, "explainByName");
+        }
+    }
+
+    /**
+     * The trigram index only answers contains searches, prefix searches go to the lower cased column indexes.
+     */
+    private boolean usesNameIndex(final String firstName, final String lastName, final NameMatch match) {
+        return match == NameMatch.CONTAINS && personNameIndex.canSearch(firstName, lastName);
+    }
+
+    @Override
+    public List<PersonMatch> fuzzySearch(final String firstName, final String lastName, final int limit) throws PersonServiceException {
+        if (firstName == null && lastName == null) {
+            throw new PersonServiceException("First or last name must be given.", BAD_REQUEST, "fuzzySearch");
+        }
+        if (limit < 1 || limit > maxPageSize) {
+            throw new PersonServiceException("Limit must be between 1 and " + maxPageSize, BAD_REQUEST, "fuzzySearch");
+        }
+        if (!personFuzzyIndex.isReady()) {
+            throw new PersonServiceException("Fuzzy search is available once start-up has completed.",
+                    SERVICE_UNAVAILABLE, "fuzzySearch");
+        }
+        final List<PersonFuzzyIndex.Hit> hits = personFuzzyIndex.search(firstName, lastName, limit);
+        final Map<Long, Person> persons = new HashMap<>();
+        lookup(hits.stream().map(PersonFuzzyIndex.Hit::getId).collect(Collectors.toList())).getPersons()
+                .forEach(person -> persons.put(person.getId(), person));
+        final List<PersonMatch> matches = new ArrayList<>(hits.size());
+        for (PersonFuzzyIndex.Hit hit : hits) {
+            final Person person = persons.get(hit.getId());
+            if (person != null) {
+                matches.add(new PersonMatch(person, Math.round(hit.getScore() * 1000) / 1000.0));
+            }
+        }
+        return matches;
+    }
+
     @Override
     public void delete(Long personId) throws PersonServiceException {
+        if (!personIdFilter.mightContain(personId)) {
+            throw new PersonNotFoundException(personId, "delete");
+        }
         try {
             personRepository.deleteById(personId);
+            deleted(personId);
         } catch (Exception e) {
             if (e instanceof EmptyResultDataAccessException) {
-                log.error("No person found with id {}. Exception:: ", personId, e);
-                throw new PersonServiceException("No person found with id " + personId, e, NOT_FOUND, "delete");
+                log.debug("No person found with id {}.", personId);
+                throw new PersonNotFoundException(personId, "delete");
             }
             log.error("Failed to delete person for id {}. Exception:: ", personId, e);
             throw new PersonServiceException("Failed to delete person.", e, INTERNAL_SERVER_ERROR, "delete");
@@ -95,17 +390,199 @@ public class PersonService implements IPersonService {
 
     @Override
     public void update(Long id, PersonRequest personRequest) throws PersonServiceException {
+        if (!personIdFilter.mightContain(id)) {
+            throw new PersonNotFoundException(id, "update");
+        }
         try {
-            Person person = personRepository.findById(id).orElseThrow(() ->
-                    new PersonServiceException("No person found with id " + id, NOT_FOUND, "update"));
+            Person person = personRepository.findById(id).orElseThrow(() -> new PersonNotFoundException(id, "update"));
             BeanUtils.copyProperties(personRequest, person);
-            personRepository.save(person);
+            saved(personRepository.save(person));
         } catch (Exception e) {
             if (e instanceof PersonServiceException) {
                 throw e;
             }
+            if (e instanceof OptimisticLockingFailureException) {
+                log.debug("Person id {} changed while being updated.", id);
+                throw new PersonServiceException("Person id " + id + " was changed concurrently.", CONFLICT, "update");
+            }
             log.error("Failed to update person for id {}. Exception:: ", id, e);
             throw new PersonServiceException("Failed to update person id " + id, e, INTERNAL_SERVER_ERROR, "delete");
         }
     }
+
+    @Override
+    public Person patch(final Long id, final @NonNull PersonPatchRequest patch, final Long expectedVersion) throws PersonServiceException {
+        if (patch.isEmpty()) {
+            throw new PersonServiceException("Nothing to update.", BAD_REQUEST, "patch");
+        }
+        if (!personIdFilter.mightContain(id)) {
+            throw new PersonNotFoundException(id, "patch");
+        }
+        try {
+            final Person cached = personCache.getIfPresent(id);
+            final Person patched = transactionTemplate.execute(status -> {
+                if (personRepository.patch(id, patch, expectedVersion) == 0) {
+                    if (!personRepository.existsById(id)) {
+                        throw new PersonNotFoundException(id, "patch");
+                    }
+                    throw new PersonServiceException("Person id " + id + " does not have version " + expectedVersion,
+                            CONFLICT, "patch");
+                }
+                // the update matched the cached version, so the cached row is exactly what was patched
+                if (expectedVersion != null && cached != null && expectedVersion.equals(cached.getVersion())) {
+                    return applied(cached, patch);
+                }
+                return personRepository.findById(id).orElseThrow(() -> new PersonNotFoundException(id, "patch"));
+            });
+            return saved(patched);
+        } catch (Exception e) {
+            if (e instanceof PersonServiceException) {
+                throw e;
+            }
+            log.error("Failed to patch person for id {} with {}. Exception:: ", id, patch, e);
+            throw new PersonServiceException("Failed to patch person id " + id, e, INTERNAL_SERVER_ERROR, "patch");
+        }
+    }
+
+    @Override
+    public BulkResponse deleteAll(final @NonNull PersonSelection selection) throws PersonServiceException {
+        return bulk(selection, "deleteAll",
+                ids -> new Chunk(ids, personRepository.deleteAllByIdIn(ids), null),
+                chunk -> chunk.ids.forEach(this::deleted));
+    }
+
+    @Override
+    public BulkResponse updateAll(final @NonNull PersonBulkUpdateRequest request) throws PersonServiceException {
+        final PersonPatchRequest patch = new PersonPatchRequest();
+        patch.setFavouriteColour(request.getFavouriteColour());
+        patch.setAge(request.getAge());
+        if (patch.isEmpty()) {
+            throw new PersonServiceException("Nothing to update.", BAD_REQUEST, "updateAll");
+        }
+        return bulk(request, "updateAll",
+                ids -> {
+                    personRepository.patchAll(ids, patch);
+                    // re-read in the same transaction so caches and indexes get the committed rows
+                    final List<Person> persons = findAllById(ids);
+                    return new Chunk(ids, persons.size(), persons);
+                },
+                chunk -> chunk.persons.forEach(this::saved));
+    }
+
+    /**
+     * Runs a set based operation chunk by chunk, one transaction per chunk so locks are held for one chunk only.
+     * Listed ids are split in order, criteria are resolved to the next chunk of matching ids inside each transaction.
+     * Listeners are told about a chunk once it has committed.
+     */
+    private BulkResponse bulk(final PersonSelection selection, final String source,
+                              final Function<List<Long>, Chunk> inTransaction, final Consumer<Chunk> afterCommit) {
+        final List<Long> ids = selected(selection, source);
+        final Specification<Person> filter = ids == null
+                ? personSearchSpecification.getCriteriaFilter(selection.getCriteria()) : null;
+        long affected = 0;
+        int chunks = 0;
+        int from = 0;
+        Long after = null;
+        try {
+            while (true) {
+                final int offset = from;
+                final Long afterId = after;
+                final Chunk chunk = transactionTemplate.execute(status -> {
+                    final List<Long> chunkIds = ids != null
+                            ? ids.subList(Math.min(offset, ids.size()), Math.min(offset + batchChunkSize, ids.size()))
+                            : personRepository.findIdsAfter(filter, afterId, batchChunkSize);
+                    return chunkIds.isEmpty() ? null : inTransaction.apply(chunkIds);
+                });
+                if (chunk == null) {
+                    return new BulkResponse(affected, chunks);
+                }
+                afterCommit.accept(chunk);
+                affected += chunk.affected;
+                chunks++;
+                from += chunk.ids.size();
+                after = chunk.ids.get(chunk.ids.size() - 1);
+            }
+        } catch (Exception e) {
+            log.error("Failed {} for {} after {} rows in {} chunks. Exception:: ", source, selection, affected, chunks, e);
+            throw new PersonServiceException("Failed after " + affected + " persons were changed.", e,
+                    INTERNAL_SERVER_ERROR, source);
+        }
+    }
+
+    /**
+     * @return Distinct listed ids that may exist, null when the selection is by criteria.
+     */
+    private List<Long> selected(final PersonSelection selection, final String source) {
+        final boolean byIds = selection.getIds() != null;
+        if (byIds == (selection.getCriteria() != null)) {
+            throw new PersonServiceException("Either ids or criteria must be given.", BAD_REQUEST, source);
+        }
+        if (!byIds) {
+            if (selection.getCriteria().isEmpty()) {
+                throw new PersonServiceException("Criteria must have at least one field.", BAD_REQUEST, source);
+            }
+            return null;
+        }
+        if (selection.getIds().size() > batchMaxSize) {
+            throw new PersonServiceException("At most " + batchMaxSize + " ids are allowed.", BAD_REQUEST, source);
+        }
+        return selection.getIds().stream()
+                .distinct()
+                .filter(personIdFilter::mightContain)
+                .collect(Collectors.toList());
+    }
+
+    private static final class Chunk {
+
+        private final List<Long> ids;
+        private final int affected;
+        private final List<Person> persons;
+
+        private Chunk(final List<Long> ids, final int affected, final List<Person> persons) {
+            this.ids = ids;
+            this.affected = affected;
+            this.persons = persons;
+        }
+    }
+
+    private static Person applied(final Person person, final PersonPatchRequest patch) {
+        final Person patched = new Person();
+        BeanUtils.copyProperties(person, patched);
+        if (patch.getFirstName() != null) {
+            patched.setFirstName(patch.getFirstName());
+        }
+        if (patch.getLastName() != null) {
+            patched.setLastName(patch.getLastName());
+        }
+        if (patch.getAge() != null) {
+            patched.setAge(patch.getAge());
+        }
+        if (patch.getFavouriteColour() != null) {
+            patched.setFavouriteColour(patch.getFavouriteColour());
+        }
+        patched.setVersion(person.getVersion() + 1);
+        return patched;
+    }
+
+    private List<Person> findAllById(final List<Long> ids) {
+        final List<Person> persons = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += IN_CHUNK_SIZE) {
+            personRepository.findAllById(ids.subList(from, Math.min(from + IN_CHUNK_SIZE, ids.size()))).forEach(persons::add);
+        }
+        persons.sort(Comparator.comparing(Person::getId));
+        return persons;
+    }
+
+    private Person saved(final Person person) {
+        for (PersonChangeListener changeListener : changeListeners) {
+            changeListener.saved(person);
+        }
+        return person;
+    }
+
+    private void deleted(final Long id) {
+        for (PersonChangeListener changeListener : changeListeners) {
+            changeListener.deleted(id);
+        }
+    }
 }
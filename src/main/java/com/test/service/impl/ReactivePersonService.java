@@ -0,0 +1,163 @@
+package com.test.service.impl;
+
+import com.test.cache.PersonCache;
+import com.test.cache.PersonIdFilter;
+import com.test.entity.Person;
+import com.test.exception.PersonNotFoundException;
+import com.test.exception.PersonServiceException;
+import com.test.id.ReactiveIdAllocator;
+import com.test.repository.ReactivePersonRepository;
+import com.test.request.PersonRequest;
+import com.test.search.NameMatch;
+import com.test.search.PersonSearchSpecification;
+import com.test.service.IReactivePersonService;
+import com.test.service.PersonChangeListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+
+/**
+ * Reactive profile's person service over R2DBC. It keeps the in-memory structures derived from the table (cache, id
+ * filter, indexes, statistics) current by calling the same change listeners as {@link PersonService} after every
+ * write. Listeners take locks and may write to disk, so they are called on the bounded elastic scheduler rather than
+ * on the event loop that completed the write.
+ */
+@Slf4j
+@Service
+@Profile("reactive")
+public class ReactivePersonService implements IReactivePersonService {
+
+    private final ReactivePersonRepository reactivePersonRepository;
+    private final ReactiveIdAllocator reactiveIdAllocator;
+    private final PersonSearchSpecification personSearchSpecification;
+    private final PersonCache personCache;
+    private final PersonIdFilter personIdFilter;
+    private final List<PersonChangeListener> changeListeners;
+
+    @Autowired
+    public ReactivePersonService(ReactivePersonRepository reactivePersonRepository, ReactiveIdAllocator reactiveIdAllocator,
+                                 PersonSearchSpecification personSearchSpecification, PersonCache personCache,
+                                 PersonIdFilter personIdFilter, List<PersonChangeListener> changeListeners) {
+        this.reactivePersonRepository = reactivePersonRepository;
+        this.reactiveIdAllocator = reactiveIdAllocator;
+        this.personSearchSpecification = personSearchSpecification;
+        this.personCache = personCache;
+        this.personIdFilter = personIdFilter;
+        this.changeListeners = changeListeners;
+    }
+
+    @Override
+    public Mono<Person> save(final @NonNull PersonRequest personRequest) {
+        final Person person = new Person();
+        BeanUtils.copyProperties(personRequest, person);
+        return reactiveIdAllocator.next()
+                .flatMap(id -> {
+                    person.setId(id);
+                    return reactivePersonRepository.insert(person);
+                })
+                .publishOn(Schedulers.boundedElastic())
+                .map(this::saved)
+                .onErrorMap(failed(e -> log.error("Failed to save person {}. Exception:: ", personRequest, e),
+                        "Failed to save person.", "save"));
+    }
+
+    @Override
+    public Mono<Person> findById(final @NonNull Long id) {
+        if (!personIdFilter.mightContain(id)) {
+            return Mono.error(new PersonNotFoundException(id, "findById"));
+        }
+        final Person cached = personCache.getIfPresent(id);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return reactivePersonRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new PersonNotFoundException(id, "findById")))
+                .onErrorMap(failed(e -> log.error("Failed to find person for id {}. Exception:: ", id, e),
+                        "Failed to find person.", "findById"));
+    }
+
+    @Override
+    public Flux<Person> findAll(final Long afterId, final Integer limit) {
+        return reactivePersonRepository.findAllAfter(afterId, limit)
+                .onErrorMap(failed(e -> log.error("Failed to find persons after id {}. Exception:: ", afterId, e),
+                        "Failed to find all person.", "findAll"));
+    }
+
+    @Override
+    public Flux<Person> findAllByName(final String firstName, final String lastName, final @NonNull NameMatch match) {
+        return reactivePersonRepository.findAllByName(personSearchSpecification.getNameConditions(firstName, lastName, match))
+                .onErrorMap(failed(e -> log.error("Failed to search person where first name {} and lastName {}. Exception:: ",
+                        firstName, lastName, e), "Failed to search person.", "findAllByName"));
+    }
+
+    @Override
+    public Mono<Person> update(final @NonNull Long id, final @NonNull PersonRequest personRequest) {
+        if (!personIdFilter.mightContain(id)) {
+            return Mono.error(new PersonNotFoundException(id, "update"));
+        }
+        final Person person = new Person();
+        BeanUtils.copyProperties(personRequest, person);
+        person.setId(id);
+        return reactivePersonRepository.update(person)
+                .flatMap(rows -> rows == 0 ? Mono.<Person>error(new PersonNotFoundException(id, "update"))
+                        : reactivePersonRepository.findById(id))
+                .publishOn(Schedulers.boundedElastic())
+                .map(this::saved)
+                .onErrorMap(failed(e -> log.error("Failed to update person for id {}. Exception:: ", id, e),
+                        "Failed to update person id " + id, "update"));
+    }
+
+    @Override
+    public Mono<Void> delete(final @NonNull Long id) {
+        if (!personIdFilter.mightContain(id)) {
+            return Mono.error(new PersonNotFoundException(id, "delete"));
+        }
+        return reactivePersonRepository.deleteById(id)
+                .flatMap(rows -> rows == 0 ? Mono.<Integer>error(new PersonNotFoundException(id, "delete"))
+                        : Mono.just(rows))
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(rows -> deleted(id))
+                .then()
+                .onErrorMap(failed(e -> log.error("Failed to delete person for id {}. Exception:: ", id, e),
+                        "Failed to delete person.", "delete"));
+    }
+
+    /**
+     * Logs and wraps unexpected errors, {@link PersonServiceException}s pass unchanged.
+     */
+    private static Function<Throwable, Throwable> failed(final Consumer<Throwable> logger,
+                                                        final String message, final String source) {
+        return e -> {
+            if (e instanceof PersonServiceException) {
+                return e;
+            }
+            logger.accept(e);
+            return new PersonServiceException(message, e, INTERNAL_SERVER_ERROR, source);
+        };
+    }
+
+    private Person saved(final Person person) {
+        for (PersonChangeListener changeListener : changeListeners) {
+            changeListener.saved(person);
+        }
+        return person;
+    }
+
+    private void deleted(final Long id) {
+        for (PersonChangeListener changeListener : changeListeners) {
+            changeListener.deleted(id);
+        }
+    }
+}
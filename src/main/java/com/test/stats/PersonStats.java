@@ -0,0 +1,315 @@
+package com.test.stats;
+
+import com.test.entity.Person;
+import com.test.repository.PersonRepository;
+import com.test.response.PersonStatsResponse;
+import com.test.service.PersonChangeListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts of persons by favourite colour, age decade and name initials, kept up to date by every committed write so
+ * that reading them costs the same however many persons are stored.
+ * <p>
+ * Every live id keeps the buckets it is counted in packed in one long, in lazily allocated pages indexed by id, so an
+ * update or delete can take the person out of its old buckets without reading the database. Counters are striped
+ * {@link LongAdder}s. Writes to the same id that reach the listener out of commit order can leave counters off by
+ * one; a periodic reconciliation compares them with group by queries and corrects the difference.
+ */
+@Slf4j
+@Component
+public class PersonStats implements PersonChangeListener {
+
+    static final int AGE_BUCKETS = 11;
+    static final int INITIALS = 27;
+    static final char OTHER_INITIAL = '#';
+    static final String OTHER_COLOUR = "(other)";
+    private static final int MAX_COLOURS = 0x7FFF;
+    private static final int PAGE_BITS = 12;
+    private static final long PRESENT = 1L << 63;
+    /**
+     * Slot of an id deleted while warming up, keeps a late warm-up row from counting it again.
+     */
+    private static final long DELETED = 1L;
+    private static final int RECONCILE_ATTEMPTS = 3;
+
+    private final PersonRepository personRepository;
+    private final ConcurrentMap<Long, AtomicLongArray> pages = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Integer> colourIds = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<String> colourNames = new AtomicReferenceArray<>(MAX_COLOURS + 1);
+    private final AtomicReferenceArray<LongAdder> byColour = new AtomicReferenceArray<>(MAX_COLOURS + 1);
+    private final AtomicInteger nextColour = new AtomicInteger();
+    private final LongAdder total = new LongAdder();
+    private final LongAdder[] byAge = adders(AGE_BUCKETS);
+    private final LongAdder[] byFirstInitial = adders(INITIALS);
+    private final LongAdder[] byLastInitial = adders(INITIALS);
+    private final AtomicLong writes = new AtomicLong();
+    private final LongAdder corrections = new LongAdder();
+    private volatile boolean ready;
+
+    @Autowired
+    public PersonStats(PersonRepository personRepository) {
+        this.personRepository = personRepository;
+        colourNames.set(MAX_COLOURS, OTHER_COLOUR);
+    }
+
+    /**
+     * @return Current counts, built from the counters only.
+     */
+    public PersonStatsResponse snapshot() {
+        final Map<String, Long> colours = new TreeMap<>();
+        for (int id : colourSlots()) {
+            final LongAdder count = byColour.get(id);
+            if (count != null && count.sum() != 0) {
+                colours.put(colourNames.get(id), count.sum());
+            }
+        }
+        final Map<String, Long> ages = new LinkedHashMap<>();
+        for (int bucket = 0; bucket < AGE_BUCKETS; bucket++) {
+            ages.put(ageLabel(bucket), byAge[bucket].sum());
+        }
+        return new PersonStatsResponse(total.sum(), colours, ages, initials(byFirstInitial), initials(byLastInitial),
+                ready, corrections.sum());
+    }
+
+    @Override
+    public void saved(final Person person) {
+        if (person.getId() == null || person.getId() < 0) {
+            return;
+        }
+        final long packed = pack(person);
+        final long previous = page(person.getId(), true).getAndSet(slot(person.getId()), packed);
+        writes.incrementAndGet();
+        move(previous, packed);
+    }
+
+    @Override
+    public void deleted(final Long id) {
+        if (id == null || id < 0) {
+            return;
+        }
+        final AtomicLongArray page = page(id, !ready);
+        if (page == null) {
+            return;
+        }
+        final long previous = page.getAndSet(slot(id), ready ? 0 : DELETED);
+        writes.incrementAndGet();
+        move(previous, 0);
+    }
+
+    @Override
+    public void loaded(final Person person) {
+        if (person.getId() == null || person.getId() < 0) {
+            return;
+        }
+        final long packed = pack(person);
+        // a write since start-up already owns the slot
+        if (page(person.getId(), true).compareAndSet(slot(person.getId()), 0, packed)) {
+            move(0, packed);
+        }
+    }
+
+    @Override
+    public void ready() {
+        ready = true;
+    }
+
+    /**
+     * <p>
+     * Compare every counter with the database and correct the ones that drifted. A round is retried when writes
+     * happen while it runs, as their effect may be counted on one side only.
+     * </p>
+     */
+    @Scheduled(initialDelayString = "${person.stats.reconcile-interval:PT10M}",
+            fixedDelayString = "${person.stats.reconcile-interval:PT10M}")
+    public void reconcile() {
+        if (!ready) {
+            return;
+        }
+        for (int attempt = 0; attempt < RECONCILE_ATTEMPTS; attempt++) {
+            final long before = writes.get();
+            final Map<Integer, Long> colours = new HashMap<>();
+            final long[] ages = new long[AGE_BUCKETS];
+            final long[] firstInitials = new long[INITIALS];
+            final long[] lastInitials = new long[INITIALS];
+            long rows = 0;
+            for (Object[] row : personRepository.countByFavouriteColour()) {
+                final long count = ((Number) row[1]).longValue();
+                colours.merge(colourId((String) row[0]), count, Long::sum);
+                rows += count;
+            }
+            for (Object[] row : personRepository.countByAgeDecade()) {
+                ages[decadeBucket(((Number) row[0]).intValue())] += ((Number) row[1]).longValue();
+            }
+            count(personRepository.countByFirstNameInitial(), firstInitials);
+            count(personRepository.countByLastNameInitial(), lastInitials);
+            if (writes.get() != before) {
+                continue;
+            }
+            long corrected = correct(total, rows);
+            for (int id : colourSlots()) {
+                final Long expected = colours.get(id);
+                if (expected != null || byColour.get(id) != null) {
+                    corrected += correct(colourCounter(id), expected == null ? 0 : expected);
+                }
+            }
+            corrected += correct(byAge, ages) + correct(byFirstInitial, firstInitials) + correct(byLastInitial, lastInitials);
+            if (corrected > 0) {
+                log.warn("Corrected {} person statistics counters against the database.", corrected);
+            }
+            return;
+        }
+        log.info("Skipped reconciling person statistics, persons kept changing while counting.");
+    }
+
+    private void move(final long previous, final long current) {
+        if ((previous & PRESENT) != 0) {
+            add(previous, -1);
+        }
+        if ((current & PRESENT) != 0) {
+            add(current, 1);
+        }
+    }
+
+    private void add(final long packed, final int delta) {
+        total.add(delta);
+        colourCounter((int) (packed >>> 32) & MAX_COLOURS).add(delta);
+        byAge[(int) (packed >>> 16) & 0xFF].add(delta);
+        byFirstInitial[(int) (packed >>> 8) & 0xFF].add(delta);
+        byLastInitial[(int) packed & 0xFF].add(delta);
+    }
+
+    private long pack(final Person person) {
+        return PRESENT
+                | (long) colourId(person.getFavouriteColour()) << 32
+                | (long) decadeBucket(person.getAge() / 10) << 16
+                | (long) initial(person.getFirstName()) << 8
+                | initial(person.getLastName());
+    }
+
+    private int colourId(final String colour) {
+        if (colour == null) {
+            return MAX_COLOURS;
+        }
+        final Integer id = colourIds.get(colour);
+        if (id != null) {
+            return id;
+        }
+        if (nextColour.get() >= MAX_COLOURS) {
+            return MAX_COLOURS;
+        }
+        return colourIds.computeIfAbsent(colour, key -> {
+            final int next = nextColour.getAndIncrement();
+            if (next >= MAX_COLOURS) {
+                return MAX_COLOURS;
+            }
+            colourNames.set(next, key);
+            return next;
+        });
+    }
+
+    /**
+     * @return Ids of the colours handed out so far and of the other colour, the only slots that can hold a counter.
+     */
+    private int[] colourSlots() {
+        final int used = Math.min(nextColour.get(), MAX_COLOURS);
+        final int[] slots = new int[used + 1];
+        for (int id = 0; id < used; id++) {
+            slots[id] = id;
+        }
+        slots[used] = MAX_COLOURS;
+        return slots;
+    }
+
+    private LongAdder colourCounter(final int id) {
+        LongAdder counter = byColour.get(id);
+        if (counter == null) {
+            byColour.compareAndSet(id, null, new LongAdder());
+            counter = byColour.get(id);
+        }
+        return counter;
+    }
+
+    private AtomicLongArray page(final long id, final boolean create) {
+        final Long key = id >>> PAGE_BITS;
+        return create ? pages.computeIfAbsent(key, page -> new AtomicLongArray(1 << PAGE_BITS)) : pages.get(key);
+    }
+
+    private static int slot(final long id) {
+        return (int) (id & ((1 << PAGE_BITS) - 1));
+    }
+
+    static int decadeBucket(final int decade) {
+        return Math.max(0, Math.min(decade, AGE_BUCKETS - 1));
+    }
+
+    static int initial(final String name) {
+        if (name == null || name.isEmpty()) {
+            return INITIALS - 1;
+        }
+        final char initial = Character.toUpperCase(name.charAt(0));
+        return initial >= 'A' && initial <= 'Z' ? initial - 'A' : INITIALS - 1;
+    }
+
+    private static void count(final List<Object[]> rows, final long[] counts) {
+        for (Object[] row : rows) {
+            counts[initial((String) row[0])] += ((Number) row[1]).longValue();
+        }
+    }
+
+    private long correct(final LongAdder[] counters, final long[] expected) {
+        long corrected = 0;
+        for (int i = 0; i < counters.length; i++) {
+            corrected += correct(counters[i], expected[i]);
+        }
+        return corrected;
+    }
+
+    private long correct(final LongAdder counter, final long expected) {
+        final long difference = expected - counter.sum();
+        if (difference == 0) {
+            return 0;
+        }
+        counter.add(difference);
+        corrections.increment();
+        return 1;
+    }
+
+    private static String ageLabel(final int bucket) {
+        return bucket == AGE_BUCKETS - 1 ? (bucket * 10) + "+" : (bucket * 10) + "-" + (bucket * 10 + 9);
+    }
+
+    private static Map<String, Long> initials(final LongAdder[] counters) {
+        final Map<String, Long> initials = new LinkedHashMap<>();
+        for (int i = 0; i < INITIALS; i++) {
+            final long count = counters[i].sum();
+            if (count != 0) {
+                initials.put(i == INITIALS - 1 ? String.valueOf(OTHER_INITIAL) : String.valueOf((char) ('A' + i)), count);
+            }
+        }
+        return initials;
+    }
+
+    private static LongAdder[] adders(final int size) {
+        final LongAdder[] adders = new LongAdder[size];
+        for (int i = 0; i < size; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+}
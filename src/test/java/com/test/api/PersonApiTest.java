@@ -1,5 +1,6 @@
 package com.test.api;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.test.PersonServiceApplication;
 import com.test.request.PersonRequest;
@@ -11,19 +12,33 @@ import org.junit.jupiter.api.TestMethodOrder;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(SpringExtension.class)
@@ -230,6 +245,406 @@ class PersonApiTest {
                 .andExpect(jsonPath("$.errors").exists());
     }
 
+    @Test
+    @Order(13)
+    @WithMockUser(value = "admin", password = "admin", roles = {"ADMIN"})
+    void saveAll() throws Exception {
+        buildRequest();
+        PersonRequest invalid = new PersonRequest();
+        invalid.setFirstName("John");
+        mockMvc.perform(
+                MockMvcRequestBuilders.post(ROOT_URL + "/batch")
+                        .content(asJsonString(Arrays.asList(personRequest, invalid, personRequest)))
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+        ).andExpect(status().isCreated()).andExpect(jsonPath("$.ids", hasSize(3)))
+                .andExpect(jsonPath("$.ids[0]").isNumber())
+                .andExpect(jsonPath("$.ids[1]").value(nullValue()))
+                .andExpect(jsonPath("$.ids[2]").isNumber())
+                .andExpect(jsonPath("$.saved").value(2))
+                .andExpect(jsonPath("$.errors[0].index").value(1))
+                .andExpect(jsonPath("$.errors[0].errors", hasSize(3)));
+    }
+
+    @Test
+    @Order(14)
+    @WithMockUser(value = "admin", password = "admin", roles = {"ADMIN"})
+    void export_ndjson() throws Exception {
+        MvcResult mvcResult = mockMvc.perform(
+                MockMvcRequestBuilders.get(ROOT_URL + "/export")
+                        .accept(MediaType.APPLICATION_NDJSON_VALUE)
+        ).andExpect(request().asyncStarted()).andReturn();
+        String body = mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.trim().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("Saurav", objectMapper.readTree(lines[0]).get("firstName").asText());
+    }
+
+    @Test
+    @Order(15)
+    @WithMockUser(value = "admin", password = "admin", roles = {"ADMIN"})
+    void export_csv() throws Exception {
+        MvcResult mvcResult = mockMvc.perform(
+                MockMvcRequestBuilders.get(ROOT_URL + "/export")
+                        .accept("text/csv")
+        ).andExpect(request().asyncStarted()).andReturn();
+        String body = mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.trim().split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("id,first_name,last_name,age,favourite_colour", lines[0]);
+        assertTrue(lines[1].endsWith(",Saurav,Singh,30,Black"));
+    }
+
+    @Test
+    @Order(16)
+    @WithMockUser(value = "admin", password = "admin", roles = {"ADMIN"})
+    void import_ndjson() throws Exception {
+        String body = "{\"first_name\":\"Jane\",\"last_name\":\"Doe\",\"age\":40,\"favourite_colour\":\"Red\"}\n"
+                + "not json\n"
+                + "\n"
+                + "{\"first_name\":\"Jim\"}\n"
+                + "{\"first_name\":\"Jack\",\"last_name\":\"Black\",\"age\":22,\"favourite_colour\":\"Blue\"}\n";
+        mockMvc.perform(
+                MockMvcRequestBuilders.post(ROOT_URL + "/import")
+                        .content(body)
+                        .contentType(MediaType.APPLICATION_NDJSON_VALUE)
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+        ).andExpect(status().isOk()).andExpect(jsonPath("$.processed").value(4))
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.failed").value(2))
+                .andExpect(jsonPath("$.errors[0].line").value(2))
+                .andExpect(jsonPath("$.errors[1].line").value(4))
+                .andExpect(jsonPath("$.errors[1].errors", hasSize(3)));
+    }
+
+    @Test
+    @Order(17)
+    @WithMockUser(value = "admin", password = "admin", roles = {"ADMIN"})
+    void import_csv() throws Exception {
+        String body = "first_name,last_name,age,favourite_colour\r\n"
+                + "Anna,\"Smith, Jr\",28,Green\r\n"
+                + "Bob,Brown,abc,Blue\r\n";
+        mockMvc.perform(
+                MockMvcRequestBuilders.post(ROOT_URL + "/import")
+                        .content(body)
+                        .contentType("text/csv")
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+        ).andExpect(status().isOk()).andExpect(jsonPath("$.processed").value(2))
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(3));
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get(ROOT_URL + "/search?lastName=Smith")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+        ).andExpect(status().isOk()).andExpect(jsonPath("$[0].lastName").value("Smith, Jr"));
+    }
+
+    @Test
+    @Order(18)
+    @WithMockUser(value = "admin", password = "admin", roles = {"ADMIN"})
+    void scroll() throws Exception {
+        List<String> firstNames = new ArrayList<>();
+        String cursor = null;
+        do {
+            MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(ROOT_URL + "/scroll")
+                    .param("sortBy", "firstName")
+                    .param("pageSize", "2")
+                    .accept(MediaType.APPLICATION_JSON_VALUE);
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            JsonNode page = objectMapper.readTree(mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            page.get("content").forEach(person -> firstNames.add(person.get("firstName").asText()));
+            cursor = page.get("hasNext").asBoolean() ? page.get("next").asText() : null;
+        } while (cursor != null);
+        assertEquals(Arrays.asList("Anna", "Jack", "Jane", "Saurav", "Saurav"), firstNames);
+    }
+
+    @Test
+    @Order(19)
+    @WithMockUser(value = "admin", password = "admin", roles = {"ADMIN"})
+    void methodMetrics() throws Exception {
+        mockMvc.perform(
+                MockMvcRequestBuilders.get("/actuator/methods")
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+        ).andExpect(status().isOk())
+                .andExpect(jsonPath("$['PersonService.findById'].calls").isNumber())
+                .andExpect(jsonPath("$['PersonService.findById'].errors").isNumber())
+                .andExpect(jsonPath("$['PersonApi.save'].p99Millis").isNumber());
+    }
+
+    @Test
+    @Order(20)
+    @WithMockUser(value = "admin", password = "admin", roles = {"ADMIN"})
+    void patch() throws Exception {
+        String id = objectMapper.readTree(mockMvc.perform(
+                MockMvcRequestBuilders.get(ROOT_URL + "/search?firstName=Jane")
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+        ).andReturn().getResponse().getContentAsString()).get(0).get("id").asText();
+        String etag = mockMvc.perform(
+                MockMvcRequestBuilders.patch(ROOT_URL + "/" + id)
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .content("{\"age\":41}")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+        ).andExpect(status().isOk()).andExpect(jsonPath("$.age").value(41))
+                .andExpect(jsonPath("$.firstName").value("Jane"))
+                .andExpect(jsonPath("$.version").value(1))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertEquals("\"1\"", etag);
+        mockMvc.perform(
+                MockMvcRequestBuilders.patch(ROOT_URL + "/" + id)
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .content("{\"age\":42}")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        ).andExpect(status().isConflict());
+        mockMvc.perform(
+                MockMvcRequestBuilders.patch(ROOT_URL + "/" + id)
+                        .header(HttpHeaders.IF_MATCH, "version-1")
+                        .content("{\"age\":42}")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        ).andExpect(status().isBadRequest());
+        // If-Match uses the strong comparison, a weak tag never matches
+        mockMvc.perform(
+                MockMvcRequestBuilders.patch(ROOT_URL + "/" + id)
+                        .header(HttpHeaders.IF_MATCH, "W/\"1\"")
+                        .content("{\"age\":42}")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        ).andExpect(status().isPreconditionFailed());
+        mockMvc.perform(
+                MockMvcRequestBuilders.patch(ROOT_URL + "/" + id)
+                        .content("{\"first_name\":\" \"}")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        ).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Order(21)
+    @WithMockUser(value = "admin", password = "admin", roles = {"ADMIN"})
+    void conditionalGet() throws Exception {
+        String id = objectMapper.readTree(mockMvc.perform(MockMvcRequestBuilders.get(ROOT_URL))
+                .andReturn().getResponse().getContentAsString()).get(0).get("id").asText();
+        String person = mockMvc.perform(MockMvcRequestBuilders.get(ROOT_URL + "/" + id))
+                .andExpect(status().isOk()).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertEquals("\"0\"", person);
+        mockMvc.perform(MockMvcRequestBuilders.get(ROOT_URL + "/" + id).header(HttpHeaders.IF_NONE_MATCH, person))
+                .andExpect(status().isNotModified()).andExpect(content().string(""));
+
+        String page = mockMvc.perform(MockMvcRequestBuilders.get(ROOT_URL))
+                .andExpect(status().isOk()).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(MockMvcRequestBuilders.get(ROOT_URL).header(HttpHeaders.IF_NONE_MATCH, page))
+                .andExpect(status().isNotModified()).andExpect(content().string(""));
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.patch(ROOT_URL + "/" + id)
+                        .content("{\"favourite_colour\":\"Blue\"}")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        ).andExpect(status().isOk());
+        mockMvc.perform(MockMvcRequestBuilders.get(ROOT_URL + "/" + id).header(HttpHeaders.IF_NONE_MATCH, person))
+                .andExpect(status().isOk()).andExpect(jsonPath("$.favouriteColour").value("Blue"));
+        mockMvc.perform(MockMvcRequestBuilders.get(ROOT_URL).header(HttpHeaders.IF_NONE_MATCH, page))
+                .andExpect(status().isOk()).andExpect(jsonPath("$[0].favouriteColour").value("Blue"));
+    }
+
+    @Test
+    @Order(22)
+    @WithMockUser(value = "admin", password = "admin", roles = {"ADMIN"})
+    void bulkUpdateAndDelete() throws Exception {
+        mockMvc.perform(
+                MockMvcRequestBuilders.post(ROOT_URL + "/bulk-update")
+                        .content("{\"criteria\":{\"first_name\":\"saurav\"},\"favourite_colour\":\"Green\"}")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        ).andExpect(status().isOk()).andExpect(jsonPath("$.affected").value(2));
+        mockMvc.perform(
+                MockMvcRequestBuilders.get(ROOT_URL + "/search?firstName=Saurav")
+        ).andExpect(status().isOk()).andExpect(jsonPath("$[0].favouriteColour").value("Green"));
+
+        String id = objectMapper.readTree(mockMvc.perform(MockMvcRequestBuilders.get(ROOT_URL + "/search?firstName=Jack"))
+                .andReturn().getResponse().getContentAsString()).get(0).get("id").asText();
+        mockMvc.perform(MockMvcRequestBuilders.get(ROOT_URL + "/" + id)).andExpect(status().isOk());
+        mockMvc.perform(
+                MockMvcRequestBuilders.post(ROOT_URL + "/bulk-delete")
+                        .content("{\"ids\":[" + id + "]}")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        ).andExpect(status().isOk()).andExpect(jsonPath("$.affected").value(1));
+        mockMvc.perform(MockMvcRequestBuilders.get(ROOT_URL + "/" + id)).andExpect(status().isNotFound());
+        mockMvc.perform(
+                MockMvcRequestBuilders.post(ROOT_URL + "/bulk-delete")
+                        .content("{\"criteria\":{}}")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        ).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Order(23)
+    @WithMockUser(value = "admin", password = "admin", roles = {"ADMIN"})
+    void lookup() throws Exception {
+        JsonNode persons = objectMapper.readTree(mockMvc.perform(MockMvcRequestBuilders.get(ROOT_URL))
+                .andReturn().getResponse().getContentAsString());
+        String first = persons.get(0).get("id").asText();
+        String second = persons.get(1).get("id").asText();
+        mockMvc.perform(
+                MockMvcRequestBuilders.get(ROOT_URL).param("ids", second + "," + first + ",999999")
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+        ).andExpect(status().isOk())
+                .andExpect(jsonPath("$.persons", hasSize(2)))
+                .andExpect(jsonPath("$.persons[0].id").value(Long.valueOf(second)))
+                .andExpect(jsonPath("$.persons[1].id").value(Long.valueOf(first)))
+                .andExpect(jsonPath("$.missing[0]").value(999999));
+        mockMvc.perform(
+                MockMvcRequestBuilders.post(ROOT_URL + "/lookup")
+                        .content("[" + first + ",999999]")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        ).andExpect(status().isOk())
+                .andExpect(jsonPath("$.persons[0].id").value(Long.valueOf(first)))
+                .andExpect(jsonPath("$.missing", hasSize(1)));
+    }
+
+    @Test
+    @Order(24)
+    @WithMockUser(value = "admin", password = "admin", roles = {"ADMIN"})
+    void stats() throws Exception {
+        JsonNode persons = objectMapper.readTree(mockMvc.perform(MockMvcRequestBuilders.get(ROOT_URL).param("pageSize", "100"))
+                .andReturn().getResponse().getContentAsString());
+        int green = 0;
+        int initialS = 0;
+        for (JsonNode person : persons) {
+            green += "Green".equals(person.get("favouriteColour").asText()) ? 1 : 0;
+            initialS += person.get("firstName").asText().startsWith("S") ? 1 : 0;
+        }
+        mockMvc.perform(
+                MockMvcRequestBuilders.get(ROOT_URL + "/stats")
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+        ).andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(persons.size()))
+                .andExpect(jsonPath("$.ready").value(true))
+                .andExpect(jsonPath("$.byFavouriteColour.Green").value(green))
+                .andExpect(jsonPath("$.byFirstNameInitial.S").value(initialS));
+    }
+
+    @Test
+    @Order(25)
+    @WithMockUser(value = "admin", password = "admin", roles = {"ADMIN"})
+    void fuzzySearch() throws Exception {
+        mockMvc.perform(
+                MockMvcRequestBuilders.get(ROOT_URL + "/search/fuzzy").param("firstName", "Sourav").param("limit", "1")
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+        ).andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].person.firstName").value("Saurav"))
+                .andExpect(jsonPath("$[0].score").value(0.917));
+        mockMvc.perform(
+                MockMvcRequestBuilders.get(ROOT_URL + "/search/fuzzy").param("limit", "1")
+        ).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Order(26)
+    @WithMockUser(value = "admin", password = "admin", roles = {"ADMIN"})
+    void searchPlan() throws Exception {
+        mockMvc.perform(
+                MockMvcRequestBuilders.get(ROOT_URL + "/search/plan").param("lastName", "Si").param("match", "PREFIX")
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+        ).andExpect(status().isOk())
+                .andExpect(jsonPath("$.match").value("PREFIX"))
+                .andExpect(jsonPath("$.source").value("database"))
+                .andExpect(jsonPath("$.plan").value(containsString("IDX_PERSONS_LAST_NAME_LOWER_ID")));
+        mockMvc.perform(
+                MockMvcRequestBuilders.get(ROOT_URL + "/search").param("lastName", "si").param("match", "PREFIX")
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+        ).andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].lastName").value("Singh"));
+        // a term ending in * picks the prefix plan
+        mockMvc.perform(
+                MockMvcRequestBuilders.get(ROOT_URL + "/search/plan").param("lastName", "si*")
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+        ).andExpect(status().isOk())
+                .andExpect(jsonPath("$.match").value("PREFIX"))
+                .andExpect(jsonPath("$.plan").value(containsString("IDX_PERSONS_LAST_NAME_LOWER_ID")));
+        mockMvc.perform(
+                MockMvcRequestBuilders.get(ROOT_URL + "/search").param("lastName", "si*")
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+        ).andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].lastName").value("Singh"));
+        mockMvc.perform(
+                MockMvcRequestBuilders.get(ROOT_URL + "/search").param("lastName", "ngh*")
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+        ).andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+        // any other term is still matched anywhere in the name
+        mockMvc.perform(
+                MockMvcRequestBuilders.get(ROOT_URL + "/search").param("firstName", "ur")
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+        ).andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].firstName").value("Saurav"));
+        mockMvc.perform(
+                MockMvcRequestBuilders.get(ROOT_URL + "/search/plan").param("firstName", "ur")
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+        ).andExpect(status().isOk())
+                .andExpect(jsonPath("$.match").value("CONTAINS"));
+        mockMvc.perform(
+                MockMvcRequestBuilders.get(ROOT_URL + "/search").param("lastName", "%").param("match", "CONTAINS")
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+        ).andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    @Order(27)
+    @WithMockUser(value = "admin", password = "admin", roles = {"ADMIN"})
+    void changes() throws Exception {
+        long latest = objectMapper.readTree(mockMvc.perform(MockMvcRequestBuilders.get(ROOT_URL + "/changes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes", hasSize(0)))
+                .andReturn().getResponse().getContentAsString()).get("latest").asLong();
+        buildRequest();
+        personRequest.setFirstName("Kiran");
+        String id = objectMapper.readTree(mockMvc.perform(
+                MockMvcRequestBuilders.post(ROOT_URL)
+                        .content(asJsonString(personRequest))
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        ).andReturn().getResponse().getContentAsString()).get("id").asText();
+        mockMvc.perform(MockMvcRequestBuilders.delete(ROOT_URL + "/" + id)).andExpect(status().isOk());
+
+        mockMvc.perform(
+                MockMvcRequestBuilders.get(ROOT_URL + "/changes").param("since", String.valueOf(latest))
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+        ).andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes", hasSize(2)))
+                .andExpect(jsonPath("$.changes[0].seq").value(latest + 1))
+                .andExpect(jsonPath("$.changes[0].type").value("CREATED"))
+                .andExpect(jsonPath("$.changes[0].person.firstName").value("Kiran"))
+                .andExpect(jsonPath("$.changes[1].type").value("DELETED"))
+                .andExpect(jsonPath("$.changes[1].id").value(Long.valueOf(id)))
+                .andExpect(jsonPath("$.changes[1].person").value(nullValue()))
+                .andExpect(jsonPath("$.next").value(latest + 2));
+        mockMvc.perform(
+                MockMvcRequestBuilders.get(ROOT_URL + "/changes").param("since", String.valueOf(latest + 100))
+        ).andExpect(status().isGone());
+
+        MvcResult stream = mockMvc.perform(
+                MockMvcRequestBuilders.get(ROOT_URL + "/changes/stream")
+                        .header("Last-Event-ID", String.valueOf(latest))
+                        .accept(MediaType.TEXT_EVENT_STREAM_VALUE)
+        ).andExpect(request().asyncStarted()).andReturn();
+        String events = "";
+        for (int i = 0; i < 50 && !events.contains("id:" + (latest + 2)); i++) {
+            Thread.sleep(100);
+            events = stream.getResponse().getContentAsString();
+        }
+        assertTrue(events.contains("id:" + (latest + 1)), events);
+        assertTrue(events.contains("\"type\":\"DELETED\""), events);
+    }
+
     public static String asJsonString(final Object obj) {
         try {
             return objectMapper.writeValueAsString(obj);
@@ -0,0 +1,189 @@
+package com.test.api;
+
+import com.test.PersonServiceApplication;
+import com.test.entity.Person;
+import com.test.feed.PersonChangeFeed;
+import com.test.request.PersonRequest;
+import com.test.service.PersonChangeListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = RANDOM_PORT, classes = PersonServiceApplication.class, properties = {
+        "spring.datasource.url=jdbc:h2:mem:reactive-test",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactive-test"})
+@ActiveProfiles("reactive")
+@Import(ReactivePersonApiTest.ListenerConfig.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ReactivePersonApiTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    private WebTestClient client;
+
+    private final String ROOT_URL = "/persons";
+
+    private static Long id;
+
+    /**
+     * Whether each write notification ran on a non-blocking thread, i.e. the event loop.
+     */
+    private static final Queue<Boolean> notifiedOnEventLoop = new ConcurrentLinkedQueue<>();
+
+    @TestConfiguration
+    static class ListenerConfig {
+
+        @Bean
+        PersonChangeListener threadRecordingListener() {
+            return new PersonChangeListener() {
+                @Override
+                public void saved(final Person person) {
+                    notifiedOnEventLoop.add(Schedulers.isInNonBlockingThread());
+                }
+
+                @Override
+                public void deleted(final Long id) {
+                    notifiedOnEventLoop.add(Schedulers.isInNonBlockingThread());
+                }
+
+                @Override
+                public void loaded(final Person person) {
+                }
+            };
+        }
+    }
+
+    @BeforeEach
+    public void setup() {
+        client = webTestClient.mutate().defaultHeaders(headers -> headers.setBasicAuth("admin", "admin")).build();
+    }
+
+    @Test
+    @Order(1)
+    void unauthenticated() {
+        webTestClient.get().uri(ROOT_URL).exchange().expectStatus().isUnauthorized();
+    }
+
+    @Test
+    @Order(2)
+    void save() {
+        final Person person = client.post().uri(ROOT_URL).contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(buildRequest("Saurav", "Singh"))
+                .exchange().expectStatus().isCreated()
+                .expectBody(Person.class).returnResult().getResponseBody();
+        assertEquals("Saurav", person.getFirstName());
+        id = person.getId();
+        client.post().uri(ROOT_URL).contentType(MediaType.APPLICATION_JSON).bodyValue(buildRequest("Kiran", "Rao"))
+                .exchange().expectStatus().isCreated();
+    }
+
+    @Test
+    @Order(3)
+    void saveInvalid() {
+        client.post().uri(ROOT_URL).contentType(MediaType.APPLICATION_JSON).bodyValue(buildRequest("", "Singh"))
+                .exchange().expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.errors[0]").isEqualTo("Person first name can't be empty.");
+    }
+
+    @Test
+    @Order(4)
+    void findPersonById() {
+        final String etag = client.get().uri(ROOT_URL + "/" + id).exchange().expectStatus().isOk()
+                .expectBody().jsonPath("$.lastName").isEqualTo("Singh")
+                .returnResult().getResponseHeaders().getETag();
+        client.get().uri(ROOT_URL + "/" + id).header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchange().expectStatus().isNotModified();
+        client.get().uri(ROOT_URL + "/" + Long.MAX_VALUE).exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    @Order(5)
+    void findAllPerson() {
+        final List<Person> persons = client.get().uri(ROOT_URL).accept(MediaType.APPLICATION_NDJSON).exchange()
+                .expectStatus().isOk().expectBodyList(Person.class).returnResult().getResponseBody();
+        assertEquals(2, persons.size());
+        assertTrue(persons.get(0).getId() < persons.get(1).getId());
+        client.get().uri(ROOT_URL + "?after=" + id + "&limit=1").exchange().expectStatus().isOk()
+                .expectBody().jsonPath("$.length()").isEqualTo(1).jsonPath("$[0].firstName").isEqualTo("Kiran");
+    }
+
+    @Test
+    @Order(6)
+    void findPerson() {
+        client.get().uri(ROOT_URL + "/search?firstName=aur&match=CONTAINS").exchange().expectStatus().isOk()
+                .expectBody().jsonPath("$.length()").isEqualTo(1).jsonPath("$[0].id").isEqualTo(id);
+        client.get().uri(ROOT_URL + "/search?lastName=ra").exchange().expectStatus().isOk()
+                .expectBody().jsonPath("$.length()").isEqualTo(1).jsonPath("$[0].firstName").isEqualTo("Kiran");
+    }
+
+    @Test
+    @Order(7)
+    void update() {
+        client.put().uri(ROOT_URL + "/" + id).contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(buildRequest("Saurav", "Kumar")).exchange().expectStatus().isOk();
+        client.get().uri(ROOT_URL + "/" + id).exchange().expectStatus().isOk()
+                .expectBody().jsonPath("$.lastName").isEqualTo("Kumar");
+        client.get().uri(ROOT_URL + "/search?lastName=kum").exchange().expectStatus().isOk()
+                .expectBody().jsonPath("$.length()").isEqualTo(1);
+    }
+
+    @Test
+    @Order(8)
+    void delete() {
+        client.delete().uri(ROOT_URL + "/" + id).exchange().expectStatus().isOk();
+        client.get().uri(ROOT_URL + "/" + id).exchange().expectStatus().isNotFound();
+        client.delete().uri(ROOT_URL + "/" + id).exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    @Order(9)
+    void listenersAreNotCalledOnTheEventLoop() {
+        // 2 saves, 1 update and 1 delete
+        assertEquals(4, notifiedOnEventLoop.size());
+        assertFalse(notifiedOnEventLoop.contains(true), notifiedOnEventLoop.toString());
+    }
+
+    @Test
+    @Order(10)
+    void noChangeFeed() {
+        assertTrue(applicationContext.getBeansOfType(PersonChangeFeed.class).isEmpty());
+    }
+
+    private PersonRequest buildRequest(String firstName, String lastName) {
+        final PersonRequest personRequest = new PersonRequest();
+        personRequest.setAge(30);
+        personRequest.setFirstName(firstName);
+        personRequest.setLastName(lastName);
+        personRequest.setFavouriteColour("Black");
+        return personRequest;
+    }
+}
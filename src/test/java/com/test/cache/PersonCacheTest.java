@@ -0,0 +1,117 @@
+package com.test.cache;
+
+import com.test.entity.Person;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class PersonCacheTest {
+
+    @Test
+    void get_loadsOnceAndCountsHits() {
+        PersonCache personCache = new PersonCache(10, Duration.ofMinutes(1), false);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        personCache.bindTo(registry);
+        Person person = person(1l, "Saurav");
+        assertSame(person, personCache.get(1l, id -> person));
+        assertSame(person, personCache.get(1l, id -> null));
+        assertNull(personCache.get(2l, id -> null));
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", PersonCache.NAME).tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(2.0, registry.get("cache.gets").tag("cache", PersonCache.NAME).tag("result", "miss")
+                .functionCounter().count());
+    }
+
+    @Test
+    void saved_replacesLoadInFlight() throws Exception {
+        PersonCache personCache = new PersonCache(10, Duration.ofMinutes(1), false);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch updated = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Person> stale = executor.submit(() -> personCache.get(1l, id -> {
+                loading.countDown();
+                await(updated);
+                return person(1l, "Saurav");
+            }));
+            loading.await(5, TimeUnit.SECONDS);
+            Future<?> write = executor.submit(() -> personCache.saved(person(1l, "John", 1l)));
+            updated.countDown();
+            stale.get(5, TimeUnit.SECONDS);
+            write.get(5, TimeUnit.SECONDS);
+            assertEquals("John", personCache.getIfPresent(1l).getFirstName());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void saved_neverReplacesNewerVersion() {
+        PersonCache personCache = new PersonCache(10, Duration.ofMinutes(1), false);
+        personCache.saved(person(1l, "John", 2l));
+        personCache.saved(person(1l, "Saurav", 1l));
+        assertEquals("John", personCache.getIfPresent(1l).getFirstName());
+        personCache.saved(person(1l, "Kiran", 3l));
+        assertEquals("Kiran", personCache.getIfPresent(1l).getFirstName());
+    }
+
+    @Test
+    void saved_afterDeletedIsIgnored() {
+        PersonCache personCache = new PersonCache(10, Duration.ofMinutes(1), false);
+        personCache.saved(person(1l, "Saurav", 0l));
+        personCache.deleted(1l);
+        personCache.saved(person(1l, "John", 1l));
+        assertNull(personCache.getIfPresent(1l));
+    }
+
+    @Test
+    void loaded_neverOverridesWritesDuringWarmUp() {
+        PersonCache personCache = new PersonCache(10, Duration.ofMinutes(1), true);
+        personCache.saved(person(1l, "John"));
+        personCache.deleted(2l);
+        personCache.loaded(person(1l, "Saurav"));
+        personCache.loaded(person(2l, "Saurav"));
+        personCache.loaded(person(3l, "Saurav"));
+        personCache.ready();
+        assertEquals("John", personCache.getIfPresent(1l).getFirstName());
+        assertNull(personCache.getIfPresent(2l));
+        assertEquals("Saurav", personCache.getIfPresent(3l).getFirstName());
+    }
+
+    @Test
+    void loaded_withoutPrewarm() {
+        PersonCache personCache = new PersonCache(10, Duration.ofMinutes(1), false);
+        personCache.loaded(person(1l, "Saurav"));
+        assertNull(personCache.getIfPresent(1l));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Person person(Long id, String firstName) {
+        return person(id, firstName, null);
+    }
+
+    private Person person(Long id, String firstName, Long version) {
+        Person person = new Person();
+        person.setId(id);
+        person.setFirstName(firstName);
+        person.setVersion(version);
+        return person;
+    }
+}
@@ -0,0 +1,38 @@
+package com.test.cache;
+
+import com.test.entity.Person;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PersonIdFilterTest {
+
+    @Test
+    void mightContain() {
+        PersonIdFilter personIdFilter = new PersonIdFilter();
+        assertTrue(personIdFilter.mightContain(1l));
+        personIdFilter.loaded(person(1l));
+        personIdFilter.loaded(person(70_000l));
+        personIdFilter.ready();
+        assertTrue(personIdFilter.mightContain(1l));
+        assertTrue(personIdFilter.mightContain(70_000l));
+        assertFalse(personIdFilter.mightContain(2l));
+        assertFalse(personIdFilter.mightContain(65l));
+        assertFalse(personIdFilter.mightContain(5_000_000_000l));
+        assertFalse(personIdFilter.mightContain(-1l));
+
+        personIdFilter.saved(person(2l));
+        personIdFilter.deleted(1l);
+        personIdFilter.deleted(3l);
+        assertFalse(personIdFilter.mightContain(1l));
+        assertTrue(personIdFilter.mightContain(2l));
+        assertTrue(personIdFilter.mightContain(70_000l));
+    }
+
+    private Person person(Long id) {
+        Person person = new Person();
+        person.setId(id);
+        return person;
+    }
+}
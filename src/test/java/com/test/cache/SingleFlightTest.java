@@ -0,0 +1,111 @@
+package com.test.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 4;
+
+    @Test
+    void execute_concurrentCallersShareOneCall() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = concurrently(singleFlight, release, () -> {
+            calls.incrementAndGet();
+            await(release);
+            return "Saurav";
+        });
+        for (Future<String> result : results) {
+            assertEquals("Saurav", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, calls.get());
+        assertEquals(1, singleFlight.executed());
+        assertEquals(CALLERS - 1, singleFlight.shared());
+        assertEquals("John", singleFlight.execute("key", () -> "John"));
+    }
+
+    @Test
+    void execute_exceptionReachesEveryCaller() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        IllegalStateException failure = new IllegalStateException("Unable to connect to database");
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = concurrently(singleFlight, release, () -> {
+            await(release);
+            throw failure;
+        });
+        for (Future<String> result : results) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertSame(failure, e.getCause());
+        }
+        assertEquals("Saurav", singleFlight.execute("key", () -> "Saurav"));
+    }
+
+    @Test
+    void forget_startsFreshCall() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> stale = executor.submit(() -> singleFlight.execute("key", () -> {
+                started.countDown();
+                await(release);
+                return "Saurav";
+            }));
+            started.await(5, TimeUnit.SECONDS);
+            singleFlight.forget("key");
+            assertEquals("John", singleFlight.execute("key", () -> "John"));
+            release.countDown();
+            assertEquals("Saurav", stale.get(5, TimeUnit.SECONDS));
+            assertEquals(2, singleFlight.executed());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Starts {@link #CALLERS} callers of the same key and releases the call once all but the leader joined it.
+     */
+    private static List<Future<String>> concurrently(final SingleFlight<String, String> singleFlight,
+                                                     final CountDownLatch release, final Supplier<String> call) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(executor.submit(() -> singleFlight.execute("key", call)));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (singleFlight.shared() < CALLERS - 1 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
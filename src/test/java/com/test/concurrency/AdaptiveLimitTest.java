@@ -0,0 +1,103 @@
+package com.test.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveLimitTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    @Test
+    void tryAcquire_rejectsAtLimit() {
+        AdaptiveLimit limit = new AdaptiveLimit(2, 1, 10, Duration.ofMillis(100), 0.5);
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+        assertEquals(1, limit.snapshot().getRejected());
+        limit.release();
+        assertTrue(limit.tryAcquire());
+        assertEquals(3, limit.snapshot().getAdmitted());
+    }
+
+    @Test
+    void release_growsWhileLimitIsUsed() {
+        AdaptiveLimit limit = new AdaptiveLimit(2, 1, 3, Duration.ofMillis(100), 0.5);
+        for (int i = 0; i < 3; i++) {
+            limit.tryAcquire();
+            limit.release(FAST);
+        }
+        assertEquals(3, limit.getLimit());
+        limit.tryAcquire();
+        limit.tryAcquire();
+        limit.release(FAST);
+        assertEquals(3, limit.getLimit());
+    }
+
+    @Test
+    void release_growsByOnePerLimitOfFastResponses() {
+        AdaptiveLimit limit = new AdaptiveLimit(100, 1, 1000, Duration.ofMillis(100), 0.5);
+        for (int i = 0; i < 100; i++) {
+            limit.tryAcquire();
+        }
+        // a round trip of the whole limit
+        for (int i = 0; i < 99; i++) {
+            limit.release(FAST);
+            limit.tryAcquire();
+        }
+        assertEquals(100, limit.getLimit());
+        for (int i = 0; i < 101; i++) {
+            limit.release(FAST);
+            limit.tryAcquire();
+        }
+        assertEquals(101, limit.getLimit());
+    }
+
+    @Test
+    void release_doesNotGrowWhenMostlyIdle() {
+        AdaptiveLimit limit = new AdaptiveLimit(4, 1, 10, Duration.ofMillis(100), 0.5);
+        limit.tryAcquire();
+        limit.release(FAST);
+        assertEquals(4, limit.getLimit());
+    }
+
+    @Test
+    void release_backsOffOncePerSlowResponse() {
+        AdaptiveLimit limit = new AdaptiveLimit(8, 3, 10, Duration.ofMillis(100), 0.5);
+        for (int i = 0; i < 4; i++) {
+            limit.tryAcquire();
+        }
+        limit.release(SLOW);
+        assertEquals(4, limit.getLimit());
+        // the others queued behind the same stall
+        limit.release(SLOW);
+        limit.release(SLOW);
+        assertEquals(4, limit.getLimit());
+        assertEquals(1, limit.getInFlight());
+    }
+
+    @Test
+    void release_neverDropsBelowMinimum() throws InterruptedException {
+        AdaptiveLimit limit = new AdaptiveLimit(4, 3, 10, Duration.ofMillis(1), 0.5);
+        limit.tryAcquire();
+        limit.release(TimeUnit.MILLISECONDS.toNanos(2));
+        Thread.sleep(5);
+        limit.tryAcquire();
+        limit.release(TimeUnit.MILLISECONDS.toNanos(2));
+        assertEquals(3, limit.getLimit());
+    }
+
+    @Test
+    void constructor_rejectsInconsistentBounds() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveLimit(0, 0, 10, Duration.ofMillis(1), 0.5));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveLimit(20, 1, 10, Duration.ofMillis(1), 0.5));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveLimit(5, 1, 10, Duration.ofMillis(1), 1.0));
+    }
+}
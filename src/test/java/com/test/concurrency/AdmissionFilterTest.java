@@ -0,0 +1,99 @@
+package com.test.concurrency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.HttpServlet;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static com.test.concurrency.AdmissionFilter.Kind.READ;
+import static com.test.concurrency.AdmissionFilter.Kind.SEARCH;
+import static com.test.concurrency.AdmissionFilter.Kind.WRITE;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class AdmissionFilterTest {
+
+    private AdaptiveLimit search;
+    private AdmissionFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        search = new AdaptiveLimit(1, 1, 1, Duration.ofSeconds(1), 0.5);
+        Map<AdmissionFilter.Kind, AdaptiveLimit> limits = new EnumMap<>(AdmissionFilter.Kind.class);
+        limits.put(READ, new AdaptiveLimit(10, 1, 10, Duration.ofSeconds(1), 0.5));
+        limits.put(WRITE, new AdaptiveLimit(10, 1, 10, Duration.ofSeconds(1), 0.5));
+        limits.put(SEARCH, search);
+        filter = new AdmissionFilter(limits, Duration.ofMillis(1500), new ObjectMapper());
+    }
+
+    @Test
+    void kind_classifiesByPathAndMethod() {
+        assertEquals(SEARCH, AdmissionFilter.kind("GET", "/search"));
+        assertEquals(SEARCH, AdmissionFilter.kind("GET", "/search/fuzzy"));
+        assertEquals(READ, AdmissionFilter.kind("GET", "/12"));
+        assertEquals(READ, AdmissionFilter.kind("POST", "/lookup"));
+        assertEquals(WRITE, AdmissionFilter.kind("POST", ""));
+        assertEquals(WRITE, AdmissionFilter.kind("DELETE", "/12"));
+    }
+
+    @Test
+    void doFilter_rejectsOverLimitWithRetryAfter() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        filter.bindTo(registry);
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        MockFilterChain nested = new MockFilterChain(new HttpServlet() {
+        }, (request, response, chain) -> filter.doFilter(new MockHttpServletRequest("GET", "/persons/search"),
+                rejected, new MockFilterChain()));
+
+        MockHttpServletResponse admitted = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/persons/search"), admitted, nested);
+
+        assertEquals(200, admitted.getStatus());
+        assertEquals(503, rejected.getStatus());
+        assertEquals("2", rejected.getHeader("Retry-After"));
+        assertThat(rejected.getContentAsString(), containsString("Too many concurrent search requests"));
+        assertEquals(0, search.getInFlight());
+        assertEquals(1.0, registry.get(AdmissionFilter.METRIC_PREFIX + ".rejected").tag("kind", "search")
+                .functionCounter().count());
+    }
+
+    @Test
+    void doFilter_errorResponsesGiveNoSample() throws Exception {
+        AdaptiveLimit read = new AdaptiveLimit(1, 1, 10, Duration.ofSeconds(1), 0.5);
+        Map<AdmissionFilter.Kind, AdaptiveLimit> limits = new EnumMap<>(AdmissionFilter.Kind.class);
+        limits.put(READ, read);
+        limits.put(WRITE, new AdaptiveLimit(10, 1, 10, Duration.ofSeconds(1), 0.5));
+        limits.put(SEARCH, search);
+        filter = new AdmissionFilter(limits, Duration.ofMillis(1500), new ObjectMapper());
+
+        MockHttpServletResponse unauthorized = new MockHttpServletResponse();
+        unauthorized.setStatus(401);
+        filter.doFilter(new MockHttpServletRequest("GET", "/persons/12"), unauthorized, new MockFilterChain());
+        assertEquals(1, read.getLimit());
+        assertEquals(0, read.getInFlight());
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/persons/12"), new MockHttpServletResponse(),
+                new MockFilterChain());
+        assertEquals(2, read.getLimit());
+    }
+
+    @Test
+    void doFilter_ignoresOtherPaths() throws Exception {
+        search.tryAcquire();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/actuator/admission"), response, new MockFilterChain());
+        assertEquals(200, response.getStatus());
+        assertNull(response.getHeader("Retry-After"));
+        assertEquals(0, filter.snapshot().get("read").getAdmitted());
+    }
+}
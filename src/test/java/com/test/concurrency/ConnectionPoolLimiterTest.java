@@ -0,0 +1,100 @@
+package com.test.concurrency;
+
+import com.test.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ConnectionPoolLimiterTest {
+
+    @Test
+    void limit_rejectsOncePermitsAndQueueAreTaken() throws Throwable {
+        ConnectionPoolLimiter limiter = new ConnectionPoolLimiter(1, 0, Duration.ofMillis(10));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        limiter.bindTo(registry);
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Object> first = executor.submit(limited(limiter, joinPoint(() -> {
+                holding.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return "Saurav";
+            })));
+            holding.await(5, TimeUnit.SECONDS);
+            ServiceOverloadedException e = assertThrows(ServiceOverloadedException.class,
+                    () -> limiter.limit(joinPoint(() -> "John")));
+            assertEquals(503, e.getCode().value());
+            assertEquals("findById", e.getSource());
+            assertEquals(1.0, registry.get(ConnectionPoolLimiter.METRIC_PREFIX + ".active").gauge().value());
+            release.countDown();
+            assertEquals("Saurav", first.get(5, TimeUnit.SECONDS));
+            assertEquals("John", limiter.limit(joinPoint(() -> "John")));
+            assertEquals(1.0, registry.get(ConnectionPoolLimiter.METRIC_PREFIX + ".rejected").functionCounter().count());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void limit_waitsForPermit() throws Throwable {
+        ConnectionPoolLimiter limiter = new ConnectionPoolLimiter(1, 1, Duration.ofSeconds(5));
+        CountDownLatch holding = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Object> first = executor.submit(limited(limiter, joinPoint(() -> {
+                holding.countDown();
+                Thread.sleep(50);
+                return "Saurav";
+            })));
+            holding.await(5, TimeUnit.SECONDS);
+            assertEquals("John", limiter.limit(joinPoint(() -> "John")));
+            assertEquals("Saurav", first.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void limit_nestedCallsShareOuterPermit() throws Throwable {
+        ConnectionPoolLimiter limiter = new ConnectionPoolLimiter(1, 0, Duration.ZERO);
+        assertEquals("John", limiter.limit(joinPoint(() -> limiter.limit(joinPoint(() -> "John")))));
+    }
+
+    private static Callable<Object> limited(final ConnectionPoolLimiter limiter, final ProceedingJoinPoint joinPoint) {
+        return () -> {
+            try {
+                return limiter.limit(joinPoint);
+            } catch (Throwable e) {
+                throw new Exception(e);
+            }
+        };
+    }
+
+    private static ProceedingJoinPoint joinPoint(final Call call) throws Throwable {
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        Signature signature = mock(Signature.class);
+        when(signature.getName()).thenReturn("findById");
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(joinPoint.proceed()).thenAnswer(invocation -> call.call());
+        return joinPoint;
+    }
+
+    private interface Call {
+        Object call() throws Throwable;
+    }
+}
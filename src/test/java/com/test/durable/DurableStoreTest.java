@@ -0,0 +1,126 @@
+package com.test.durable;
+
+import com.test.PersonServiceApplication;
+import com.test.entity.Person;
+import com.test.exception.PersonNotFoundException;
+import com.test.request.PersonRequest;
+import com.test.service.IPersonService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DurableStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void restart_restoresSnapshotAndLogTail() throws Exception {
+        final long saurav;
+        final long john;
+        final long kiran;
+        try (ConfigurableApplicationContext context = start("durable-1")) {
+            IPersonService personService = context.getBean(IPersonService.class);
+            saurav = personService.save(request("Saurav", "Singh", 30)).getId();
+            john = personService.save(request("John", "Doe", 40)).getId();
+            assertTrue(context.getBean(DurableStore.class).snapshot());
+            assertFalse(context.getBean(DurableStore.class).snapshot());
+            // after the snapshot, only in the log
+            personService.update(saurav, request("Saurav", "Kumar", 31));
+            personService.delete(john);
+            kiran = personService.save(request("Kiran", "Rao", 25)).getId();
+        }
+
+        try (ConfigurableApplicationContext context = start("durable-2")) {
+            IPersonService personService = context.getBean(IPersonService.class);
+            Person restored = personService.findById(saurav);
+            assertEquals("Kumar", restored.getLastName());
+            assertEquals(31, restored.getAge());
+            assertEquals(1L, restored.getVersion());
+            assertThrows(PersonNotFoundException.class, () -> personService.findById(john));
+            assertEquals("Kiran", personService.findById(kiran).getFirstName());
+            assertEquals(Arrays.asList(saurav), ids(personService.findAllByName(null, "kum")));
+            // ids keep growing past the restored ones
+            long next = personService.save(request("Maya", "Iyer", 35)).getId();
+            assertTrue(next > kiran);
+            assertTrue(context.getBean(DurableStore.class).snapshot());
+        }
+
+        try (ConfigurableApplicationContext context = start("durable-3")) {
+            IPersonService personService = context.getBean(IPersonService.class);
+            List<Person> all = new ArrayList<>();
+            personService.exportAll(all::add);
+            assertEquals(3, all.size());
+            assertNotEquals(0, personService.findAllByName("maya", null).size());
+        }
+    }
+
+    @Test
+    void restart_neverReusesIdsOfDeletedPersons() throws Exception {
+        final long john;
+        final long kiran;
+        try (ConfigurableApplicationContext context = start("reuse-1")) {
+            IPersonService personService = context.getBean(IPersonService.class);
+            personService.save(request("Saurav", "Singh", 30));
+            john = personService.save(request("John", "Doe", 40)).getId();
+            assertTrue(context.getBean(DurableStore.class).snapshot());
+            // the newest person, deleted in the log tail only
+            personService.delete(john);
+        }
+
+        try (ConfigurableApplicationContext context = start("reuse-2")) {
+            kiran = context.getBean(IPersonService.class).save(request("Kiran", "Rao", 25)).getId();
+            assertTrue(kiran > john);
+        }
+
+        try (ConfigurableApplicationContext context = start("reuse-3")) {
+            IPersonService personService = context.getBean(IPersonService.class);
+            assertEquals("Kiran", personService.findById(kiran).getFirstName());
+            // deleted before the snapshot, only its header knows the id
+            personService.delete(kiran);
+            assertTrue(context.getBean(DurableStore.class).snapshot());
+        }
+
+        try (ConfigurableApplicationContext context = start("reuse-4")) {
+            assertTrue(context.getBean(IPersonService.class).save(request("Maya", "Iyer", 35)).getId() > kiran);
+        }
+    }
+
+    private ConfigurableApplicationContext start(final String database) {
+        return new SpringApplicationBuilder(PersonServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .run("--spring.datasource.url=jdbc:h2:mem:" + database,
+                        "--person.durable.enabled=true",
+                        "--person.durable.directory=" + directory,
+                        "--person.id.block-size=10");
+    }
+
+    private static List<Long> ids(final List<Person> persons) {
+        return persons.stream().map(Person::getId).collect(Collectors.toList());
+    }
+
+    private static PersonRequest request(final String firstName, final String lastName, final int age) {
+        final PersonRequest personRequest = new PersonRequest();
+        personRequest.setFirstName(firstName);
+        personRequest.setLastName(lastName);
+        personRequest.setAge(age);
+        personRequest.setFavouriteColour("Black");
+        return personRequest;
+    }
+}
@@ -0,0 +1,117 @@
+package com.test.durable;
+
+import com.test.entity.Person;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PersonChangeLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replay_readsSegmentsFromGivenOneInOrder() throws IOException {
+        PersonChangeLog changeLog = new PersonChangeLog(directory.toString());
+        changeLog.open(0);
+        changeLog.saved(person(1L, "Saurav", 0L));
+        assertTrue(changeLog.hasChanges());
+        assertEquals(1, changeLog.rotate());
+        assertFalse(changeLog.hasChanges());
+        changeLog.saved(person(1L, "Sourav", 1L));
+        changeLog.deleted(2L);
+        changeLog.close();
+
+        List<String> all = new ArrayList<>();
+        assertEquals(1, PersonChangeLog.replay(directory, 0, recorder(all)));
+        assertEquals(List.of("saved 1 Saurav 0", "saved 1 Sourav 1", "deleted 2"), all);
+
+        List<String> tail = new ArrayList<>();
+        PersonChangeLog.replay(directory, 1, recorder(tail));
+        assertEquals(List.of("saved 1 Sourav 1", "deleted 2"), tail);
+
+        changeLog.deleteBefore(1);
+        assertEquals(1, segments().size());
+    }
+
+    @Test
+    void replay_stopsAtTornRecord() throws IOException {
+        PersonChangeLog changeLog = new PersonChangeLog(directory.toString());
+        changeLog.open(3);
+        changeLog.saved(person(1L, "Saurav", 0L));
+        changeLog.saved(person(2L, "John", 0L));
+        changeLog.close();
+        Path segment = segments().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        List<String> replayed = new ArrayList<>();
+        assertEquals(3, PersonChangeLog.replay(directory, 0, recorder(replayed)));
+        assertEquals(List.of("saved 1 Saurav 0"), replayed);
+    }
+
+    @Test
+    void hasLostChanges_untilSnapshotStartedAfterTheFailure() throws IOException {
+        PersonChangeLog changeLog = new PersonChangeLog(directory.toString());
+        changeLog.open(0);
+        changeLog.close();
+        changeLog.saved(person(1L, "Saurav", 0L));
+        assertTrue(changeLog.hasLostChanges());
+        assertTrue(changeLog.hasChanges());
+
+        assertEquals(1, changeLog.rotate());
+        changeLog.close();
+        changeLog.deleted(1L);
+        changeLog.deleteBefore(1);
+        assertTrue(changeLog.hasLostChanges());
+
+        changeLog.deleteBefore(2);
+        assertFalse(changeLog.hasLostChanges());
+        assertFalse(changeLog.hasChanges());
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static PersonChangeLog.Replay recorder(final List<String> records) {
+        return new PersonChangeLog.Replay() {
+            @Override
+            public void saved(Person person) {
+                records.add("saved " + person.getId() + " " + person.getFirstName() + " " + person.getVersion());
+            }
+
+            @Override
+            public void deleted(long id) {
+                records.add("deleted " + id);
+            }
+        };
+    }
+
+    private static Person person(final Long id, final String firstName, final Long version) {
+        Person person = new Person();
+        person.setId(id);
+        person.setFirstName(firstName);
+        person.setLastName("Singh");
+        person.setAge(30);
+        person.setFavouriteColour("Black");
+        person.setVersion(version);
+        return person;
+    }
+}
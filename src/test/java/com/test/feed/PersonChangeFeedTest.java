@@ -0,0 +1,167 @@
+package com.test.feed;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.test.entity.Person;
+import com.test.exception.PersonServiceException;
+import com.test.response.PersonChange;
+import com.test.response.PersonChangePage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PersonChangeFeedTest {
+
+    @TempDir
+    Path directory;
+
+    private PersonChangeFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        // 4 changes in the ring, 2 segments of 4 on disk
+        feed = new PersonChangeFeed(4, directory.toString(), 2, 100, 5, new ObjectMapper());
+        feed.open();
+    }
+
+    @AfterEach
+    void tearDown() {
+        feed.close();
+    }
+
+    @Test
+    void read_returnsChangesAfterSequenceNumber() {
+        feed.saved(person(1L, "Saurav", 0L));
+        feed.saved(person(1L, "Sourav", 1L));
+        feed.deleted(1L);
+
+        PersonChangePage page = feed.read(0, 5);
+        assertEquals(3, page.getLatest());
+        assertEquals(3, page.getNext());
+        assertEquals(List.of(PersonChange.Type.CREATED, PersonChange.Type.UPDATED, PersonChange.Type.DELETED),
+                page.getChanges().stream().map(PersonChange::getType).collect(Collectors.toList()));
+        assertEquals("Sourav", page.getChanges().get(1).getPerson().getFirstName());
+        assertNull(page.getChanges().get(2).getPerson());
+        assertEquals(1L, page.getChanges().get(2).getId());
+
+        PersonChangePage last = feed.read(2, 5);
+        assertEquals(List.of(3L), seqs(last));
+        assertTrue(feed.read(3, 5).getChanges().isEmpty());
+        assertEquals(3, feed.read(3, 5).getNext());
+    }
+
+    @Test
+    void append_keepsTheOrderOfEachPerson() {
+        feed.saved(person(1L, "Saurav", 0L));
+        feed.saved(person(1L, "Sourav", 2L));
+        // reach the feed after the newer writes
+        feed.saved(person(1L, "Saurav", 1L));
+        feed.saved(person(1L, "Sourav", 2L));
+        feed.deleted(1L);
+        feed.saved(person(1L, "Sourav", 3L));
+        feed.deleted(1L);
+        feed.saved(person(2L, "John", 0L));
+
+        PersonChangePage page = feed.read(0, 5);
+        assertEquals(List.of(PersonChange.Type.CREATED, PersonChange.Type.UPDATED, PersonChange.Type.DELETED,
+                PersonChange.Type.CREATED), page.getChanges().stream().map(PersonChange::getType).collect(Collectors.toList()));
+        assertEquals(List.of(1L, 1L, 1L, 2L), page.getChanges().stream().map(PersonChange::getId).collect(Collectors.toList()));
+        assertEquals("Sourav", page.getChanges().get(1).getPerson().getFirstName());
+        assertEquals(4, page.getLatest());
+    }
+
+    @Test
+    void read_pagesFromOverflowIntoRing() {
+        for (long id = 1; id <= 10; id++) {
+            feed.saved(person(id, "Person" + id, 0L));
+        }
+        // 7 to 10 in the ring, 1 to 6 spilled to disk
+        awaitSpilled();
+        PersonChangePage fromDisk = feed.read(0, 5);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), seqs(fromDisk));
+        assertEquals("Person5", fromDisk.getChanges().get(4).getPerson().getFirstName());
+        PersonChangePage restOfDisk = feed.read(fromDisk.getNext(), 5);
+        assertEquals(List.of(6L), seqs(restOfDisk));
+        assertEquals(List.of(7L, 8L, 9L, 10L), seqs(feed.read(restOfDisk.getNext(), 5)));
+    }
+
+    @Test
+    void read_failsWithGoneOnceChangesAreDropped() {
+        for (long id = 1; id <= 14; id++) {
+            feed.saved(person(id, "Person" + id, 0L));
+            // one batch per change, so that every segment is started and the first is deleted
+            awaitSpilled();
+        }
+        // 11 to 14 in memory, segments starting at 5 and 9 on disk, the one starting at 1 was deleted
+        PersonServiceException dropped = assertThrows(PersonServiceException.class, () -> feed.read(3, 5));
+        assertEquals(HttpStatus.GONE, dropped.getCode());
+        assertEquals(List.of(5L, 6L, 7L, 8L, 9L), seqs(feed.read(4, 5)));
+
+        PersonServiceException ahead = assertThrows(PersonServiceException.class, () -> feed.read(15, 5));
+        assertEquals(HttpStatus.GONE, ahead.getCode());
+        PersonServiceException limit = assertThrows(PersonServiceException.class, () -> feed.read(0, 6));
+        assertEquals(HttpStatus.BAD_REQUEST, limit.getCode());
+    }
+
+    @Test
+    void await_returnsOnceThereIsANewerChange() throws InterruptedException {
+        assertFalse(feed.await(0, Duration.ofMillis(10)));
+        feed.deleted(7L);
+        assertTrue(feed.await(0, Duration.ofMillis(10)));
+        assertFalse(feed.await(1, Duration.ofMillis(10)));
+    }
+
+    @Test
+    void read_servesChangesNotYetSpilledFromMemory() {
+        for (long id = 1; id <= 10; id++) {
+            feed.saved(person(id, "Person" + id, 0L));
+        }
+        // whether 1 to 6 are still queued or already on disk, they are read in order
+        List<Long> seqs = new ArrayList<>();
+        long since = 0;
+        while (since < 10) {
+            PersonChangePage page = feed.read(since, 5);
+            seqs.addAll(seqs(page));
+            since = page.getNext();
+        }
+        assertEquals(LongStream.rangeClosed(1, 10).boxed().collect(Collectors.toList()), seqs);
+    }
+
+    private void awaitSpilled() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!feed.isSpilled()) {
+            assertTrue(System.nanoTime() < deadline, "changes were not spilled");
+            Thread.onSpinWait();
+        }
+    }
+
+    private static List<Long> seqs(final PersonChangePage page) {
+        return page.getChanges().stream().map(PersonChange::getSeq).collect(Collectors.toList());
+    }
+
+    private static Person person(final Long id, final String firstName, final Long version) {
+        Person person = new Person();
+        person.setId(id);
+        person.setFirstName(firstName);
+        person.setLastName("Singh");
+        person.setAge(30);
+        person.setFavouriteColour("Black");
+        person.setVersion(version);
+        return person;
+    }
+}
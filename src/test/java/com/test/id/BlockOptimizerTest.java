@@ -0,0 +1,102 @@
+package com.test.id;
+
+import org.hibernate.id.IdentifierGeneratorHelper;
+import org.hibernate.id.IntegralDataTypeHolder;
+import org.hibernate.id.enhanced.AccessCallback;
+import org.junit.jupiter.api.Test;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BlockOptimizerTest {
+
+    @Test
+    void generate_handsOutBlockAndReservesNextAhead() {
+        TableCallback table = new TableCallback(1, 10);
+        BlockOptimizer optimizer = new BlockOptimizer(Long.class, 10);
+        for (long id = 1; id <= 5; id++) {
+            assertEquals(id, optimizer.generate(table));
+        }
+        assertEquals(1, table.reservations.get());
+        assertEquals(6l, optimizer.generate(table));
+        assertEquals(2, table.reservations.get());
+        for (long id = 7; id <= 10; id++) {
+            assertEquals(id, optimizer.generate(table));
+        }
+        assertEquals(11l, optimizer.generate(table));
+        assertEquals(2, table.reservations.get());
+        assertEquals(21l, table.value.get());
+    }
+
+    @Test
+    void generate_restartSkipsUnusedIds() {
+        TableCallback table = new TableCallback(1, 10);
+        new BlockOptimizer(Long.class, 10).generate(table);
+        assertEquals(11l, new BlockOptimizer(Long.class, 10).generate(table));
+    }
+
+    @Test
+    void generate_concurrentCallersGetUniqueIds() throws Exception {
+        TableCallback table = new TableCallback(1, 7);
+        BlockOptimizer optimizer = new BlockOptimizer(Long.class, 7);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<Serializable>>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit((Callable<List<Serializable>>) () -> {
+                    List<Serializable> ids = new ArrayList<>();
+                    for (int j = 0; j < 1000; j++) {
+                        ids.add(optimizer.generate(table));
+                    }
+                    return ids;
+                }));
+            }
+            Set<Serializable> unique = new HashSet<>();
+            for (Future<List<Serializable>> result : results) {
+                unique.addAll(result.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(8000, unique.size());
+            assertTrue(table.reservations.get() <= 8000 / 7 + 2);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * In-memory stand-in of the id table: returns the stored value and advances it by the block size.
+     */
+    private static class TableCallback implements AccessCallback {
+
+        private final AtomicLong value;
+        private final AtomicLong reservations = new AtomicLong();
+        private final int increment;
+
+        TableCallback(final long initialValue, final int increment) {
+            this.value = new AtomicLong(initialValue);
+            this.increment = increment;
+        }
+
+        @Override
+        public IntegralDataTypeHolder getNextValue() {
+            reservations.incrementAndGet();
+            return IdentifierGeneratorHelper.getIntegralDataTypeHolder(Long.class).initialize(value.getAndAdd(increment));
+        }
+
+        @Override
+        public String getTenantIdentifier() {
+            return null;
+        }
+    }
+}
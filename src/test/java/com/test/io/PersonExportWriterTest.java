@@ -0,0 +1,48 @@
+package com.test.io;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.test.entity.Person;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PersonExportWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void ndjson_emptyExportIsEmpty() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PersonExportWriter.of(PersonFormat.NDJSON, out, objectMapper).close();
+        assertEquals(0, out.size());
+    }
+
+    @Test
+    void ndjson_everyRowEndsWithNewLine() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PersonExportWriter writer = PersonExportWriter.of(PersonFormat.NDJSON, out, objectMapper)) {
+            writer.write(person(1l, "Saurav"));
+            writer.write(person(2l, "Jane"));
+        }
+        String body = out.toString(UTF_8.name());
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(body.endsWith("}\n"));
+        assertEquals("Jane", objectMapper.readTree(lines[1]).get("firstName").asText());
+    }
+
+    private static Person person(Long id, String firstName) {
+        Person person = new Person();
+        person.setId(id);
+        person.setFirstName(firstName);
+        person.setLastName("Singh");
+        person.setAge(30);
+        person.setFavouriteColour("Black");
+        return person;
+    }
+}
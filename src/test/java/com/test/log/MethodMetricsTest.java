@@ -0,0 +1,38 @@
+package com.test.log;
+
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MethodMetricsTest {
+
+    @Test
+    void record() throws Exception {
+        MethodSignature signature = mock(MethodSignature.class);
+        when(signature.getMethod()).thenReturn(String.class.getMethod("length"));
+        when(signature.getDeclaringType()).thenReturn(String.class);
+        MethodMetrics methodMetrics = new MethodMetrics();
+        MethodMetrics.Stats stats = methodMetrics.stats(signature);
+        assertSame(stats, methodMetrics.stats(signature));
+        for (int i = 1; i <= 100; i++) {
+            stats.record(TimeUnit.MILLISECONDS.toNanos(i), i % 10 == 0);
+        }
+        stats.record(TimeUnit.HOURS.toNanos(1), false);
+
+        Map<String, MethodMetrics.Snapshot> snapshot = methodMetrics.snapshot();
+        MethodMetrics.Snapshot length = snapshot.get("String.length");
+        assertEquals(101, length.getCalls());
+        assertEquals(10, length.getErrors());
+        assertEquals(51, length.getP50Millis(), 1);
+        assertEquals(100, length.getP99Millis(), 2);
+        assertTrue(length.getMaxMillis() >= TimeUnit.MINUTES.toMillis(1));
+    }
+}
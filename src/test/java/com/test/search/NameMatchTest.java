@@ -0,0 +1,28 @@
+package com.test.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class NameMatchTest {
+
+    @Test
+    void resolve_prefixOnlyWhenEveryTermEndsWithMark() {
+        assertEquals(NameMatch.PREFIX, NameMatch.AUTO.resolve("sau*", null));
+        assertEquals(NameMatch.PREFIX, NameMatch.AUTO.resolve("sau*", "si*"));
+        assertEquals(NameMatch.CONTAINS, NameMatch.AUTO.resolve("sau*", "si"));
+        assertEquals(NameMatch.CONTAINS, NameMatch.AUTO.resolve("ur", null));
+        assertEquals(NameMatch.CONTAINS, NameMatch.AUTO.resolve(null, null));
+        assertEquals(NameMatch.PREFIX, NameMatch.PREFIX.resolve("ur", null));
+        assertEquals(NameMatch.CONTAINS, NameMatch.CONTAINS.resolve("sau*", null));
+    }
+
+    @Test
+    void term_stripsMark() {
+        assertEquals("sau", NameMatch.term("sau**"));
+        assertEquals("sau", NameMatch.term("sau"));
+        assertEquals("", NameMatch.term("*"));
+        assertNull(NameMatch.term(null));
+    }
+}
@@ -0,0 +1,86 @@
+package com.test.search;
+
+import com.test.entity.Person;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PersonFuzzyIndexTest {
+
+    private PersonFuzzyIndex personFuzzyIndex;
+
+    @BeforeEach
+    public void setup() {
+        personFuzzyIndex = new PersonFuzzyIndex();
+        personFuzzyIndex.saved(person(1l, "John", "Smith"));
+        personFuzzyIndex.saved(person(2l, "Jon", "Smyth"));
+        personFuzzyIndex.saved(person(3l, "Joan", "Schmidt"));
+        personFuzzyIndex.saved(person(4l, "Saurav", "Singh"));
+        personFuzzyIndex.ready();
+    }
+
+    @Test
+    void search_ranksBySpelling() {
+        List<PersonFuzzyIndex.Hit> hits = personFuzzyIndex.search(null, "smith", 10);
+        assertEquals(Arrays.asList(1l, 2l, 3l), ids(hits));
+        assertEquals(1.0, hits.get(0).getScore());
+        assertEquals(0.9, hits.get(1).getScore(), 1e-9);
+        assertEquals(0.5, hits.get(2).getScore(), 1e-9);
+    }
+
+    @Test
+    void search_keepsTopK() {
+        assertEquals(Arrays.asList(1l, 2l), ids(personFuzzyIndex.search(null, "smith", 2)));
+        assertEquals(Arrays.asList(2l, 1l), ids(personFuzzyIndex.search("jon", "smyth", 2)));
+        assertTrue(personFuzzyIndex.search("xyz", null, 10).isEmpty());
+    }
+
+    @Test
+    void deleted_removesFromIndex() {
+        personFuzzyIndex.deleted(1l);
+        assertEquals(Arrays.asList(2l, 3l), ids(personFuzzyIndex.search(null, "smith", 10)));
+        assertEquals(3, personFuzzyIndex.size());
+    }
+
+    @Test
+    void saved_outOfOrderKeepsNewestAndDeletions() {
+        personFuzzyIndex.saved(person(4l, "Saurav", "Smith", 2l));
+        personFuzzyIndex.saved(person(4l, "Saurav", "Singh", 1l));
+        assertEquals(Arrays.asList(1l, 4l, 2l, 3l), ids(personFuzzyIndex.search(null, "smith", 10)));
+        personFuzzyIndex.deleted(1l);
+        personFuzzyIndex.saved(person(1l, "John", "Smith", 1l));
+        assertEquals(Arrays.asList(4l, 2l, 3l), ids(personFuzzyIndex.search(null, "smith", 10)));
+    }
+
+    @Test
+    void distance_isBounded() {
+        assertEquals(0, PersonFuzzyIndex.distance("smith", "smith", 2));
+        assertEquals(1, PersonFuzzyIndex.distance("smith", "smyth", 2));
+        assertEquals(2, PersonFuzzyIndex.distance("saurav", "sourov", 2));
+        assertEquals(3, PersonFuzzyIndex.distance("smith", "schmidt", 2));
+        assertEquals(3, PersonFuzzyIndex.distance("a", "abcdef", 2));
+    }
+
+    private static List<Long> ids(List<PersonFuzzyIndex.Hit> hits) {
+        return hits.stream().map(PersonFuzzyIndex.Hit::getId).collect(Collectors.toList());
+    }
+
+    private static Person person(Long id, String firstName, String lastName) {
+        return person(id, firstName, lastName, null);
+    }
+
+    private static Person person(Long id, String firstName, String lastName, Long version) {
+        Person person = new Person();
+        person.setId(id);
+        person.setFirstName(firstName);
+        person.setLastName(lastName);
+        person.setVersion(version);
+        return person;
+    }
+}
@@ -0,0 +1,101 @@
+package com.test.search;
+
+import com.test.entity.Person;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PersonNameIndexTest {
+
+    private PersonNameIndex personNameIndex;
+
+    @BeforeEach
+    public void setup() {
+        personNameIndex = new PersonNameIndex();
+        personNameIndex.saved(person(1l, "Saurav", "Singh"));
+        personNameIndex.saved(person(2l, "John", "Keynes"));
+        personNameIndex.saved(person(3l, "Ravi", "Sauravson"));
+        personNameIndex.ready();
+    }
+
+    @Test
+    void canSearch() {
+        assertTrue(personNameIndex.canSearch("sau", null));
+        assertFalse(personNameIndex.canSearch("sa", null));
+        assertFalse(personNameIndex.canSearch("saurav", "s"));
+        assertFalse(personNameIndex.canSearch(null, null));
+        assertFalse(new PersonNameIndex().canSearch("saurav", null));
+    }
+
+    @Test
+    void search_containsIgnoringCase() {
+        assertEquals(Collections.singletonList(1l), personNameIndex.search("AURA", null));
+        assertEquals(Arrays.asList(1l, 3l), personNameIndex.search("saurav", "saurav"));
+        assertEquals(Collections.singletonList(2l), personNameIndex.search(null, "eyn"));
+    }
+
+    @Test
+    void search_gramsOutOfOrder() {
+        personNameIndex.saved(person(4l, "Max", "Abcxbcd"));
+        // both trigrams of "abcd" are in "abcxbcd" but the term itself is not
+        assertEquals(Collections.emptyList(), personNameIndex.search(null, "abcd"));
+        assertEquals(Collections.singletonList(4l), personNameIndex.search(null, "xbcd"));
+    }
+
+    @Test
+    void saved_replacesNames() {
+        personNameIndex.saved(person(1l, "Anna", "Smith", 1l));
+        assertEquals(Collections.emptyList(), personNameIndex.search("saurav", null));
+        assertEquals(Collections.singletonList(1l), personNameIndex.search(null, "smi"));
+        assertEquals(3, personNameIndex.size());
+    }
+
+    @Test
+    void saved_outOfOrderKeepsNewestAndDeletions() {
+        personNameIndex.saved(person(1l, "Anna", "Smith", 2l));
+        personNameIndex.saved(person(1l, "Maya", "Iyer", 1l));
+        assertEquals(Collections.singletonList(1l), personNameIndex.search("anna", null));
+        assertEquals(Collections.emptyList(), personNameIndex.search("maya", null));
+        personNameIndex.deleted(2l);
+        personNameIndex.saved(person(2l, "John", "Keynes", 1l));
+        assertEquals(Collections.emptyList(), personNameIndex.search("john", null));
+    }
+
+    @Test
+    void deleted() {
+        personNameIndex.deleted(2l);
+        assertEquals(Collections.emptyList(), personNameIndex.search("john", "keynes"));
+        assertEquals(2, personNameIndex.size());
+    }
+
+    @Test
+    void loaded_neverOverridesWritesDuringWarmUp() {
+        PersonNameIndex warmingUp = new PersonNameIndex();
+        warmingUp.saved(person(1l, "John", "Keynes"));
+        warmingUp.deleted(2l);
+        warmingUp.loaded(person(1l, "Saurav", "Singh"));
+        warmingUp.loaded(person(2l, "Saurav", "Singh"));
+        warmingUp.ready();
+        assertEquals(Collections.singletonList(1l), warmingUp.search("john", null));
+        assertEquals(Collections.emptyList(), warmingUp.search("saurav", null));
+    }
+
+    private Person person(Long id, String firstName, String lastName) {
+        return person(id, firstName, lastName, null);
+    }
+
+    private Person person(Long id, String firstName, String lastName, Long version) {
+        Person person = new Person();
+        person.setId(id);
+        person.setFirstName(firstName);
+        person.setLastName(lastName);
+        person.setVersion(version);
+        return person;
+    }
+}
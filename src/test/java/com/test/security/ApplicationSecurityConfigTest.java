@@ -0,0 +1,31 @@
+package com.test.security;
+
+import com.test.PersonServiceApplication;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.Banner;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ApplicationSecurityConfigTest {
+
+    @Test
+    void credentialCacheDisabled_authenticatesWithoutCachingProvider() {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(PersonServiceApplication.class)
+                .bannerMode(Banner.Mode.OFF)
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:security-no-cache",
+                        "--person.security.credential-cache.enabled=false")) {
+            assertTrue(context.getBeansOfType(CachingAuthenticationProvider.class).isEmpty());
+            String url = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort()
+                    + "/persons/stats";
+            assertEquals(HttpStatus.OK, new TestRestTemplate("admin", "admin").getForEntity(url, String.class).getStatusCode());
+            assertEquals(HttpStatus.UNAUTHORIZED, new TestRestTemplate("admin", "wrong").getForEntity(url, String.class).getStatusCode());
+        }
+    }
+}
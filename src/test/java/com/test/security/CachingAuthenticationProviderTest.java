@@ -0,0 +1,75 @@
+package com.test.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CachingAuthenticationProviderTest {
+
+    private final AtomicInteger verifications = new AtomicInteger();
+    private CachingAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(4) {
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                verifications.incrementAndGet();
+                return super.matches(rawPassword, encodedPassword);
+            }
+        };
+        DaoAuthenticationProvider delegate = new DaoAuthenticationProvider();
+        delegate.setPasswordEncoder(encoder);
+        delegate.setUserDetailsService(new InMemoryUserDetailsManager(User.withUsername("admin")
+                .password(encoder.encode("admin")).roles("ADMIN").build()));
+        provider = new CachingAuthenticationProvider(delegate, 10, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void authenticate_verifiesPasswordOnce() {
+        Authentication first = provider.authenticate(token("admin", "admin"));
+        Authentication second = provider.authenticate(token("admin", "admin"));
+        assertTrue(second.isAuthenticated());
+        assertEquals("admin", second.getName());
+        assertEquals(first.getAuthorities(), second.getAuthorities());
+        assertNotSame(first, second);
+        assertEquals(1, verifications.get());
+    }
+
+    @Test
+    void authenticate_wrongPasswordAlwaysVerified() {
+        provider.authenticate(token("admin", "admin"));
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(token("admin", "wrong")));
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(token("admin", "wrong")));
+        assertEquals(3, verifications.get());
+    }
+
+    @Test
+    void bindTo_countsHits() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        provider.bindTo(registry);
+        provider.authenticate(token("admin", "admin"));
+        provider.authenticate(token("admin", "admin"));
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", CachingAuthenticationProvider.NAME)
+                .tag("result", "hit").functionCounter().count());
+    }
+
+    private static UsernamePasswordAuthenticationToken token(String username, String password) {
+        return new UsernamePasswordAuthenticationToken(username, password);
+    }
+}
@@ -0,0 +1,94 @@
+package com.test.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.test.io.PersonFormat;
+import com.test.request.PersonRequest;
+import com.test.response.BatchItemError;
+import com.test.response.BatchSaveResponse;
+import com.test.response.ImportReport;
+import com.test.service.IPersonService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PersonImportServiceTest {
+
+    @Mock
+    private IPersonService personService;
+
+    private PersonImportService personImportService;
+
+    @BeforeEach
+    public void setup() {
+        personImportService = new PersonImportService(personService, new ObjectMapper(), 1, 2, 1);
+    }
+
+    @Test
+    void importAll_csv() {
+        List<List<PersonRequest>> chunks = new ArrayList<>();
+        when(personService.saveAll(anyList())).thenAnswer(invocation -> {
+            List<PersonRequest> requests = invocation.getArgument(0);
+            chunks.add(new ArrayList<>(requests));
+            return new BatchSaveResponse(Collections.nCopies(requests.size(), 1l), requests.size(), 0, Collections.emptyList());
+        });
+        String csv = "favourite_colour,first_name,last_name,age\n"
+                + "Red,Jane,\"Doe\nSmith\",40\n"
+                + "Blue,\"Jack \"\"JJ\"\"\",Black,22\n"
+                + "Green,Anna,Smith,28\n";
+        ImportReport report = personImportService.importAll(PersonFormat.CSV, new ByteArrayInputStream(csv.getBytes(UTF_8)));
+        assertEquals(3, report.getProcessed());
+        assertEquals(3, report.getImported());
+        assertEquals(2, report.getChunks());
+        verify(personService, times(2)).saveAll(anyList());
+        assertEquals("Doe\nSmith", chunks.get(0).get(0).getLastName());
+        assertEquals("Jack \"JJ\"", chunks.get(0).get(1).getFirstName());
+        assertEquals(22, chunks.get(0).get(1).getAge());
+        assertEquals("Green", chunks.get(1).get(0).getFavouriteColour());
+    }
+
+    @Test
+    void importAll_ndjson_errors() {
+        List<PersonRequest> saved = new ArrayList<>();
+        when(personService.saveAll(anyList())).thenAnswer(invocation -> {
+            saved.addAll(invocation.getArgument(0));
+            return new BatchSaveResponse(Arrays.asList(null, 2l), 1, 1,
+                    Collections.singletonList(new BatchItemError(0, Collections.singletonList("Person last name can't be empty."))));
+        });
+        String ndjson = "{\"first_name\":\"Jim\"}\n"
+                + "{broken\n"
+                + "{\"first_name\":\"Jack\",\"last_name\":\"Black\",\"age\":22,\"favourite_colour\":\"Blue\"}";
+        ImportReport report = personImportService.importAll(PersonFormat.NDJSON, new ByteArrayInputStream(ndjson.getBytes(UTF_8)));
+        assertEquals(3, report.getProcessed());
+        assertEquals(1, report.getImported());
+        assertEquals(2, report.getFailed());
+        assertEquals(1, report.getErrors().size());
+        assertEquals(2, report.getErrors().get(0).getLine());
+        assertTrue(report.isErrorsTruncated());
+        assertEquals("Jack", saved.get(1).getFirstName());
+    }
+
+    @Test
+    void importAll_empty() {
+        ImportReport report = personImportService.importAll(PersonFormat.NDJSON, new ByteArrayInputStream(new byte[0]));
+        assertEquals(0, report.getProcessed());
+        assertFalse(report.isErrorsTruncated());
+    }
+}
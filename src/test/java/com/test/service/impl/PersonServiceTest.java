@@ -1,9 +1,26 @@
 package com.test.service.impl;
 
+import com.test.cache.PersonCache;
+import com.test.cache.PersonIdFilter;
+import com.test.cache.PersonReadCoalescer;
 import com.test.entity.Person;
+import com.test.exception.PersonNotFoundException;
 import com.test.exception.PersonServiceException;
 import com.test.repository.PersonRepository;
+import com.test.request.PersonBulkUpdateRequest;
+import com.test.request.PersonCriteria;
+import com.test.request.PersonPatchRequest;
 import com.test.request.PersonRequest;
+import com.test.request.PersonSelection;
+import com.test.response.BatchSaveResponse;
+import com.test.response.BulkResponse;
+import com.test.response.CursorPage;
+import com.test.response.PersonLookupResponse;
+import com.test.response.PersonMatch;
+import com.test.search.PersonCursor;
+import com.test.search.PersonFuzzyIndex;
+import com.test.search.PersonNameIndex;
+import com.test.search.NameMatch;
 import com.test.search.PersonSearchSpecification;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.MethodOrderer;
@@ -14,27 +31,45 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.BeanUtils;
+import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import javax.validation.Validation;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.CONFLICT;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
 
 @ExtendWith(MockitoExtension.class)
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
@@ -44,6 +79,18 @@ class PersonServiceTest {
     private PersonRepository personRepository;
     @Mock
     private PersonSearchSpecification personSearchSpecification;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PersonNameIndex personNameIndex;
+
+    private PersonFuzzyIndex personFuzzyIndex;
+
+    private PersonCache personCache;
+
+    private PersonIdFilter personIdFilter;
+
+    private PersonReadCoalescer personReadCoalescer;
 
     private PersonService personService;
 
@@ -51,7 +98,14 @@ class PersonServiceTest {
 
     @BeforeEach
     public void setup() {
-        personService = new PersonService(personRepository, personSearchSpecification);
+        personNameIndex = new PersonNameIndex();
+        personFuzzyIndex = new PersonFuzzyIndex();
+        personCache = new PersonCache(100, Duration.ofMinutes(1), false);
+        personReadCoalescer = new PersonReadCoalescer(true);
+        personIdFilter = new PersonIdFilter();
+        personService = new PersonService(personRepository, personSearchSpecification, personNameIndex, personFuzzyIndex,
+                personCache, personIdFilter, personReadCoalescer,
+                Arrays.asList(personNameIndex, personFuzzyIndex, personCache, personIdFilter, personReadCoalescer), Validation.buildDefaultValidatorFactory().getValidator(), transactionManager, 2, 10, 100);
     }
 
     @Test
@@ -81,6 +135,8 @@ class PersonServiceTest {
         Person byId = personService.findById(1l);
         assertNotNull(byId);
         assertEquals(1l, byId.getId());
+        assertEquals(byId, personService.findById(1l));
+        verify(personRepository).findById(anyLong());
     }
 
     @Test
@@ -92,6 +148,20 @@ class PersonServiceTest {
         assertThrows(PersonServiceException.class, () -> personService.findById(1l));
     }
 
+    @Test
+    @Order(4)
+    void findById_filtered() {
+        personIdFilter.saved(getPerson());
+        personIdFilter.ready();
+        PersonNotFoundException notFound = assertThrows(PersonNotFoundException.class, () -> personService.findById(2l));
+        assertEquals(NOT_FOUND, notFound.getCode());
+        assertEquals(0, notFound.getStackTrace().length);
+        assertThrows(PersonNotFoundException.class, () -> personService.update(2l, personRequest));
+        assertThrows(PersonNotFoundException.class, () -> personService.delete(2l));
+        verify(personRepository, never()).findById(anyLong());
+        verify(personRepository, never()).deleteById(anyLong());
+    }
+
     @Test
     @Order(5)
     void findAll() {
@@ -112,7 +182,7 @@ class PersonServiceTest {
     @Test
     @Order(7)
     void findAllByName() {
-        when(personSearchSpecification.getNameFilter(anyString(), anyString())).thenReturn((Specification<Person>) (root, cq, cb) -> null);
+        when(personSearchSpecification.getNameFilter(anyString(), anyString(), any(NameMatch.class))).thenReturn((Specification<Person>) (root, cq, cb) -> null);
         when(personRepository.findAll(any(Specification.class))).thenReturn(Arrays.asList(getPerson()));
         List<Person> personList = personService.findAllByName("Saurav", "Singh");
         assertEquals(1, personList.size());
@@ -121,7 +191,7 @@ class PersonServiceTest {
     @Test
     @Order(8)
     void findAllByName_notfound() {
-        when(personSearchSpecification.getNameFilter(anyString(), anyString())).thenReturn((Specification<Person>) (root, cq, cb) -> null);
+        when(personSearchSpecification.getNameFilter(anyString(), anyString(), any(NameMatch.class))).thenReturn((Specification<Person>) (root, cq, cb) -> null);
         when(personRepository.findAll(any(Specification.class))).thenReturn(Collections.emptyList());
         List<Person> personList = personService.findAllByName("Saurav", "");
         assertEquals(0, personList.size());
@@ -130,11 +200,23 @@ class PersonServiceTest {
     @Test
     @Order(9)
     void findAllByName_error() {
-        when(personSearchSpecification.getNameFilter(anyString(), anyString())).thenReturn((Specification<Person>) (root, cq, cb) -> null);
+        when(personSearchSpecification.getNameFilter(anyString(), anyString(), any(NameMatch.class))).thenReturn((Specification<Person>) (root, cq, cb) -> null);
         when(personRepository.findAll(any(Specification.class))).thenThrow(new RuntimeException("Unknown error"));
         assertThrows(PersonServiceException.class, () -> personService.findAllByName("Saurav", "Singh"));
     }
 
+    @Test
+    @Order(9)
+    void findAllByName_index() {
+        personNameIndex.saved(getPerson());
+        personNameIndex.ready();
+        when(personRepository.findAllById(Collections.singletonList(1l))).thenReturn(Collections.singletonList(getPerson()));
+        List<Person> personList = personService.findAllByName("AUR", null);
+        assertEquals(1, personList.size());
+        assertEquals(0, personService.findAllByName("xyz", "abc").size());
+        verify(personRepository).findAllById(any());
+    }
+
     @Test
     @Order(10)
     void update() {
@@ -146,14 +228,258 @@ class PersonServiceTest {
         personService.update(1l, personRequest);
         verify(personRepository).findById(anyLong());
         verify(personRepository).save(any(Person.class));
+        assertEquals(1, personNameIndex.size());
+        assertNotNull(personCache.getIfPresent(1l));
     }
 
     @Test
     @Order(11)
     void delete() {
         doNothing().when(personRepository).deleteById(anyLong());
+        personNameIndex.saved(getPerson());
+        personCache.saved(getPerson());
         personService.delete(1l);
         verify(personRepository).deleteById(anyLong());
+        assertEquals(0, personNameIndex.size());
+        assertNull(personCache.getIfPresent(1l));
+    }
+
+    @Test
+    @Order(12)
+    void saveAll() {
+        PersonRequest invalid = buildPersonRequest();
+        invalid.setFirstName(" ");
+        when(personRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Person> persons = invocation.getArgument(0);
+            persons.forEach(person -> person.setId((long) person.getAge()));
+            return persons;
+        });
+        List<PersonRequest> requests = Arrays.asList(buildPersonRequest(31), invalid, buildPersonRequest(32), buildPersonRequest(33));
+        BatchSaveResponse response = personService.saveAll(requests);
+        assertEquals(Arrays.asList(31l, null, 32l, 33l), response.getIds());
+        assertEquals(3, response.getSaved());
+        assertEquals(1, response.getFailed());
+        assertEquals(1, response.getErrors().get(0).getIndex());
+        verify(personRepository, times(2)).saveAll(anyList());
+    }
+
+    @Test
+    @Order(13)
+    void saveAll_chunkFailed() {
+        when(personRepository.saveAll(anyList())).thenThrow(new RuntimeException("Unable to connect to database"));
+        BatchSaveResponse response = personService.saveAll(Arrays.asList(buildPersonRequest(31), buildPersonRequest(32)));
+        assertNull(response.getIds().get(0));
+        assertEquals(0, response.getSaved());
+        assertEquals(2, response.getErrors().size());
+    }
+
+    @Test
+    @Order(14)
+    void saveAll_tooLarge() {
+        assertThrows(PersonServiceException.class, () -> personService.saveAll(Collections.nCopies(11, buildPersonRequest())));
+    }
+
+    @Test
+    @Order(15)
+    void exportAll() {
+        Person first = getPerson();
+        Person second = getPerson();
+        second.setId(2l);
+        when(personRepository.streamAllBy()).thenReturn(Stream.of(first, second));
+        List<Person> exported = new ArrayList<>();
+        personService.exportAll(exported::add);
+        assertEquals(Arrays.asList(first, second), exported);
+        verify(personRepository).detach(first);
+        verify(personRepository).detach(second);
+    }
+
+    @Test
+    @Order(16)
+    void exportAll_failed() {
+        when(personRepository.streamAllBy()).thenThrow(new RuntimeException("Unable to connect to database"));
+        assertThrows(PersonServiceException.class, () -> personService.exportAll(person -> {
+        }));
+    }
+
+    @Test
+    @Order(17)
+    void scroll() {
+        Person second = getPerson();
+        second.setId(2l);
+        when(personRepository.findPageAfter(eq("lastName"), isNull(), eq(2))).thenReturn(Arrays.asList(getPerson(), second));
+        CursorPage<Person> page = personService.scroll("lastName", 1, null);
+        assertEquals(1, page.getContent().size());
+        assertTrue(page.isHasNext());
+        PersonCursor cursor = PersonCursor.decode(page.getNext());
+        assertEquals("lastName", cursor.getSortBy());
+        assertEquals("Singh", cursor.getValue());
+        assertEquals(1l, cursor.getId());
+
+        when(personRepository.findPageAfter(eq("lastName"), any(PersonCursor.class), eq(2))).thenReturn(Collections.singletonList(second));
+        CursorPage<Person> last = personService.scroll("id", 1, page.getNext());
+        assertEquals(1, last.getContent().size());
+        assertNull(last.getNext());
+    }
+
+    @Test
+    @Order(18)
+    void scroll_invalid() {
+        assertThrows(PersonServiceException.class, () -> personService.scroll("favouriteColour", 10, null));
+        assertThrows(PersonServiceException.class, () -> personService.scroll("id", 0, null));
+        assertThrows(PersonServiceException.class, () -> personService.scroll("id", 10, "not-a-cursor"));
+    }
+
+    @Test
+    @Order(19)
+    void delete_notFound() {
+        doThrow(new EmptyResultDataAccessException(1)).when(personRepository).deleteById(anyLong());
+        assertThrows(PersonNotFoundException.class, () -> personService.delete(1l));
+    }
+
+    @Test
+    @Order(20)
+    void patch_fromCachedVersion() {
+        Person cached = getPerson();
+        cached.setVersion(3l);
+        personCache.saved(cached);
+        PersonPatchRequest patch = new PersonPatchRequest();
+        patch.setFirstName("John");
+        when(personRepository.patch(1l, patch, 3l)).thenReturn(1);
+        Person patched = personService.patch(1l, patch, 3l);
+        assertEquals("John", patched.getFirstName());
+        assertEquals("Singh", patched.getLastName());
+        assertEquals(4l, patched.getVersion());
+        assertEquals("Saurav", cached.getFirstName());
+        assertEquals(patched, personCache.getIfPresent(1l));
+        verify(personRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    @Order(21)
+    void patch_reloadsWithoutVersion() {
+        Person stored = getPerson();
+        stored.setVersion(5l);
+        PersonPatchRequest patch = new PersonPatchRequest();
+        patch.setAge(40);
+        when(personRepository.patch(1l, patch, null)).thenReturn(1);
+        when(personRepository.findById(1l)).thenReturn(Optional.of(stored));
+        assertEquals(5l, personService.patch(1l, patch, null).getVersion());
+        assertEquals(1, personNameIndex.size());
+    }
+
+    @Test
+    @Order(22)
+    void patch_conflictOrNotFound() {
+        PersonPatchRequest patch = new PersonPatchRequest();
+        patch.setAge(40);
+        when(personRepository.patch(1l, patch, 2l)).thenReturn(0);
+        when(personRepository.existsById(1l)).thenReturn(true, false);
+        PersonServiceException conflict = assertThrows(PersonServiceException.class, () -> personService.patch(1l, patch, 2l));
+        assertEquals(CONFLICT, conflict.getCode());
+        assertThrows(PersonNotFoundException.class, () -> personService.patch(1l, patch, 2l));
+        PersonServiceException empty = assertThrows(PersonServiceException.class,
+                () -> personService.patch(1l, new PersonPatchRequest(), null));
+        assertEquals(BAD_REQUEST, empty.getCode());
+    }
+
+    @Test
+    @Order(23)
+    void deleteAll_byIdsInChunks() {
+        personCache.saved(getPerson());
+        personNameIndex.saved(getPerson());
+        when(personRepository.deleteAllByIdIn(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+        PersonSelection selection = new PersonSelection();
+        selection.setIds(Arrays.asList(1l, 2l, 2l, 3l));
+        BulkResponse response = personService.deleteAll(selection);
+        assertEquals(3, response.getAffected());
+        assertEquals(2, response.getChunks());
+        verify(personRepository).deleteAllByIdIn(Arrays.asList(1l, 2l));
+        verify(personRepository).deleteAllByIdIn(Collections.singletonList(3l));
+        assertNull(personCache.getIfPresent(1l));
+        assertEquals(0, personNameIndex.size());
+    }
+
+    @Test
+    @Order(24)
+    void updateAll_byCriteria() {
+        Person first = getPerson();
+        first.setFavouriteColour("Green");
+        first.setVersion(1l);
+        Person second = getPerson();
+        second.setId(2l);
+        second.setFavouriteColour("Green");
+        second.setVersion(1l);
+        personCache.saved(getPerson());
+        when(personRepository.findIdsAfter(any(), isNull(), eq(2))).thenReturn(Arrays.asList(1l, 2l));
+        when(personRepository.findIdsAfter(any(), eq(2l), eq(2))).thenReturn(Collections.emptyList());
+        when(personRepository.patchAll(eq(Arrays.asList(1l, 2l)), any(PersonPatchRequest.class))).thenReturn(2);
+        when(personRepository.findAllById(Arrays.asList(1l, 2l))).thenReturn(Arrays.asList(first, second));
+        PersonCriteria criteria = new PersonCriteria();
+        criteria.setFirstName("saurav");
+        PersonBulkUpdateRequest request = new PersonBulkUpdateRequest();
+        request.setCriteria(criteria);
+        request.setFavouriteColour("Green");
+        BulkResponse response = personService.updateAll(request);
+        assertEquals(2, response.getAffected());
+        assertEquals(1, response.getChunks());
+        assertEquals("Green", personCache.getIfPresent(1l).getFavouriteColour());
+    }
+
+    @Test
+    @Order(25)
+    void bulk_invalidSelection() {
+        PersonSelection neither = new PersonSelection();
+        assertEquals(BAD_REQUEST, assertThrows(PersonServiceException.class, () -> personService.deleteAll(neither)).getCode());
+        PersonSelection emptyCriteria = new PersonSelection();
+        emptyCriteria.setCriteria(new PersonCriteria());
+        assertEquals(BAD_REQUEST, assertThrows(PersonServiceException.class, () -> personService.deleteAll(emptyCriteria)).getCode());
+        PersonBulkUpdateRequest nothing = new PersonBulkUpdateRequest();
+        nothing.setIds(Collections.singletonList(1l));
+        assertEquals(BAD_REQUEST, assertThrows(PersonServiceException.class, () -> personService.updateAll(nothing)).getCode());
+    }
+
+    @Test
+    @Order(26)
+    void lookup_inRequestOrder() {
+        Person cached = getPerson();
+        personCache.saved(cached);
+        Person third = getPerson();
+        third.setId(3l);
+        when(personRepository.findAllById(Arrays.asList(3l, 2l))).thenReturn(Collections.singletonList(third));
+        PersonLookupResponse response = personService.lookup(Arrays.asList(3l, 1l, 2l, 3l));
+        assertEquals(Arrays.asList(3l, 1l), response.getPersons().stream().map(Person::getId).collect(Collectors.toList()));
+        assertEquals(Collections.singletonList(2l), response.getMissing());
+        assertThrows(PersonServiceException.class, () -> personService.lookup(Collections.nCopies(11, 1l)));
+    }
+
+    @Test
+    @Order(27)
+    void fuzzySearch_ranksCachedMatches() {
+        assertEquals(SERVICE_UNAVAILABLE, assertThrows(PersonServiceException.class,
+                () -> personService.fuzzySearch(null, "Smyth", 10)).getCode());
+        Person smith = getPerson();
+        smith.setLastName("Smith");
+        Person smyth = getPerson();
+        smyth.setId(2l);
+        smyth.setLastName("Smyth");
+        personFuzzyIndex.saved(smith);
+        personFuzzyIndex.saved(smyth);
+        personFuzzyIndex.ready();
+        personCache.saved(smith);
+        personCache.saved(smyth);
+        List<PersonMatch> matches = personService.fuzzySearch(null, "smyth", 10);
+        assertEquals(2, matches.size());
+        assertEquals(2l, matches.get(0).getPerson().getId());
+        assertEquals(1.0, matches.get(0).getScore());
+        assertEquals(0.9, matches.get(1).getScore());
+        assertEquals(BAD_REQUEST, assertThrows(PersonServiceException.class,
+                () -> personService.fuzzySearch(null, null, 10)).getCode());
+    }
+
+    private PersonRequest buildPersonRequest(int age) {
+        PersonRequest personRequest = buildPersonRequest();
+        personRequest.setAge(age);
+        return personRequest;
     }
 
     private PersonRequest buildPersonRequest() {
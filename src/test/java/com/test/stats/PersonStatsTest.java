@@ -0,0 +1,106 @@
+package com.test.stats;
+
+import com.test.entity.Person;
+import com.test.repository.PersonRepository;
+import com.test.response.PersonStatsResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PersonStatsTest {
+
+    @Mock
+    private PersonRepository personRepository;
+
+    private PersonStats personStats;
+
+    @BeforeEach
+    void setUp() {
+        personStats = new PersonStats(personRepository);
+    }
+
+    @Test
+    void saved_movesPersonBetweenBuckets() {
+        personStats.saved(person(1l, "Saurav", "Singh", 30, "Black"));
+        personStats.saved(person(2l, "anna", "Smith", 104, "Red"));
+        personStats.saved(person(1l, "Saurav", "Singh", 31, "Blue"));
+        personStats.deleted(2l);
+        PersonStatsResponse stats = personStats.snapshot();
+        assertEquals(1, stats.getTotal());
+        assertEquals(Collections.singletonMap("Blue", 1l), stats.getByFavouriteColour());
+        assertEquals(1l, stats.getByAge().get("30-39"));
+        assertEquals(0l, stats.getByAge().get("100+"));
+        assertEquals(Collections.singletonMap("S", 1l), stats.getByFirstNameInitial());
+        assertFalse(stats.isReady());
+    }
+
+    @Test
+    void loaded_doesNotOverrideWrites() {
+        personStats.saved(person(1l, "Saurav", "Singh", 30, "Green"));
+        personStats.deleted(2l);
+        personStats.loaded(person(1l, "Saurav", "Singh", 30, "Black"));
+        personStats.loaded(person(2l, "Jane", "Doe", 20, "Black"));
+        personStats.loaded(person(3l, "1st", "Doe", 20, "Black"));
+        personStats.ready();
+        PersonStatsResponse stats = personStats.snapshot();
+        assertEquals(2, stats.getTotal());
+        assertEquals(1l, stats.getByFavouriteColour().get("Green"));
+        assertEquals(1l, stats.getByFavouriteColour().get("Black"));
+        assertEquals(1l, stats.getByFirstNameInitial().get("#"));
+        assertTrue(stats.isReady());
+    }
+
+    @Test
+    void reconcile_correctsDrift() {
+        personStats.saved(person(1l, "Saurav", "Singh", 30, "Black"));
+        personStats.saved(person(2l, "Jane", "Doe", 20, "Red"));
+        personStats.ready();
+        when(personRepository.countByFavouriteColour()).thenReturn(Collections.singletonList(new Object[]{"Black", 1l}));
+        when(personRepository.countByAgeDecade()).thenReturn(Collections.singletonList(new Object[]{3, 1l}));
+        when(personRepository.countByFirstNameInitial()).thenReturn(Collections.singletonList(new Object[]{"S", 1l}));
+        when(personRepository.countByLastNameInitial()).thenReturn(Collections.singletonList(new Object[]{"S", 1l}));
+        personStats.reconcile();
+        PersonStatsResponse stats = personStats.snapshot();
+        assertEquals(1, stats.getTotal());
+        assertNull(stats.getByFavouriteColour().get("Red"));
+        assertEquals(0l, stats.getByAge().get("20-29"));
+        assertEquals(5, stats.getCorrections());
+    }
+
+    @Test
+    void reconcile_correctsOtherColour() {
+        personStats.saved(person(1l, "Saurav", "Singh", 30, null));
+        personStats.saved(person(2l, "Jane", "Doe", 30, "Red"));
+        personStats.ready();
+        when(personRepository.countByFavouriteColour()).thenReturn(Arrays.asList(new Object[]{null, 2l}, new Object[]{"Red", 0l}));
+        when(personRepository.countByAgeDecade()).thenReturn(Collections.singletonList(new Object[]{3, 2l}));
+        when(personRepository.countByFirstNameInitial()).thenReturn(Arrays.asList(new Object[]{"S", 1l}, new Object[]{"J", 1l}));
+        when(personRepository.countByLastNameInitial()).thenReturn(Arrays.asList(new Object[]{"S", 1l}, new Object[]{"D", 1l}));
+        personStats.reconcile();
+        PersonStatsResponse stats = personStats.snapshot();
+        assertEquals(Collections.singletonMap(PersonStats.OTHER_COLOUR, 2l), stats.getByFavouriteColour());
+        assertEquals(2, stats.getCorrections());
+    }
+
+    private static Person person(Long id, String firstName, String lastName, int age, String colour) {
+        Person person = new Person();
+        person.setId(id);
+        person.setFirstName(firstName);
+        person.setLastName(lastName);
+        person.setAge(age);
+        person.setFavouriteColour(colour);
+        return person;
+    }
+}